@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.restfb.Connection;
+import com.restfb.DefaultFacebookClient;
+import com.restfb.FacebookClient;
+import com.restfb.Version;
+import com.restfb.types.Post;
+import com.restfb.types.User;
+
+/**
+ * Builds {@link Connection}s from user and feed pages.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConnectionBenchmark {
+
+  private final FacebookClient facebookClient = new DefaultFacebookClient(Version.LATEST);
+
+  private String userConnectionJson;
+
+  private String feedJson;
+
+  @Setup
+  public void setUp() {
+    userConnectionJson = Fixtures.load(Fixtures.USER_CONNECTION);
+    feedJson = Fixtures.load(Fixtures.FEED);
+  }
+
+  @Benchmark
+  public Connection<User> users() {
+    return new Connection<>(facebookClient, userConnectionJson, User.class);
+  }
+
+  @Benchmark
+  public Connection<Post> feed() {
+    return new Connection<>(facebookClient, feedJson, Post.class);
+  }
+}
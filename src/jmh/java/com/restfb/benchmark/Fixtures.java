@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import com.restfb.util.StringUtils;
+
+/**
+ * Loads the JSON fixtures under {@code src/test/resources/json} that drive the benchmarks.
+ */
+final class Fixtures {
+
+  static final String USER = "basic-user";
+
+  static final String USER_CONNECTION = "v2_1/connection-user-friends";
+
+  static final String PAGE = "v2_5/page-morefields";
+
+  static final String FEED = "v2_1/feed-got";
+
+  static final String BATCH_RESPONSE = "batch/batch-simple";
+
+  static final String WEBHOOK = "webhooks/feed-post-add-25";
+
+  private Fixtures() {
+    // prevent instantiation
+  }
+
+  static String load(String name) {
+    try (InputStream inputStream = Fixtures.class.getResourceAsStream("/json/" + name + ".json")) {
+      if (inputStream == null) {
+        throw new IllegalArgumentException("Unknown fixture " + name);
+      }
+      return StringUtils.fromInputStream(inputStream);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
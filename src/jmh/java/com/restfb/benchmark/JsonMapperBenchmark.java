@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.restfb.DefaultJsonMapper;
+import com.restfb.JsonMapper;
+import com.restfb.batch.BatchResponse;
+import com.restfb.types.Page;
+import com.restfb.types.User;
+import com.restfb.types.webhook.WebhookObject;
+
+/**
+ * Maps the fixtures to the Graph API types and serializes them back.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonMapperBenchmark {
+
+  private final JsonMapper jsonMapper = new DefaultJsonMapper();
+
+  private String userJson;
+
+  private String pageJson;
+
+  private String batchResponseJson;
+
+  private String webhookJson;
+
+  private User user;
+
+  private Page page;
+
+  @Setup
+  public void setUp() {
+    userJson = Fixtures.load(Fixtures.USER);
+    pageJson = Fixtures.load(Fixtures.PAGE);
+    batchResponseJson = Fixtures.load(Fixtures.BATCH_RESPONSE);
+    webhookJson = Fixtures.load(Fixtures.WEBHOOK);
+    user = jsonMapper.toJavaObject(userJson, User.class);
+    page = jsonMapper.toJavaObject(pageJson, Page.class);
+  }
+
+  @Benchmark
+  public User toJavaObjectUser() {
+    return jsonMapper.toJavaObject(userJson, User.class);
+  }
+
+  @Benchmark
+  public Page toJavaObjectPage() {
+    return jsonMapper.toJavaObject(pageJson, Page.class);
+  }
+
+  @Benchmark
+  public WebhookObject toJavaObjectWebhook() {
+    return jsonMapper.toJavaObject(webhookJson, WebhookObject.class);
+  }
+
+  @Benchmark
+  public List<BatchResponse> toJavaListBatchResponse() {
+    return jsonMapper.toJavaList(batchResponseJson, BatchResponse.class);
+  }
+
+  @Benchmark
+  public String toJsonUser() {
+    return jsonMapper.toJson(user, true);
+  }
+
+  @Benchmark
+  public String toJsonPage() {
+    return jsonMapper.toJson(page, true);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.restfb.json.JsonObject;
+import com.restfb.json.JsonValue;
+
+/**
+ * Member lookups by name in objects of growing width, the cost per lookup should not depend on the member count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonObjectLookupBenchmark {
+
+  @Param({ "10", "100", "1000", "10000" })
+  public int members;
+
+  private JsonObject object;
+
+  private String[] names;
+
+  private int next;
+
+  @Setup
+  public void setUp() {
+    object = new JsonObject();
+    names = new String[members];
+    for (int i = 0; i < members; i++) {
+      names[i] = "act_" + (100000000L + i * 7919L);
+      object.add(names[i], i);
+    }
+  }
+
+  @Benchmark
+  public JsonValue get() {
+    next = next + 1 == members ? 0 : next + 1;
+    return object.get(names[next]);
+  }
+
+  @Benchmark
+  public boolean containsMissing() {
+    return object.contains("missing");
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.restfb.Connection;
+import com.restfb.DefaultFacebookClient;
+import com.restfb.DefaultJsonMapper;
+import com.restfb.Version;
+import com.restfb.batch.BatchResponse;
+import com.restfb.types.User;
+
+/**
+ * {@code equals}/{@code hashCode}/{@code toString} of the classes delegating to
+ * {@link com.restfb.util.ReflectionUtils}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReflectionUtilsBenchmark {
+
+  private BatchResponse batchResponse;
+
+  private BatchResponse otherBatchResponse;
+
+  private Connection<User> connection;
+
+  @Setup
+  public void setUp() {
+    DefaultJsonMapper jsonMapper = new DefaultJsonMapper();
+    String batchResponseJson = Fixtures.load(Fixtures.BATCH_RESPONSE);
+    batchResponse = jsonMapper.toJavaList(batchResponseJson, BatchResponse.class).get(0);
+    otherBatchResponse = jsonMapper.toJavaList(batchResponseJson, BatchResponse.class).get(0);
+    connection =
+        new Connection<>(new DefaultFacebookClient(Version.LATEST), Fixtures.load(Fixtures.USER_CONNECTION), User.class);
+  }
+
+  @Benchmark
+  public int batchResponseHashCode() {
+    return batchResponse.hashCode();
+  }
+
+  @Benchmark
+  public boolean batchResponseEquals() {
+    return batchResponse.equals(otherBatchResponse);
+  }
+
+  @Benchmark
+  public String connectionToString() {
+    return connection.toString();
+  }
+}
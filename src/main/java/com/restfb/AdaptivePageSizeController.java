@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.restfb.exception.FacebookGraphException;
+import com.restfb.json.JsonObject;
+import com.restfb.util.UrlUtils;
+
+/**
+ * Pages through connections with a {@code limit} adjusted to how the endpoint behaves.
+ * <p>
+ * After every page the {@code limit} of the next page URL is recalculated:
+ * <ul>
+ * <li>a page slower than the target response time or larger than the maximum page size halves the limit, the page
+ * size is the size of the decoded response body</li>
+ * <li>a page faster than half the target response time and smaller than half the maximum page size raises the limit
+ * by half</li>
+ * <li>the Graph API error 1 ("Please reduce the amount of data you're asking for") halves the limit and the page is
+ * requested again</li>
+ * </ul>
+ * The limit always stays between the configured minimum and maximum. A controller keeps its limit across iterations,
+ * so one controller should be used per endpoint.
+ *
+ * @since 3.16.0
+ */
+public class AdaptivePageSizeController {
+
+  private static final String LIMIT = "limit";
+
+  private static final int REDUCE_DATA_ERROR_CODE = 1;
+
+  private static final int DEFAULT_INITIAL_LIMIT = 25;
+
+  private static final int DEFAULT_MIN_LIMIT = 1;
+
+  private static final int DEFAULT_MAX_LIMIT = 100;
+
+  private static final long DEFAULT_TARGET_RESPONSE_TIME_IN_MS = TimeUnit.SECONDS.toMillis(2);
+
+  private static final long DEFAULT_MAX_PAGE_SIZE_IN_BYTES = 1024 * 1024;
+
+  private final FacebookClient facebookClient;
+
+  private final int minLimit;
+
+  private final int maxLimit;
+
+  private final long targetResponseTimeInMs;
+
+  private final long maxPageSizeInBytes;
+
+  private final AtomicInteger currentLimit;
+
+  private final AtomicLong pagesFetched = new AtomicLong();
+
+  private final AtomicLong limitSum = new AtomicLong();
+
+  private final AtomicLong limitReductions = new AtomicLong();
+
+  private final AtomicLong retriedPages = new AtomicLong();
+
+  /**
+   * Creates a controller starting with a limit of 25, adjusted between 1 and 100, that aims for pages of at most 1 MB
+   * fetched within 2 seconds.
+   *
+   * @param facebookClient
+   *          the client fetching the pages
+   */
+  public AdaptivePageSizeController(FacebookClient facebookClient) {
+    this(facebookClient, DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT,
+      DEFAULT_TARGET_RESPONSE_TIME_IN_MS, DEFAULT_MAX_PAGE_SIZE_IN_BYTES);
+  }
+
+  /**
+   * Creates a controller.
+   *
+   * @param facebookClient
+   *          the client fetching the pages
+   * @param initialLimit
+   *          limit of the first page
+   * @param minLimit
+   *          smallest limit used
+   * @param maxLimit
+   *          largest limit used
+   * @param targetResponseTimeInMs
+   *          response time in milliseconds a page should not exceed
+   * @param maxPageSizeInBytes
+   *          size of the page data in bytes a page should not exceed
+   */
+  public AdaptivePageSizeController(FacebookClient facebookClient, int initialLimit, int minLimit, int maxLimit,
+      long targetResponseTimeInMs, long maxPageSizeInBytes) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+      throw new IllegalArgumentException(
+        "The limits must fulfill 1 <= minLimit <= initialLimit <= maxLimit, got " + minLimit + ", " + initialLimit
+            + ", " + maxLimit);
+    }
+    this.facebookClient = facebookClient;
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.targetResponseTimeInMs = targetResponseTimeInMs;
+    this.maxPageSizeInBytes = maxPageSizeInBytes;
+    this.currentLimit = new AtomicInteger(initialLimit);
+  }
+
+  /**
+   * Iterates over the pages of a connection, fetching every page with the current limit.
+   * <p>
+   * Pages are fetched when {@link Iterator#next()} is called.
+   *
+   * @param connection
+   *          the connection, e.g. {@code "me/feed"}
+   * @param connectionType
+   *          connection type token
+   * @param parameters
+   *          additional parameters, a {@code limit} parameter is replaced by the controller's limit
+   * @param <T>
+   *          the Facebook type
+   * @return iterator over the pages
+   */
+  public <T> Iterator<List<T>> iterate(String connection, Class<T> connectionType, Parameter... parameters) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("connectionType", connectionType);
+    List<Parameter> baseParameters =
+        Stream.of(parameters).filter(p -> !LIMIT.equals(p.name)).collect(Collectors.toList());
+    return new AdaptiveItr<>(connection, connectionType, baseParameters);
+  }
+
+  /**
+   * The limit the next page is requested with.
+   *
+   * @return the current limit
+   */
+  public int getCurrentLimit() {
+    return currentLimit.get();
+  }
+
+  /**
+   * The number of pages fetched successfully.
+   *
+   * @return the number of pages
+   */
+  public long getPagesFetched() {
+    return pagesFetched.get();
+  }
+
+  /**
+   * The average limit of the pages fetched successfully.
+   *
+   * @return the average limit, {@code 0} if no page was fetched
+   */
+  public double getAverageLimit() {
+    long pages = pagesFetched.get();
+    return pages == 0 ? 0 : (double) limitSum.get() / pages;
+  }
+
+  /**
+   * How often the limit was reduced, because a page was too slow, too large or rejected.
+   *
+   * @return the number of reductions
+   */
+  public long getLimitReductions() {
+    return limitReductions.get();
+  }
+
+  /**
+   * How often a page was requested again with a smaller limit after Facebook asked to reduce the amount of data.
+   *
+   * @return the number of retried pages
+   */
+  public long getRetriedPages() {
+    return retriedPages.get();
+  }
+
+  /**
+   * Returns the current time, hook for tests.
+   *
+   * @return the current time in milliseconds
+   */
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  private void adjust(int limit, long responseTime, long pageSize) {
+    if (responseTime > targetResponseTimeInMs || pageSize > maxPageSizeInBytes) {
+      reduce(limit);
+    } else if (responseTime < targetResponseTimeInMs / 2 && pageSize < maxPageSizeInBytes / 2) {
+      currentLimit.compareAndSet(limit, Math.min(maxLimit, limit + Math.max(1, limit / 2)));
+    }
+  }
+
+  private void reduce(int limit) {
+    if (currentLimit.compareAndSet(limit, Math.max(minLimit, limit / 2))) {
+      limitReductions.incrementAndGet();
+    }
+  }
+
+  @FunctionalInterface
+  private interface PageRequest {
+    Connection<JsonObject> fetch(int limit);
+  }
+
+  private class AdaptiveItr<T> implements Iterator<List<T>> {
+    private final String connection;
+    private final Class<T> connectionType;
+    private final List<Parameter> parameters;
+
+    /**
+     * The last page fetched, pages are fetched as {@link JsonObject}s to measure their size.
+     */
+    private Connection<JsonObject> page;
+
+    AdaptiveItr(String connection, Class<T> connectionType, List<Parameter> parameters) {
+      this.connection = connection;
+      this.connectionType = connectionType;
+      this.parameters = parameters;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return page == null || page.hasNext();
+    }
+
+    @Override
+    public List<T> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException("There are no more pages in the connection.");
+      }
+
+      if (page == null) {
+        return fetchPage(limit -> {
+          List<Parameter> pageParameters = new ArrayList<>(parameters);
+          pageParameters.add(Parameter.with(LIMIT, limit));
+          return facebookClient.fetchConnection(connection, JsonObject.class,
+            pageParameters.toArray(new Parameter[0]));
+        });
+      }
+
+      String nextPageUrl = page.getNextPageUrl();
+      return fetchPage(limit -> facebookClient.fetchConnectionPage(
+        UrlUtils.replaceOrAddQueryParameter(nextPageUrl, LIMIT, String.valueOf(limit)), JsonObject.class));
+    }
+
+    private List<T> fetchPage(PageRequest request) {
+      while (true) {
+        int limit = currentLimit.get();
+        long start = currentTimeMillis();
+        try {
+          page = request.fetch(limit);
+        } catch (FacebookGraphException e) {
+          if (!Objects.equals(e.getErrorCode(), REDUCE_DATA_ERROR_CODE) || limit <= minLimit) {
+            throw e;
+          }
+          reduce(limit);
+          retriedPages.incrementAndGet();
+          CLIENT_LOGGER.debug("Facebook asked to reduce the amount of data, retrying page with limit {}",
+            currentLimit.get());
+          continue;
+        }
+        long responseTime = currentTimeMillis() - start;
+
+        List<T> items = new ArrayList<>(page.getData().size());
+        for (JsonObject item : page.getData()) {
+          items.add(connectionType.equals(JsonObject.class) ? connectionType.cast(item)
+              : facebookClient.getJsonMapper().toJavaObject(item, connectionType));
+        }
+        long pageSize = page.getResponseBodyLength();
+        if (pageSize < 0) {
+          pageSize = estimatePageSize(page);
+        }
+
+        pagesFetched.incrementAndGet();
+        limitSum.addAndGet(limit);
+        adjust(limit, responseTime, pageSize);
+        return items;
+      }
+    }
+
+    /**
+     * Estimates the page size if the client does not report the response body size. Serializes every item, so it
+     * costs about as much as the mapping, and counts characters, which equals the bytes for ASCII data only.
+     */
+    private long estimatePageSize(Connection<JsonObject> page) {
+      long pageSize = 0;
+      for (JsonObject item : page.getData()) {
+        pageSize += item.toString().length();
+      }
+      return pageSize;
+    }
+  }
+}
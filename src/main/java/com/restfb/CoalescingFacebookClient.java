@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchRequest.BatchRequestBuilder;
+import com.restfb.batch.BatchResponse;
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.generator.DefaultFacebookExceptionGenerator;
+import com.restfb.exception.generator.FacebookExceptionGenerator;
+
+/**
+ * Client that coalesces independent API calls into requests against the Graph Batch API.
+ * <p>
+ * Calls are collected until the coalescing window, started by the first call, has passed or until
+ * {@value #MAX_BATCH_SIZE} calls are waiting, whichever comes first. They are then sent with a single
+ * {@link FacebookClient#executeBatch(List)} on the given {@link Executor}, so the blocking HTTP call does not hold up
+ * the scheduler that times the coalescing windows. The future of every call is completed from its {@link BatchResponse}
+ * with the same mapping and the same exceptions as the corresponding {@link FacebookClient} method.
+ *
+ * <pre>
+ * CoalescingFacebookClient client = new CoalescingFacebookClient(facebookClient, scheduler, executor, 10);
+ * CompletableFuture&lt;User&gt; user = client.fetchObject("me", User.class);
+ * CompletableFuture&lt;Page&gt; page = client.fetchObject("cocacola", Page.class);
+ * </pre>
+ *
+ * @since 3.16.0
+ */
+public class CoalescingFacebookClient {
+
+  /**
+   * Maximum number of requests Facebook accepts in one batch.
+   */
+  public static final int MAX_BATCH_SIZE = 50;
+
+  private final FacebookClient facebookClient;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final Executor executor;
+
+  private final long windowInMs;
+
+  private final FacebookExceptionGenerator exceptionGenerator;
+
+  private List<PendingCall<?>> pendingCalls = new ArrayList<>();
+
+  private ScheduledFuture<?> scheduledFlush;
+
+  /**
+   * Creates a coalescing client.
+   *
+   * @param facebookClient
+   *          the client sending the batch requests
+   * @param scheduler
+   *          the scheduler timing the coalescing windows
+   * @param executor
+   *          the executor the batch requests are sent on
+   * @param windowInMs
+   *          how long calls are collected, in milliseconds, before they are sent
+   */
+  public CoalescingFacebookClient(FacebookClient facebookClient, ScheduledExecutorService scheduler,
+      Executor executor, long windowInMs) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    verifyParameterPresence("scheduler", scheduler);
+    verifyParameterPresence("executor", executor);
+    this.facebookClient = facebookClient;
+    this.scheduler = scheduler;
+    this.executor = executor;
+    this.windowInMs = windowInMs;
+    this.exceptionGenerator = facebookClient instanceof DefaultFacebookClient
+        ? ((DefaultFacebookClient) facebookClient).getFacebookExceptionGenerator()
+        : new DefaultFacebookExceptionGenerator();
+  }
+
+  /**
+   * @see FacebookClient#fetchObject(String, Class, Parameter...)
+   */
+  public <T> CompletableFuture<T> fetchObject(String object, Class<T> objectType, Parameter... parameters) {
+    verifyParameterPresence("object", object);
+    verifyParameterPresence("objectType", objectType);
+    return enqueue(new BatchRequestBuilder(object).parameters(parameters).build(),
+      json -> facebookClient.getJsonMapper().toJavaObject(json, objectType));
+  }
+
+  /**
+   * @see FacebookClient#fetchConnection(String, Class, Parameter...)
+   */
+  public <T> CompletableFuture<Connection<T>> fetchConnection(String connection, Class<T> connectionType,
+      Parameter... parameters) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("connectionType", connectionType);
+    return enqueue(new BatchRequestBuilder(connection).parameters(parameters).build(),
+      json -> new Connection<>(facebookClient, json, connectionType));
+  }
+
+  /**
+   * @see FacebookClient#publish(String, Class, Parameter...)
+   */
+  public <T> CompletableFuture<T> publish(String connection, Class<T> objectType, Parameter... parameters) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("objectType", objectType);
+    return enqueue(new BatchRequestBuilder(connection).method("POST").body(parameters).build(),
+      json -> facebookClient.getJsonMapper().toJavaObject(json, objectType));
+  }
+
+  /**
+   * Sends the waiting calls right away, without waiting for the coalescing window to pass.
+   * <p>
+   * The batch is sent on the calling thread.
+   */
+  public void flush() {
+    List<PendingCall<?>> calls = takePendingCalls();
+    if (!calls.isEmpty()) {
+      execute(calls);
+    }
+  }
+
+  /**
+   * Returns the blocking client sending the batch requests.
+   *
+   * @return the wrapped client
+   */
+  public FacebookClient getFacebookClient() {
+    return facebookClient;
+  }
+
+  private <T> CompletableFuture<T> enqueue(BatchRequest batchRequest, Function<String, T> mapper) {
+    PendingCall<T> call = new PendingCall<>(batchRequest, mapper);
+    List<PendingCall<?>> fullBatch = null;
+    synchronized (this) {
+      pendingCalls.add(call);
+      if (pendingCalls.size() >= MAX_BATCH_SIZE) {
+        fullBatch = takePendingCalls();
+      } else if (scheduledFlush == null) {
+        scheduledFlush = scheduler.schedule(() -> send(takePendingCalls()), windowInMs, TimeUnit.MILLISECONDS);
+      }
+    }
+    if (fullBatch != null) {
+      send(fullBatch);
+    }
+    return call.future;
+  }
+
+  private synchronized List<PendingCall<?>> takePendingCalls() {
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    List<PendingCall<?>> calls = pendingCalls;
+    pendingCalls = new ArrayList<>();
+    return calls;
+  }
+
+  /**
+   * Hands the calls over to the executor, the scheduler thread only times the windows.
+   */
+  private void send(List<PendingCall<?>> calls) {
+    if (calls.isEmpty()) {
+      return;
+    }
+    try {
+      executor.execute(() -> execute(calls));
+    } catch (RejectedExecutionException e) {
+      calls.forEach(call -> call.future.completeExceptionally(e));
+    }
+  }
+
+  private void execute(List<PendingCall<?>> calls) {
+    List<BatchRequest> batchRequests = new ArrayList<>(calls.size());
+    calls.forEach(call -> batchRequests.add(call.batchRequest));
+
+    List<BatchResponse> batchResponses;
+    try {
+      CLIENT_LOGGER.debug("Sending {} coalesced calls as one batch request", calls.size());
+      batchResponses = facebookClient.executeBatch(batchRequests);
+    } catch (RuntimeException e) {
+      calls.forEach(call -> call.future.completeExceptionally(e));
+      return;
+    }
+
+    for (int i = 0; i < calls.size(); i++) {
+      calls.get(i).complete(i < batchResponses.size() ? batchResponses.get(i) : null);
+    }
+  }
+
+  /**
+   * Applies the checks {@link DefaultFacebookClient} applies to a regular response.
+   */
+  private String processResponse(BatchRequest batchRequest, BatchResponse batchResponse) {
+    // Facebook answers a call with null if it was not processed, e.g. because the batch timed out
+    if (batchResponse == null || batchResponse.getCode() == null) {
+      throw new FacebookNetworkException(new IOException("Facebook did not process the batched call "
+          + batchRequest.getMethod() + " " + batchRequest.getRelativeUrl()));
+    }
+
+    DefaultFacebookClient.throwExceptionIfNecessary(batchResponse.getCode(), batchResponse.getBody(),
+      exceptionGenerator);
+    return batchResponse.getBody();
+  }
+
+  private class PendingCall<T> {
+
+    private final BatchRequest batchRequest;
+
+    private final Function<String, T> mapper;
+
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    PendingCall(BatchRequest batchRequest, Function<String, T> mapper) {
+      this.batchRequest = batchRequest;
+      this.mapper = mapper;
+    }
+
+    void complete(BatchResponse batchResponse) {
+      try {
+        future.complete(mapper.apply(processResponse(batchRequest, batchResponse)));
+      } catch (RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+    }
+  }
+}
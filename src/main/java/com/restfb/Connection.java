@@ -24,16 +24,20 @@ package com.restfb;
 import static com.restfb.util.StringUtils.isBlank;
 import static java.util.Collections.unmodifiableList;
 
-import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.restfb.exception.FacebookJsonMappingException;
 import com.restfb.json.Json;
 import com.restfb.json.JsonArray;
 import com.restfb.json.JsonObject;
 import com.restfb.json.ParseException;
+import com.restfb.util.ObjectUtil;
 import com.restfb.util.ReflectionUtils;
 
 /**
@@ -44,6 +48,8 @@ import com.restfb.util.ReflectionUtils;
  * @author <a href="http://restfb.com">Mark Allen</a>
  */
 public class Connection<T> implements Iterable<List<T>> {
+  private static final int PAGE_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL;
+
   private FacebookClient facebookClient;
   private Class<T> connectionType;
   private List<T> data;
@@ -53,6 +59,8 @@ public class Connection<T> implements Iterable<List<T>> {
   private String beforeCursor;
   private String afterCursor;
   private String order;
+  private boolean dataStreamed;
+  private long responseBodyLength = -1;
 
   /**
    * @see java.lang.Iterable#iterator()
@@ -63,6 +71,61 @@ public class Connection<T> implements Iterable<List<T>> {
     return new Itr<>(this);
   }
 
+  /**
+   * Returns a sequential stream over the pages of this connection.
+   * <p>
+   * The next page is fetched only when the stream needs it, so short-circuiting operations like {@code limit} or
+   * {@code anyMatch} do not fetch further pages.
+   *
+   * @return stream of pages, beginning with this page
+   * @since 3.16.0
+   */
+  public Stream<List<T>> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), PAGE_CHARACTERISTICS), false);
+  }
+
+  /**
+   * Returns a sequential stream over the items of all pages of this connection.
+   * <p>
+   * The next page is fetched only when the stream needs its first item, so short-circuiting operations like
+   * {@code limit} or {@code anyMatch} do not fetch further pages. If Facebook reports a total count, it is used as
+   * size estimate.
+   *
+   * @return stream of items, beginning with the items of this page
+   * @since 3.16.0
+   */
+  public Stream<T> itemStream() {
+    return StreamSupport.stream(new ItemSpliterator<>(iterator(), totalCount), false);
+  }
+
+  /**
+   * Creates a checkpoint to continue an iteration after this page, e.g. after a restart.
+   *
+   * @param position
+   *          position of the iteration, as counted by the caller, e.g. the number of items processed
+   * @return the checkpoint, without the access token
+   * @see ConnectionCheckpoint
+   * @since 3.16.0
+   */
+  public ConnectionCheckpoint<T> checkpoint(long position) {
+    return new ConnectionCheckpoint<>(connectionType, hasNext() ? nextPageUrl : null, afterCursor, position);
+  }
+
+  /**
+   * Creates an iterator that fetches the following pages in the background while the caller processes a page.
+   *
+   * @param executor
+   *          The executor the following pages are fetched on.
+   * @param prefetchDepth
+   *          How many pages are fetched ahead of the caller, at least 1.
+   * @return the iterator, which should be closed if the iteration ends early
+   * @see PrefetchingConnectionIterator
+   * @since 3.16.0
+   */
+  public PrefetchingConnectionIterator<T> prefetchingIterator(Executor executor, int prefetchDepth) {
+    return new PrefetchingConnectionIterator<>(this, executor, prefetchDepth);
+  }
+
   /**
    * Iterator over connection pages.
    * 
@@ -129,6 +192,31 @@ public class Connection<T> implements Iterable<List<T>> {
     }
   }
 
+  /**
+   * Spliterator over the items of connection pages, fetching a page when its first item is requested.
+   */
+  private static class ItemSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+    private final Iterator<List<T>> pages;
+    private Iterator<T> items = Collections.emptyIterator();
+
+    ItemSpliterator(Iterator<List<T>> pages, Long totalCount) {
+      super(totalCount != null ? totalCount : Long.MAX_VALUE, PAGE_CHARACTERISTICS);
+      this.pages = pages;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      while (!items.hasNext()) {
+        if (!pages.hasNext()) {
+          return false;
+        }
+        items = pages.next().iterator();
+      }
+      action.accept(items.next());
+      return true;
+    }
+  }
+
   /**
    * Creates a connection with the given {@code jsonObject}.
    * 
@@ -143,20 +231,69 @@ public class Connection<T> implements Iterable<List<T>> {
    *           If the provided {@code json} is invalid.
    * @since 1.6.7
    */
-  @SuppressWarnings("unchecked")
   public Connection(FacebookClient facebookClient, String json, Class<T> connectionType) {
-    JsonObject jsonObject;
+    this(facebookClient, parseConnectionJson(json), connectionType, false);
+  }
 
-    try {
-      jsonObject = Optional.ofNullable(json).map(j -> Json.parse(j).asObject()).orElseThrow(() -> new FacebookJsonMappingException("You must supply non-null connection JSON."));
-    } catch (ParseException e) {
-      throw new FacebookJsonMappingException("The connection JSON you provided was invalid: " + json, e);
-    }
+  /**
+   * Creates a connection with the given UTF-8 encoded {@code json}, as read from the response body.
+   *
+   * @param facebookClient
+   *          The {@code FacebookClient} used to fetch additional pages and map data to JSON objects.
+   * @param json
+   *          Raw JSON which must include a {@code data} field that holds a JSON array and optionally a {@code paging}
+   *          field that holds a JSON object with next/previous page URLs.
+   * @param connectionType
+   *          Connection type token.
+   * @throws FacebookJsonMappingException
+   *           If the provided {@code json} is invalid.
+   * @return The connection.
+   */
+  static <T> Connection<T> fromRawJson(FacebookClient facebookClient, byte[] json, Class<T> connectionType) {
+    return new Connection<>(facebookClient, parseConnectionJson(json), connectionType, false);
+  }
+
+  /**
+   * Creates a connection with the given, already parsed {@code jsonObject}.
+   *
+   * @param facebookClient
+   *          The {@code FacebookClient} used to fetch additional pages and map data to JSON objects.
+   * @param jsonObject
+   *          JSON object which must include a {@code data} field that holds a JSON array and optionally a
+   *          {@code paging} field that holds a JSON object with next/previous page URLs.
+   * @param connectionType
+   *          Connection type token.
+   * @throws FacebookJsonMappingException
+   *           If the provided {@code jsonObject} is invalid.
+   * @return The connection.
+   */
+  static <T> Connection<T> fromJsonObject(FacebookClient facebookClient, JsonObject jsonObject,
+      Class<T> connectionType) {
+    return new Connection<>(facebookClient, jsonObject, connectionType, false);
+  }
+
+  /**
+   * Creates a connection from a page whose elements have already been streamed to the caller.
+   *
+   * @param facebookClient
+   *          The {@code FacebookClient} used to fetch additional pages and map data to JSON objects.
+   * @param jsonObject
+   *          JSON object with the page's {@code paging} and {@code summary}, {@code data} is empty.
+   * @param connectionType
+   *          Connection type token.
+   * @param dataStreamed
+   *          {@code true} if at least one element of the page was streamed, so an empty {@code data} does not mark
+   *          the last page.
+   */
+  @SuppressWarnings("unchecked")
+  Connection(FacebookClient facebookClient, JsonObject jsonObject, Class<T> connectionType, boolean dataStreamed) {
+    ObjectUtil.requireNotNull(jsonObject,
+      () -> new FacebookJsonMappingException("You must supply non-null connection JSON."));
 
     // Pull out data
     JsonArray jsonData = jsonObject.get("data").asArray();
     List<T> dataItem = jsonData.valueStream().map(jsonValue -> connectionType.equals(JsonObject.class) ? (T) jsonValue
-            : facebookClient.getJsonMapper().toJavaObject(jsonValue.toString(), connectionType)).collect(Collectors.toList());
+            : facebookClient.getJsonMapper().toJavaObject(jsonValue, connectionType)).collect(Collectors.toList());
 
     // Pull out paging info, if present
     if (jsonObject.contains("paging")) {
@@ -185,10 +322,30 @@ public class Connection<T> implements Iterable<List<T>> {
     }
 
     this.data = unmodifiableList(dataItem);
+    this.dataStreamed = dataStreamed;
     this.facebookClient = facebookClient;
     this.connectionType = connectionType;
   }
 
+  private static JsonObject parseConnectionJson(String json) {
+    try {
+      return Optional.ofNullable(json).map(j -> Json.parseLazy(j).asObject()).orElseThrow(() -> new FacebookJsonMappingException("You must supply non-null connection JSON."));
+    } catch (ParseException e) {
+      throw new FacebookJsonMappingException("The connection JSON you provided was invalid: " + json, e);
+    }
+  }
+
+  private static JsonObject parseConnectionJson(byte[] json) {
+    ObjectUtil.requireNotNull(json,
+      () -> new FacebookJsonMappingException("You must supply non-null connection JSON."));
+    try {
+      return Json.parse(json).asObject();
+    } catch (ParseException e) {
+      throw new FacebookJsonMappingException(
+        "The connection JSON you provided was invalid: " + new String(json, StandardCharsets.UTF_8), e);
+    }
+  }
+
   /**
    * Fetches the next page of the connection. Designed to be used by {@link Itr}.
    *
@@ -258,7 +415,7 @@ public class Connection<T> implements Iterable<List<T>> {
    * @return {@code true} if there is a next page of data for this connection, {@code false} otherwise.
    */
   public boolean hasNext() {
-    return !isBlank(getNextPageUrl()) && !getData().isEmpty();
+    return !isBlank(getNextPageUrl()) && (dataStreamed || !getData().isEmpty());
   }
 
   /**
@@ -288,6 +445,19 @@ public class Connection<T> implements Iterable<List<T>> {
     return afterCursor;
   }
 
+  /**
+   * Size of the decoded response body this page was created from, in bytes.
+   *
+   * @return the body size, {@code -1} if the client or its requestor did not report it
+   */
+  long getResponseBodyLength() {
+    return responseBodyLength;
+  }
+
+  void setResponseBodyLength(long responseBodyLength) {
+    this.responseBodyLength = responseBodyLength;
+  }
+
   private String fixProtocol(String pageUrl) {
     return Optional.ofNullable(pageUrl).filter(s -> s.startsWith("http://")).map(s -> s.replaceFirst("http://", "https://")).orElse(pageUrl);
   }
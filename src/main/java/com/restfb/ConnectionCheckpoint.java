@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+import static com.restfb.util.StringUtils.isBlank;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import com.restfb.util.ReflectionUtils;
+import com.restfb.util.UrlUtils;
+
+/**
+ * Serializable position of a {@link Connection} iteration, used to resume a long iteration after a restart.
+ * <p>
+ * The checkpoint holds the URL of the page following the checkpointed one, its cursor and a position the caller
+ * chooses, like the number of items processed so far. Secrets ({@code access_token} and {@code appsecret_proof}) are
+ * removed from the URL, so the checkpoint can be persisted safely. {@link DefaultFacebookClient} adds them again when
+ * the page is fetched with {@link #resume(FacebookClient)}.
+ *
+ * <pre>
+ * ConnectionCheckpoint&lt;Post&gt; checkpoint = page.checkpoint(processedItems);
+ * // persist the checkpoint, after a restart:
+ * Connection&lt;Post&gt; next = checkpoint.resume(facebookClient);
+ * </pre>
+ *
+ * @param <T>
+ *          The Facebook type
+ * @since 3.16.0
+ */
+public class ConnectionCheckpoint<T> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final List<String> SECRET_PARAMETERS = Arrays.asList("access_token", "appsecret_proof");
+
+  private final Class<T> connectionType;
+
+  private final String nextPageUrl;
+
+  private final String afterCursor;
+
+  private final long position;
+
+  /**
+   * Creates a checkpoint.
+   *
+   * @param connectionType
+   *          connection type token
+   * @param nextPageUrl
+   *          URL of the page to continue with, may be {@code null} if the iteration is complete
+   * @param afterCursor
+   *          cursor pointing behind the checkpointed page, may be {@code null}
+   * @param position
+   *          position of the iteration, as counted by the caller
+   */
+  public ConnectionCheckpoint(Class<T> connectionType, String nextPageUrl, String afterCursor, long position) {
+    verifyParameterPresence("connectionType", connectionType);
+    this.connectionType = connectionType;
+    this.nextPageUrl = stripSecrets(nextPageUrl);
+    this.afterCursor = afterCursor;
+    this.position = position;
+  }
+
+  /**
+   * Fetches the page following the checkpointed one.
+   *
+   * @param facebookClient
+   *          the client fetching the page, it provides the access token
+   * @return the page to continue the iteration with
+   * @throws IllegalStateException
+   *           if the checkpointed page was the last one
+   */
+  public Connection<T> resume(FacebookClient facebookClient) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    if (!hasNextPage()) {
+      throw new IllegalStateException("The iteration was already complete at this checkpoint.");
+    }
+    return facebookClient.fetchConnectionPage(nextPageUrl, connectionType);
+  }
+
+  /**
+   * Is there a page to continue with?
+   *
+   * @return {@code false} if the checkpointed page was the last one
+   */
+  public boolean hasNextPage() {
+    return !isBlank(nextPageUrl);
+  }
+
+  public Class<T> getConnectionType() {
+    return connectionType;
+  }
+
+  /**
+   * URL of the page to continue with, without secrets.
+   *
+   * @return the URL, or {@code null} if the iteration is complete
+   */
+  public String getNextPageUrl() {
+    return nextPageUrl;
+  }
+
+  public String getAfterCursor() {
+    return afterCursor;
+  }
+
+  public long getPosition() {
+    return position;
+  }
+
+  private static String stripSecrets(String url) {
+    if (url == null) {
+      return null;
+    }
+
+    String strippedUrl = url;
+    for (String secretParameter : SECRET_PARAMETERS) {
+      strippedUrl = UrlUtils.removeQueryParameter(strippedUrl, secretParameter);
+    }
+    return strippedUrl;
+  }
+
+  @Override
+  public int hashCode() {
+    return ReflectionUtils.hashCode(this);
+  }
+
+  @Override
+  public boolean equals(Object that) {
+    return ReflectionUtils.equals(this, that);
+  }
+
+  @Override
+  public String toString() {
+    return ReflectionUtils.toString(this);
+  }
+}
@@ -32,7 +32,10 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -52,6 +55,8 @@ import com.restfb.types.DeviceCode;
 import com.restfb.util.EncodingUtils;
 import com.restfb.util.ObjectUtil;
 import com.restfb.util.StringUtils;
+import com.restfb.util.UrlUtils;
+import com.restfb.util.Utf8WritingBuffer;
 
 /**
  * Default implementation of a <a href="http://developers.facebook.com/docs/api">Facebook Graph API</a> client.
@@ -90,6 +95,11 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
    */
   protected static final String IDS_PARAM_NAME = "ids";
 
+  /**
+   * The member name the default exception generator looks for, as UTF-8 bytes.
+   */
+  private static final byte[] ERROR_MEMBER = "\"error\"".getBytes(StandardCharsets.UTF_8);
+
   /**
    * Version of API endpoint.
    */
@@ -102,6 +112,16 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
 
   protected boolean accessTokenInHeader;
 
+  /**
+   * {@code true} if a subclass overrides {@link #makeRequest(String, Parameter...)},
+   * {@link #makeRequest(String, boolean, boolean, List, Parameter...)} or
+   * {@link #makeRequestAndProcessResponse(Requestor)}, so every request has to go through these hooks and response
+   * bodies are mapped as text.
+   */
+  private final boolean requestHooksOverridden = isOverridden("makeRequest", String.class, Parameter[].class)
+      || isOverridden("makeRequest", String.class, boolean.class, boolean.class, List.class, Parameter[].class)
+      || isOverridden("makeRequestAndProcessResponse", Requestor.class);
+
   protected DefaultFacebookClient() {
     this(Version.LATEST);
   }
@@ -198,6 +218,18 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
     graphFacebookExceptionGenerator = new DefaultFacebookExceptionGenerator();
   }
 
+  private boolean isOverridden(String methodName, Class<?>... parameterTypes) {
+    for (Class<?> type = getClass(); !DefaultFacebookClient.class.equals(type); type = type.getSuperclass()) {
+      try {
+        type.getDeclaredMethod(methodName, parameterTypes);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // not declared here, check the superclass
+      }
+    }
+    return false;
+  }
+
   /**
    * Switch between access token in header and access token in query parameters (default)
    * 
@@ -261,23 +293,121 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
   public <T> Connection<T> fetchConnection(String connection, Class<T> connectionType, Parameter... parameters) {
     verifyParameterPresence("connection", connection);
     verifyParameterPresence("connectionType", connectionType);
-    return new Connection<>(this, makeRequest(connection, parameters), connectionType);
+    if (requestHooksOverridden) {
+      return new Connection<>(this, makeRequest(connection, parameters), connectionType);
+    }
+    return toConnection(makeRawRequest(connection, false, false, null, parameters), connectionType);
   }
 
   /**
    * @see com.restfb.FacebookClient#fetchConnectionPage(java.lang.String, java.lang.Class)
    */
   @Override
-  public <T> Connection<T> fetchConnectionPage(final String connectionPageUrl, Class<T> connectionType) {
-    String connectionJson;
-    if (!isBlank(accessToken) && !isBlank(appSecret)) {
-      connectionJson = makeRequestAndProcessResponse(() -> webRequestor.executeGet(String.format("%s&%s=%s",
-        connectionPageUrl, urlEncode(APP_SECRET_PROOF_PARAM_NAME), obtainAppSecretProof(accessToken, appSecret))));
-    } else {
-      connectionJson = makeRequestAndProcessResponse(() -> webRequestor.executeGet(connectionPageUrl, getHeaderAccessToken()));
+  public <T> Connection<T> fetchConnectionPage(String pageUrl, Class<T> connectionType) {
+    final String connectionPageUrl = addSecrets(pageUrl);
+    Requestor requestor = () -> webRequestor.executeGet(connectionPageUrl, getHeaderAccessToken());
+    if (requestHooksOverridden) {
+      return new Connection<>(this, makeRequestAndProcessResponse(requestor), connectionType);
     }
+    return toConnection(processResponse(requestor), connectionType);
+  }
 
-    return new Connection<>(this, connectionJson, connectionType);
+  private <T> Connection<T> toConnection(Response response, Class<T> connectionType) {
+    byte[] rawBody = response.getRawBody();
+    Connection<T> connection = rawBody == null ? new Connection<>(this, response.getBody(), connectionType)
+        : Connection.fromRawJson(this, rawBody, connectionType);
+    connection.setResponseBodyLength(response.getUncompressedLength());
+    return connection;
+  }
+
+  /**
+   * Page URLs persisted without secrets, e.g. by a {@link ConnectionCheckpoint}, get the access token back.
+   */
+  private String addMissingAccessToken(String pageUrl) {
+    if (accessTokenInHeader || isBlank(accessToken)
+        || UrlUtils.extractParametersFromUrl(pageUrl).containsKey(ACCESS_TOKEN_PARAM_NAME)) {
+      return pageUrl;
+    }
+    return UrlUtils.replaceOrAddQueryParameter(pageUrl, ACCESS_TOKEN_PARAM_NAME, urlEncode(accessToken));
+  }
+
+  /**
+   * Adds the access token, unless it is sent in the header, and the app secret proof to a page URL. Page URLs
+   * persisted without secrets may have no query left, so the parameters cannot simply be appended.
+   */
+  private String addSecrets(String pageUrl) {
+    String connectionPageUrl = addMissingAccessToken(pageUrl);
+    if (isBlank(accessToken) || isBlank(appSecret)) {
+      return connectionPageUrl;
+    }
+    return UrlUtils.replaceOrAddQueryParameter(connectionPageUrl, APP_SECRET_PROOF_PARAM_NAME,
+      obtainAppSecretProof(accessToken, appSecret));
+  }
+
+  /**
+   * @see com.restfb.FacebookClient#streamConnection(java.lang.String, java.lang.Class,
+   *      java.util.function.Consumer, com.restfb.Parameter[])
+   */
+  @Override
+  public <T> Connection<T> streamConnection(String connection, Class<T> connectionType,
+      Consumer<? super T> itemConsumer, Parameter... parameters) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("connectionType", connectionType);
+    verifyParameterPresence("itemConsumer", itemConsumer);
+    verifyParameterLegality(parameters);
+
+    String endpoint = connection.startsWith("/") ? connection : "/" + connection;
+    String url = createEndpointForApiCall(endpoint, false) + "?" + toParameterString(parameters);
+    return streamConnectionFrom(url, getHeaderAccessToken(), connectionType, itemConsumer);
+  }
+
+  /**
+   * @see com.restfb.FacebookClient#streamConnectionPage(java.lang.String, java.lang.Class,
+   *      java.util.function.Consumer)
+   */
+  @Override
+  public <T> Connection<T> streamConnectionPage(String pageUrl, Class<T> connectionType,
+      Consumer<? super T> itemConsumer) {
+    verifyParameterPresence("itemConsumer", itemConsumer);
+    return streamConnectionFrom(addSecrets(pageUrl), getHeaderAccessToken(), connectionType, itemConsumer);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Connection<T> streamConnectionFrom(String url, String headerAccessToken, Class<T> connectionType,
+      Consumer<? super T> itemConsumer) {
+    StreamingArrayHandler handler = new StreamingArrayHandler("data",
+      jsonValue -> itemConsumer.accept(connectionType.equals(JsonObject.class) ? (T) jsonValue
+          : jsonMapper.toJavaObject(jsonValue, connectionType)));
+
+    Response streamedResponse;
+    try {
+      streamedResponse = webRequestor.executeGet(url, headerAccessToken, body -> new JsonParser(handler).parse(body));
+      // the requestor may answer with a complete page instead, e.g. a cached body for a 304 Not Modified
+      int statusCode = Optional.ofNullable(streamedResponse.getStatusCode()).orElse(0);
+      if (handler.getRemainder() == null && (statusCode == HTTP_OK || statusCode == HTTP_NOT_MODIFIED)
+          && !isBlank(streamedResponse.getBody())) {
+        new JsonParser(handler).parse(streamedResponse.getBody());
+      }
+    } catch (IOException e) {
+      throw new FacebookNetworkException(e);
+    } catch (ParseException e) {
+      throw new FacebookJsonMappingException("The connection response is not valid JSON", e);
+    }
+
+    // the streamed page has been consumed, the remaining members (paging, summary or an error) are small enough to
+    // run through the regular response processing
+    JsonObject remainder = handler.getRemainder();
+    Response response = remainder == null ? streamedResponse
+        : new Response(streamedResponse.getStatusCode(), remainder.toString());
+    makeRequestAndProcessResponse(() -> response);
+
+    if (remainder == null) {
+      throw new FacebookJsonMappingException("The connection response is not a JSON object: " + response);
+    }
+    if (!remainder.contains("data")) {
+      remainder.add("data", new JsonArray());
+    }
+    return new Connection<>(this, remainder, connectionType, handler.getElementCount() > 0);
   }
 
   /**
@@ -287,7 +417,13 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
   public <T> T fetchObject(String object, Class<T> objectType, Parameter... parameters) {
     verifyParameterPresence("object", object);
     verifyParameterPresence("objectType", objectType);
-    return jsonMapper.toJavaObject(makeRequest(object, parameters), objectType);
+    if (requestHooksOverridden) {
+      return jsonMapper.toJavaObject(makeRequest(object, parameters), objectType);
+    }
+    Response response = makeRawRequest(object, false, false, null, parameters);
+    byte[] rawBody = response.getRawBody();
+    return rawBody == null ? jsonMapper.toJavaObject(response.getBody(), objectType)
+        : jsonMapper.toJavaObject(rawBody, objectType);
   }
 
   @Override
@@ -410,11 +546,32 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
       throw new IllegalArgumentException("You must specify at least one batch request.");
     }
 
+    if (binaryAttachments.isEmpty() && !requestHooksOverridden) {
+      // stream the batch JSON straight into the request body instead of building it as a string, subclasses
+      // overriding makeRequest still get every batch through it
+      final String fullEndpoint = createEndpointForApiCall("/", false);
+      final String parameterString = toParameterString();
+      return jsonMapper.toJavaList(makeRequestAndProcessResponse(() -> webRequestor.executePost(fullEndpoint,
+        body -> writeBatchBody(body, batchRequests, parameterString), getHeaderAccessToken())), BatchResponse.class);
+    }
+
     return jsonMapper.toJavaList(
       makeRequest("", true, false, binaryAttachments, Parameter.with("batch", jsonMapper.toJson(batchRequests, true))),
       BatchResponse.class);
   }
 
+  private void writeBatchBody(OutputStream body, List<BatchRequest> batchRequests, String parameterString)
+      throws IOException {
+    Utf8WritingBuffer buffer = new Utf8WritingBuffer(body);
+    buffer.write("batch=");
+    buffer.setFormUrlEncoding(true);
+    jsonMapper.toJson(batchRequests, true, buffer);
+    buffer.setFormUrlEncoding(false);
+    buffer.write('&');
+    buffer.write(parameterString);
+    buffer.close();
+  }
+
   /**
    * @see com.restfb.FacebookClient#convertSessionKeysToAccessTokens(java.lang.String, java.lang.String,
    *      java.lang.String[])
@@ -664,9 +821,9 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
     String response = makeRequest("/debug_token", Parameter.with("input_token", inputToken));
 
     try {
-      JsonObject json = Json.parse(response).asObject();
+      JsonObject json = Json.parseLazy(response).asObject();
       JsonObject data = json.get("data").asObject();
-      return getJsonMapper().toJavaObject(data.toString(), DebugTokenInfo.class);
+      return getJsonMapper().toJavaObject(data, DebugTokenInfo.class);
     } catch (Exception t) {
       throw new FacebookResponseContentException("Unable to parse JSON from response.", t);
     }
@@ -725,6 +882,21 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
    */
   protected String makeRequest(String endpoint, final boolean executeAsPost, final boolean executeAsDelete,
       final List<BinaryAttachment> binaryAttachments, Parameter... parameters) {
+    return makeRequestAndProcessResponse(
+      createRequestor(endpoint, executeAsPost, executeAsDelete, binaryAttachments, parameters));
+  }
+
+  /**
+   * Like {@link #makeRequest(String, boolean, boolean, List, Parameter...)}, but returns the response so its body can
+   * be parsed from the raw bytes. Only used if the request hooks are not overridden.
+   */
+  private Response makeRawRequest(String endpoint, final boolean executeAsPost, final boolean executeAsDelete,
+      final List<BinaryAttachment> binaryAttachments, Parameter... parameters) {
+    return processResponse(createRequestor(endpoint, executeAsPost, executeAsDelete, binaryAttachments, parameters));
+  }
+
+  private Requestor createRequestor(String endpoint, final boolean executeAsPost, final boolean executeAsDelete,
+      final List<BinaryAttachment> binaryAttachments, Parameter... parameters) {
     verifyParameterLegality(parameters);
 
     if (executeAsDelete && isHttpDeleteFallback()) {
@@ -739,7 +911,7 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
         createEndpointForApiCall(endpoint, binaryAttachments != null && !binaryAttachments.isEmpty());
     final String parameterString = toParameterString(parameters);
 
-    return makeRequestAndProcessResponse(() -> {
+    return () -> {
       if (executeAsDelete && !isHttpDeleteFallback()) {
         return webRequestor.executeDelete(fullEndpoint + "?" + parameterString, getHeaderAccessToken());
       }
@@ -749,7 +921,7 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
       }
 
       return webRequestor.executeGet(fullEndpoint + "?" + parameterString, getHeaderAccessToken());
-    });
+    };
   }
 
   private String getHeaderAccessToken() {
@@ -796,43 +968,118 @@ public class DefaultFacebookClient extends BaseFacebookClient implements Faceboo
   }
 
   protected String makeRequestAndProcessResponse(Requestor requestor) {
+    return processResponse(requestor).getBody();
+  }
+
+  private Response processResponse(Requestor requestor) {
     Response response;
 
     // Perform a GET or POST to the API endpoint
     try {
       response = requestor.makeRequest();
+    } catch (FacebookJsonMappingException e) {
+      // thrown while writing a streamed request body
+      throw e;
     } catch (Exception t) {
       throw new FacebookNetworkException(t);
     }
 
-    // If we get any HTTP response code other than a 200 OK or 400 Bad Request
-    // or 401 Not Authorized or 403 Forbidden or 404 Not Found or 500 Internal
-    // Server Error or 302 Not Modified
-    // throw an exception.
-    if (HTTP_OK != response.getStatusCode() && HTTP_BAD_REQUEST != response.getStatusCode()
-        && HTTP_UNAUTHORIZED != response.getStatusCode() && HTTP_NOT_FOUND != response.getStatusCode()
-        && HTTP_INTERNAL_ERROR != response.getStatusCode() && HTTP_FORBIDDEN != response.getStatusCode()
-        && HTTP_NOT_MODIFIED != response.getStatusCode()) {
-      throw new FacebookNetworkException(response.getStatusCode());
+    if (isErrorFreeRawBody(response)) {
+      return response;
     }
 
-    String json = response.getBody();
-
     try {
-      // If the response contained an error code, throw an exception.
-      getFacebookExceptionGenerator().throwFacebookResponseStatusExceptionIfNecessary(json, response.getStatusCode());
+      throwExceptionIfNecessary(response.getStatusCode(), response.getBody(), getFacebookExceptionGenerator());
     } catch (FacebookErrorMessageException feme) {
-      Optional.ofNullable(getWebRequestor()).map(WebRequestor::getDebugHeaderInfo).ifPresent(feme::setDebugHeaderInfo);
+      // prefer the debug information of this very response, the requestor only knows the latest one
+      Optional<DebugHeaderInfo> debugHeaderInfo = Optional.ofNullable(response.getDebugHeaderInfo());
+      if (!debugHeaderInfo.isPresent()) {
+        debugHeaderInfo = Optional.ofNullable(getWebRequestor()).map(WebRequestor::getDebugHeaderInfo);
+      }
+      debugHeaderInfo.ifPresent(feme::setDebugHeaderInfo);
       throw feme;
     }
 
+    return response;
+  }
+
+  /**
+   * The {@link DefaultFacebookExceptionGenerator} only looks at bodies that start with an object with an
+   * {@code "error"} member among their first 50 characters. A successful response whose raw body cannot match that
+   * does not need to be decoded for the error check.
+   */
+  private boolean isErrorFreeRawBody(Response response) {
+    byte[] rawBody = response.getRawBody();
+    if (rawBody == null || !Integer.valueOf(HTTP_OK).equals(response.getStatusCode())
+        || getFacebookExceptionGenerator().getClass() != DefaultFacebookExceptionGenerator.class) {
+      return false;
+    }
+
+    int start = 0;
+    while (start < rawBody.length && (rawBody[start] & 0xFF) <= ' ') {
+      start++;
+    }
+    if (start == rawBody.length || rawBody[start] != '{') {
+      return true;
+    }
+
+    // 50 characters take at most 150 bytes in UTF-8
+    int end = Math.min(rawBody.length, start + 150) - ERROR_MEMBER.length;
+    for (int i = start; i <= end; i++) {
+      if (regionMatches(rawBody, i, ERROR_MEMBER)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean regionMatches(byte[] bytes, int offset, byte[] region) {
+    for (int i = 0; i < region.length; i++) {
+      if (bytes[offset + i] != region[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Throws the exception matching an unsuccessful API response, see {@link #makeRequestAndProcessResponse(Requestor)}.
+   * <p>
+   * Also used for the responses of the single requests of a batch.
+   * 
+   * @param statusCode
+   *          The HTTP status code of the response.
+   * @param json
+   *          The response body.
+   * @param exceptionGenerator
+   *          Generates the exception for an error response body.
+   * @throws FacebookNetworkException
+   *           If the status code is not one the Graph API answers with, or if it is a 500 or 401 without error
+   *           information.
+   * @throws FacebookException
+   *           If the response body contains an error.
+   * @since 3.16.0
+   */
+  protected static void throwExceptionIfNecessary(int statusCode, String json,
+      FacebookExceptionGenerator exceptionGenerator) {
+    // If we get any HTTP response code other than a 200 OK or 400 Bad Request
+    // or 401 Not Authorized or 403 Forbidden or 404 Not Found or 500 Internal
+    // Server Error or 302 Not Modified
+    // throw an exception.
+    if (HTTP_OK != statusCode && HTTP_BAD_REQUEST != statusCode && HTTP_UNAUTHORIZED != statusCode
+        && HTTP_NOT_FOUND != statusCode && HTTP_INTERNAL_ERROR != statusCode && HTTP_FORBIDDEN != statusCode
+        && HTTP_NOT_MODIFIED != statusCode) {
+      throw new FacebookNetworkException(statusCode);
+    }
+
+    // If the response contained an error code, throw an exception.
+    exceptionGenerator.throwFacebookResponseStatusExceptionIfNecessary(json, statusCode);
+
     // If there was no response error information and this was a 500 or 401
     // error, something weird happened on Facebook's end. Bail.
-    if (HTTP_INTERNAL_ERROR == response.getStatusCode() || HTTP_UNAUTHORIZED == response.getStatusCode()) {
-      throw new FacebookNetworkException(response.getStatusCode());
+    if (HTTP_INTERNAL_ERROR == statusCode || HTTP_UNAUTHORIZED == statusCode) {
+      throw new FacebookNetworkException(statusCode);
     }
-
-    return json;
   }
 
   /**
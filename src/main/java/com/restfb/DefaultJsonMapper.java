@@ -26,22 +26,24 @@ import static com.restfb.util.ObjectUtil.isEmptyCollectionOrMap;
 import static com.restfb.util.ReflectionUtils.*;
 import static com.restfb.util.StringUtils.isBlank;
 import static com.restfb.util.StringUtils.trimToEmpty;
-import static java.lang.String.format;
 import static java.util.Collections.unmodifiableList;
 import static java.util.Collections.unmodifiableSet;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import com.restfb.TypeBinding.FieldBinding;
 import com.restfb.exception.FacebookJsonMappingException;
 import com.restfb.json.*;
-import com.restfb.types.AbstractFacebookType;
 import com.restfb.types.Comments;
 import com.restfb.util.DateUtils;
 import com.restfb.util.ObjectUtil;
@@ -63,12 +65,53 @@ public class DefaultJsonMapper implements JsonMapper {
    */
   private final JsonHelper jsonHelper;
 
+  /**
+   * {@code true} if a subclass overrides {@link #getFacebookFieldName} or
+   * {@link #facebookFieldNamesWithMultipleMappings}, so the field names cached in the {@link TypeBinding} cannot be used.
+   */
+  private final boolean fieldNameHooksOverridden;
+
+  /**
+   * {@code true} if a subclass overrides {@link #toJavaType(FieldWithAnnotation, JsonObject, String)}, so the
+   * conversion cached in the {@link FieldBinding} cannot be used.
+   */
+  private final boolean toJavaTypeOverridden;
+
+  /**
+   * {@code true} if a subclass overrides {@link #toJavaObject(String, Class)}, so response bodies must be mapped as
+   * text.
+   */
+  private final boolean toJavaObjectFromStringOverridden;
+
+  /**
+   * {@code true} if a subclass overrides {@link #toJavaObject(JsonValue, Class)}, so parsed response bodies must be
+   * mapped through it.
+   */
+  private final boolean toJavaObjectFromJsonValueOverridden;
+
   /**
    * Creates a JSON mapper which will throw {@link com.restfb.exception.FacebookJsonMappingException} whenever an error
    * occurs when mapping JSON data to Java objects.
    */
   public DefaultJsonMapper() {
     jsonHelper = new JsonHelper();
+    fieldNameHooksOverridden = isOverridden("getFacebookFieldName", FieldWithAnnotation.class)
+        || isOverridden("facebookFieldNamesWithMultipleMappings", List.class);
+    toJavaTypeOverridden = isOverridden("toJavaType", FieldWithAnnotation.class, JsonObject.class, String.class);
+    toJavaObjectFromStringOverridden = isOverridden("toJavaObject", String.class, Class.class);
+    toJavaObjectFromJsonValueOverridden = isOverridden("toJavaObject", JsonValue.class, Class.class);
+  }
+
+  private boolean isOverridden(String methodName, Class<?>... parameterTypes) {
+    for (Class<?> type = getClass(); !DefaultJsonMapper.class.equals(type); type = type.getSuperclass()) {
+      try {
+        type.getDeclaredMethod(methodName, parameterTypes);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // not declared here, check the superclass
+      }
+    }
+    return false;
   }
 
   @Override
@@ -83,12 +126,30 @@ public class DefaultJsonMapper implements JsonMapper {
 
     checkBlankJson(json);
 
-    if (StringJsonUtils.isObject(json)) {
+    JsonValue jsonValue;
+
+    try {
+      jsonValue = Json.parse(json);
+    } catch (ParseException e) {
+      throw new FacebookJsonMappingException(
+        "Unable to convert Facebook response JSON to a list of " + type.getName() + " instances", e);
+    }
+
+    return toJavaList(jsonValue, type);
+  }
+
+  @Override
+  public <T> List<T> toJavaList(JsonValue jsonValue, Class<T> type) {
+    ObjectUtil.requireNotNull(type, () -> new FacebookJsonMappingException("You must specify the Java type to map to."));
+
+    if (jsonValue.isObject()) {
+      JsonObject jsonObject = jsonValue.asObject();
+
       // Sometimes Facebook returns the empty object {} when it really should be
       // returning an empty list [] (example: do an FQL query for a user's
       // affiliations - it's a list except when there are none, then it turns
       // into an object). Check for that special case here.
-      if (StringJsonUtils.isEmptyObject(json)) {
+      if (jsonObject.isEmpty()) {
         MAPPER_LOGGER
           .trace("Encountered \\{} when we should've seen []. Mapping the \\{} as an empty list and moving on...");
 
@@ -101,41 +162,23 @@ public class DefaultJsonMapper implements JsonMapper {
       // object.
       // Doing this simplifies mapping, so we don't have to worry about having a
       // little placeholder object that only has a "data" value.
-      try {
-        JsonObject jsonObject = Json.parse(json).asObject();
-        List<String> fieldNames = jsonObject.names();
+      List<String> fieldNames = jsonObject.names();
+      boolean hasSingleDataProperty = fieldNames.size() == 1;
+      JsonValue jsonDataObject = jsonObject.get(fieldNames.get(0));
 
-        if (!fieldNames.isEmpty()) {
-          boolean hasSingleDataProperty = fieldNames.size() == 1;
-          Object jsonDataObject = jsonObject.get(fieldNames.get(0));
-
-          if (!hasSingleDataProperty && !(jsonDataObject instanceof JsonArray)) {
-            throw new FacebookJsonMappingException(
-              "JSON is an object but is being mapped as a list instead. Offending JSON is '" + json + "'.");
-          }
-
-          json = jsonDataObject.toString();
-        }
-      } catch (ParseException e) {
-        // Should never get here, but just in case...
-        throw new FacebookJsonMappingException("Unable to convert Facebook response JSON to a list of " + type.getName()
-            + " instances.  Offending JSON is '" + json + "'.",
-          e);
+      if (!hasSingleDataProperty && !jsonDataObject.isArray()) {
+        throw new FacebookJsonMappingException(
+          "JSON is an object but is being mapped as a list instead. Offending JSON is '" + jsonValue + "'.");
       }
+
+      jsonValue = jsonDataObject;
     }
 
     try {
-      JsonArray jsonArray = Json.parse(json).asArray();
+      JsonArray jsonArray = jsonValue.asArray();
       List<T> list = new ArrayList<>(jsonArray.size());
-      for (JsonValue jsonValue : jsonArray) {
-        String innerJson = jsonHelper.getStringFrom(jsonValue);
-        // the inner JSON starts with square brackets but the parser don't think this is a JSON array
-        // so we think the parser is right and add quotes around the string
-        // solves Issue #719
-        if (jsonValue.isString() && innerJson.startsWith("[")) {
-          innerJson = '"' + innerJson + '"';
-        }
-        list.add(toJavaObject(innerJson, type));
+      for (JsonValue element : jsonArray) {
+        list.add(toJavaObject(element, type));
       }
       return unmodifiableList(list);
     } catch (FacebookJsonMappingException e) {
@@ -161,45 +204,133 @@ public class DefaultJsonMapper implements JsonMapper {
         return (T) Json.parse(json).asObject();
       }
 
-      List<FieldWithAnnotation<Facebook>> fieldsWithAnnotation = findFieldsWithAnnotation(type, Facebook.class);
-      Set<String> facebookFieldNamesWithMultipleMappings = facebookFieldNamesWithMultipleMappings(fieldsWithAnnotation);
-
       // If there are no annotated fields, assume we're mapping to a built-in
-      // type. If this is actually the empty object, just return a new instance
-      // of the corresponding Java type.
-      if (fieldsWithAnnotation.isEmpty()) {
+      // type. Facebook serves up non-legal JSON for some of these (example
+      // result: {@code [222333,1240079]}), so we map the raw string instead
+      // of parsing it.
+      if (!TypeBinding.of(type).hasFieldBindings()) {
         if (StringJsonUtils.isEmptyObject(json)) {
-          T instance = createInstance(type);
+          return createInstanceAndInvokeMappingCompleted(TypeBinding.of(type));
+        } else {
+          return toPrimitiveJavaType(json, type);
+        }
+      }
+
+      return toJavaObject(Json.parse(json), type, () -> json);
+    } catch (FacebookJsonMappingException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new FacebookJsonMappingException("Unable to map JSON to Java. Offending JSON is '" + json + "'.", e);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T toJavaObject(byte[] json, Class<T> type) {
+    // built-in types are mapped from the raw text, Facebook serves up non-legal JSON for some of them
+    if (json == null || toJavaObjectFromStringOverridden
+        || (!type.equals(JsonObject.class) && !TypeBinding.of(type).hasFieldBindings())) {
+      return toJavaObject(json == null ? null : new String(json, StandardCharsets.UTF_8), type);
+    }
+
+    JsonValue jsonValue;
+    try {
+      jsonValue = Json.parse(json);
+    } catch (ParseException e) {
+      // the text variant reports the offending JSON
+      return toJavaObject(new String(json, StandardCharsets.UTF_8), type);
+    }
+
+    // freshly parsed, so there is no need for the copy the JsonValue variant makes
+    if (type.equals(JsonObject.class) && jsonValue.isObject()) {
+      return (T) jsonValue.asObject();
+    }
+    return toJavaObject(jsonValue, type, () -> trimToEmpty(new String(json, StandardCharsets.UTF_8)));
+  }
+
+  @Override
+  public <T> T toJavaObject(JsonValue jsonValue, Class<T> type) {
+    return mapToJavaObject(jsonValue, type, null);
+  }
+
+  /**
+   * Maps a top-level value, whose original text is passed to the {@code @OriginalJson} field instead of the
+   * re-serialized object.
+   */
+  private <T> T toJavaObject(JsonValue jsonValue, Class<T> type, Supplier<String> originalJson) {
+    if (toJavaObjectFromJsonValueOverridden) {
+      return toJavaObject(jsonValue, type);
+    }
+    return mapToJavaObject(jsonValue, type, originalJson);
+  }
+
+  /**
+   * @param originalJson
+   *          the original text of {@code jsonValue}, {@code null} for nested values
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T mapToJavaObject(JsonValue jsonValue, Class<T> type, Supplier<String> originalJson) {
+    if (jsonValue.isArray()) {
+      if (jsonValue.asArray().isEmpty()) {
+        return toJavaObject(new JsonObject(), type);
+      }
+
+      throw new FacebookJsonMappingException("JSON is an array but is being mapped as an object "
+          + "- you should map it as a List instead. Offending JSON is '" + jsonValue + "'.");
+    }
 
-          // If there are any methods annotated with @JsonMappingCompleted,
-          // invoke them.
-          invokeJsonMappingCompletedMethods(instance);
+    try {
+      // Are we asked to map to JsonObject? If so, short-circuit right away.
+      // Facebook sometimes embeds the object as JSON text in a string value.
+      // The result is a copy, so changing it does not change the tree it was taken from.
+      if (type.equals(JsonObject.class)) {
+        return jsonValue.isString() ? toJavaObject(jsonValue.asString(), type) : (T) deepCopy(jsonValue.asObject());
+      }
 
-          return instance;
+      TypeBinding typeBinding = TypeBinding.of(type);
+
+      // If there are no annotated fields, assume we're mapping to a built-in
+      // type. If this is actually the empty object, just return a new instance
+      // of the corresponding Java type.
+      if (!typeBinding.hasFieldBindings()) {
+        if (jsonValue.isObject() && jsonValue.asObject().isEmpty()) {
+          return createInstanceAndInvokeMappingCompleted(typeBinding);
         } else {
-          return toPrimitiveJavaType(json, type);
+          return toPrimitiveJavaType(jsonHelper.getStringFrom(jsonValue), type);
         }
       }
 
       // Facebook will sometimes return the string "null".
       // Check for that and bail early if we find it.
-      if (StringJsonUtils.isNull(json)) {
+      if (jsonValue.isNull()) {
         return null;
       }
 
       // Facebook will sometimes return the string "false" to mean null.
       // Check for that and bail early if we find it.
-      if (StringJsonUtils.isFalse(json)) {
+      if (jsonValue.isFalse()) {
         MAPPER_LOGGER.debug("Encountered 'false' from Facebook when trying to map to {} - mapping null instead.",
           type.getSimpleName());
         return null;
       }
 
-      JsonValue jsonValue = Json.parse(json);
-      T instance = createInstance(type);
+      // Facebook will sometimes embed an object as JSON text in a string value.
+      // Parse the text and map the result.
+      if (jsonValue.isString()) {
+        String embeddedJson = jsonValue.asString();
+        // the string starts with square brackets but the parser doesn't think it is a JSON array,
+        // so we think the parser is right and map it like any other non-object value
+        // solves Issue #719
+        if (embeddedJson.startsWith("[")) {
+          return null;
+        }
+        return toJavaObject(embeddedJson, type);
+      }
+
+      T instance = typeBinding.newInstance();
 
       if (instance instanceof JsonObject) {
-        return (T) jsonValue.asObject();
+        return (T) deepCopy(jsonValue.asObject());
       }
 
       if (!jsonValue.isObject()) {
@@ -208,23 +339,23 @@ public class DefaultJsonMapper implements JsonMapper {
 
       JsonObject jsonObject = jsonValue.asObject();
 
-      if (instance instanceof AbstractFacebookType) {
-        ReflectionUtils.setJson(instance, json);
+      if (typeBinding.isOriginalJsonPresent()) {
+        ReflectionUtils.setJson(instance, originalJson != null ? originalJson.get() : jsonObject.toString());
       }
 
+      Set<String> facebookFieldNamesWithMultipleMappings = facebookFieldNamesWithMultipleMappings(typeBinding);
+
       // For each Facebook-annotated field on the current Java object, pull data
       // out of the JSON object and put it in the Java object
-      for (FieldWithAnnotation<Facebook> fieldWithAnnotation : fieldsWithAnnotation) {
-        String facebookFieldName = getFacebookFieldName(fieldWithAnnotation);
+      for (FieldBinding fieldBinding : typeBinding.getFieldBindings()) {
+        String facebookFieldName = getFacebookFieldName(fieldBinding);
+        JsonValue rawValue = jsonObject.get(facebookFieldName);
 
-        if (!jsonObject.contains(facebookFieldName)
-            && !fieldWithAnnotation.getField().getType().equals(Optional.class)) {
-          MAPPER_LOGGER.trace("No JSON value present for '{}', skipping. JSON is '{}'.", facebookFieldName, json);
+        if (rawValue == null && !fieldBinding.isOptional()) {
+          MAPPER_LOGGER.trace("No JSON value present for '{}', skipping. JSON is '{}'.", facebookFieldName, jsonObject);
           continue;
         }
 
-        fieldWithAnnotation.getField().setAccessible(true);
-
         // Set the Java field's value.
         //
         // If we notice that this Facebook field name is mapped more than once,
@@ -233,11 +364,14 @@ public class DefaultJsonMapper implements JsonMapper {
         // sometimes return data in different formats for the same field name.
         // See issues 56 and 90 for examples of this behavior and discussion.
         try {
-          fieldWithAnnotation.getField().set(instance,
-                  toJavaType(fieldWithAnnotation, jsonObject, facebookFieldName));
+          fieldBinding.set(instance,
+            toJavaTypeOverridden
+                ? toJavaType(fieldBinding.getFieldWithAnnotation(), jsonObject, facebookFieldName)
+                : toJavaType(fieldBinding, rawValue));
         } catch (FacebookJsonMappingException | ParseException | UnsupportedOperationException e) {
           if (facebookFieldNamesWithMultipleMappings.contains(facebookFieldName)) {
-            logMultipleMappingFailedForField(facebookFieldName, fieldWithAnnotation, json);
+            logMultipleMappingFailedForField(facebookFieldName, fieldBinding.getFieldWithAnnotation(),
+              originalJson != null ? originalJson.get() : jsonObject.toString());
           } else {
             throw e;
           }
@@ -252,8 +386,40 @@ public class DefaultJsonMapper implements JsonMapper {
     } catch (FacebookJsonMappingException e) {
       throw e;
     } catch (Exception e) {
-      throw new FacebookJsonMappingException("Unable to map JSON to Java. Offending JSON is '" + json + "'.", e);
+      throw new FacebookJsonMappingException("Unable to map JSON to Java. Offending JSON is '" + jsonValue + "'.", e);
+    }
+  }
+
+  /**
+   * Copies objects and arrays recursively, the other values are immutable.
+   */
+  private static JsonValue deepCopy(JsonValue jsonValue) {
+    if (jsonValue.isObject()) {
+      JsonObject copy = new JsonObject();
+      for (JsonObject.Member member : jsonValue.asObject()) {
+        copy.add(member.getName(), deepCopy(member.getValue()));
+      }
+      return copy;
     }
+    if (jsonValue.isArray()) {
+      JsonArray copy = new JsonArray();
+      for (JsonValue element : jsonValue.asArray()) {
+        copy.add(deepCopy(element));
+      }
+      return copy;
+    }
+    return jsonValue;
+  }
+
+  private <T> T createInstanceAndInvokeMappingCompleted(TypeBinding typeBinding)
+      throws IllegalAccessException, InvocationTargetException {
+    T instance = typeBinding.newInstance();
+
+    // If there are any methods annotated with @JsonMappingCompleted,
+    // invoke them.
+    invokeJsonMappingCompletedMethods(instance);
+
+    return instance;
   }
 
   private void checkBlankJson(String json) {
@@ -285,18 +451,7 @@ public class DefaultJsonMapper implements JsonMapper {
    */
   protected void invokeJsonMappingCompletedMethods(Object object)
       throws IllegalAccessException, InvocationTargetException {
-    for (Method method : findMethodsWithAnnotation(object.getClass(), JsonMappingCompleted.class)) {
-      method.setAccessible(true);
-
-      if (method.getParameterTypes().length == 0)
-        method.invoke(object);
-      else if (method.getParameterTypes().length == 1 && JsonMapper.class.equals(method.getParameterTypes()[0]))
-        method.invoke(object, this);
-      else
-        throw new FacebookJsonMappingException(
-          format("Methods annotated with @%s must take 0 parameters or a single %s parameter. Your method was %s",
-            JsonMappingCompleted.class.getSimpleName(), JsonMapper.class.getSimpleName(), method));
-    }
+    TypeBinding.of(object.getClass()).invokeJsonMappingCompletedMethods(object, this);
   }
 
   /**
@@ -333,19 +488,7 @@ public class DefaultJsonMapper implements JsonMapper {
    * @return The Facebook JSON field name that should be mapped to this Java field.
    */
   protected String getFacebookFieldName(FieldWithAnnotation<Facebook> fieldWithAnnotation) {
-    String facebookFieldName = fieldWithAnnotation.getAnnotation().value();
-    Field field = fieldWithAnnotation.getField();
-
-    // If no Facebook field name was specified in the annotation, assume
-    // it's the same name as the Java field
-    if (isBlank(facebookFieldName)) {
-      MAPPER_LOGGER.trace("No explicit Facebook field name found for {}, so defaulting to the field name itself ({})",
-        field, field.getName());
-
-      facebookFieldName = field.getName();
-    }
-
-    return facebookFieldName;
+    return TypeBinding.facebookFieldName(fieldWithAnnotation);
   }
 
   /**
@@ -374,6 +517,16 @@ public class DefaultJsonMapper implements JsonMapper {
     return unmodifiableSet(facebookFieldNamesWithMultipleMappings);
   }
 
+  private String getFacebookFieldName(FieldBinding fieldBinding) {
+    return fieldNameHooksOverridden ? getFacebookFieldName(fieldBinding.getFieldWithAnnotation())
+        : fieldBinding.getFacebookFieldName();
+  }
+
+  private Set<String> facebookFieldNamesWithMultipleMappings(TypeBinding typeBinding) {
+    return fieldNameHooksOverridden ? facebookFieldNamesWithMultipleMappings(typeBinding.getFieldsWithAnnotation())
+        : typeBinding.getFacebookFieldNamesWithMultipleMappings();
+  }
+
   @Override
   public String toJson(Object object) {
     return toJson(object, false);
@@ -386,39 +539,52 @@ public class DefaultJsonMapper implements JsonMapper {
   }
 
   /**
-   * Recursively marshal the given {@code object} to JSON.
+   * Writes lists, maps and Javabeans member by member, without building the JSON tree or string first. Other values are
+   * written as returned by {@link #toJson(Object, boolean)}.
    * <p>
-   * Used by {@link #toJson(Object)}.
-   * 
+   * Subclasses that override {@link #toJsonInternal(Object, boolean)} should override {@link #writeJsonInternal} as
+   * well.
+   */
+  @Override
+  public void toJson(Object object, boolean ignoreNullValuedProperties, Writer writer) throws IOException {
+    if (object instanceof List<?> || object instanceof Map<?, ?> || isJavabean(object)) {
+      writeJsonInternal(object, ignoreNullValuedProperties, new JsonStreamWriter(writer));
+    } else {
+      writer.write(toJson(object, ignoreNullValuedProperties));
+    }
+  }
+
+  /**
+   * Recursively writes the given {@code object} as JSON.
+   * <p>
+   * Used by {@link #toJson(Object, boolean, Writer)}, mirrors {@link #toJsonInternal(Object, boolean)}.
+   *
    * @param object
    *          The object to marshal.
    * @param ignoreNullValuedProperties
    *          If this is {@code true}, no Javabean properties with {@code null} values will be included in the generated
    *          JSON.
-   * @return JSON representation of the given {@code object}.
+   * @param jsonWriter
+   *          The stream writer to write the JSON to.
+   * @throws IOException
+   *           If an error occurs while writing.
    * @throws FacebookJsonMappingException
    *           If an error occurs while marshaling to JSON.
+   * @since 3.16.0
    */
-  protected JsonValue toJsonInternal(Object object, boolean ignoreNullValuedProperties) {
-    if (object == null) {
-      return Json.NULL;
-    }
-
-    if (object instanceof JsonValue) {
-      return (JsonValue) object;
-    }
-
+  protected void writeJsonInternal(Object object, boolean ignoreNullValuedProperties, JsonStreamWriter jsonWriter)
+      throws IOException {
     if (object instanceof List<?>) {
-      JsonArray jsonArray = new JsonArray();
-
-      for (Object o : (List<?>) object)
-        jsonArray.add(toJsonInternal(o, ignoreNullValuedProperties));
-
-      return jsonArray;
+      jsonWriter.beginArray();
+      for (Object o : (List<?>) object) {
+        writeJsonInternal(o, ignoreNullValuedProperties, jsonWriter);
+      }
+      jsonWriter.endArray();
+      return;
     }
 
     if (object instanceof Map<?, ?>) {
-      JsonObject jsonObject = new JsonObject();
+      jsonWriter.beginObject();
       for (Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
         if (!(entry.getKey() instanceof String)) {
           throw new FacebookJsonMappingException("Your Map keys must be of type " + String.class
@@ -426,24 +592,50 @@ public class DefaultJsonMapper implements JsonMapper {
         }
 
         try {
-          jsonObject.add((String) entry.getKey(), toJsonInternal(entry.getValue(), ignoreNullValuedProperties));
+          jsonWriter.name((String) entry.getKey());
+          writeJsonInternal(entry.getValue(), ignoreNullValuedProperties, jsonWriter);
         } catch (ParseException | IllegalArgumentException e) {
           throw new FacebookJsonMappingException(
             "Unable to process value '" + entry.getValue() + "' for key '" + entry.getKey() + "' in Map " + object, e);
         }
       }
-
-      return jsonObject;
+      jsonWriter.endObject();
+      return;
     }
 
-    if (isPrimitive(object)) {
-      return primitiveToJsonValue(object);
+    if (object instanceof Optional) {
+      writeJsonInternal(((Optional<?>) object).orElse(null), ignoreNullValuedProperties, jsonWriter);
+      return;
     }
 
-    if (object instanceof Optional) {
-      return toJsonInternal(((Optional) object).orElse(null), ignoreNullValuedProperties);
+    if (!isJavabean(object)) {
+      jsonWriter.value(toJsonInternal(object, ignoreNullValuedProperties));
+      return;
     }
 
+    jsonWriter.beginObject();
+    forEachJsonProperty(object, ignoreNullValuedProperties, (facebookFieldName, fieldValue) -> {
+      jsonWriter.name(facebookFieldName);
+      writeJsonInternal(fieldValue, ignoreNullValuedProperties, jsonWriter);
+    });
+    jsonWriter.endObject();
+  }
+
+  /**
+   * {@code true} if the object is marshaled as a plain old Javabean, i.e. it is none of the special cases handled by
+   * {@link #toJsonInternal(Object, boolean)} before.
+   */
+  private static boolean isJavabean(Object object) {
+    return object != null && !(object instanceof JsonValue) && !(object instanceof List<?>)
+        && !(object instanceof Map<?, ?>) && !(object instanceof Optional) && !isScalar(object);
+  }
+
+  private static boolean isScalar(Object object) {
+    return isPrimitive(object) || object instanceof BigInteger || object instanceof BigDecimal
+        || object instanceof Enum || object instanceof Date;
+  }
+
+  private JsonValue scalarToJsonValue(Object object) {
     if (object instanceof BigInteger) {
       return Json.value(((BigInteger) object).longValue());
     }
@@ -460,13 +652,24 @@ public class DefaultJsonMapper implements JsonMapper {
       return Json.value(DateUtils.toLongFormatFromDate((Date) object));
     }
 
-    // We've passed the special-case bits, so let's try to marshal this as a
-    // plain old Javabean...
+    return primitiveToJsonValue(object);
+  }
 
-    List<FieldWithAnnotation<Facebook>> fieldsWithAnnotation =
-        findFieldsWithAnnotation(object.getClass(), Facebook.class);
+  /**
+   * Receives the JSON name and value of a Javabean property, see {@link #forEachJsonProperty}.
+   */
+  @FunctionalInterface
+  private interface JsonPropertyConsumer {
+    void accept(String facebookFieldName, Object fieldValue) throws IOException;
+  }
 
-    JsonObject jsonObject = new JsonObject();
+  /**
+   * Hands every {@code @Facebook}-annotated field of the Javabean {@code object} that is marshaled to JSON to
+   * {@code consumer}. Shared by {@link #toJsonInternal(Object, boolean)} and {@link #writeJsonInternal}.
+   */
+  private void forEachJsonProperty(Object object, boolean ignoreNullValuedProperties, JsonPropertyConsumer consumer)
+      throws IOException {
+    TypeBinding typeBinding = TypeBinding.of(object.getClass());
 
     // No longer throw an exception in this case. If there are multiple fields
     // with the same @Facebook value, it's luck of the draw which is picked for
@@ -474,19 +677,18 @@ public class DefaultJsonMapper implements JsonMapper {
     // TODO: A better implementation would query each duplicate-mapped field. If
     // it has is a non-null value and the other duplicate values are null, use
     // the non-null field.
-    Set<String> facebookFieldNamesWithMultipleMappings = facebookFieldNamesWithMultipleMappings(fieldsWithAnnotation);
+    Set<String> facebookFieldNamesWithMultipleMappings = facebookFieldNamesWithMultipleMappings(typeBinding);
     if (!facebookFieldNamesWithMultipleMappings.isEmpty() && MAPPER_LOGGER.isDebugEnabled()) {
       MAPPER_LOGGER.debug(
         "Unable to convert to JSON because multiple @{} annotations for the same name are present: {}",
         Facebook.class.getSimpleName(), facebookFieldNamesWithMultipleMappings);
     }
 
-    for (FieldWithAnnotation<Facebook> fieldWithAnnotation : fieldsWithAnnotation) {
-      String facebookFieldName = getFacebookFieldName(fieldWithAnnotation);
-      fieldWithAnnotation.getField().setAccessible(true);
+    for (FieldBinding fieldBinding : typeBinding.getFieldBindings()) {
+      String facebookFieldName = getFacebookFieldName(fieldBinding);
 
       try {
-        Object fieldValue = fieldWithAnnotation.getField().get(object);
+        Object fieldValue = fieldBinding.get(object);
 
         if (fieldValue instanceof Connection) {
           continue;
@@ -495,13 +697,89 @@ public class DefaultJsonMapper implements JsonMapper {
         if (!(ignoreNullValuedProperties
             && (fieldValue == null || (fieldValue instanceof Optional && !((Optional) fieldValue).isPresent())
                 || isEmptyCollectionOrMap(fieldValue)))) {
-          jsonObject.add(facebookFieldName, toJsonInternal(fieldValue, ignoreNullValuedProperties));
+          consumer.accept(facebookFieldName, fieldValue);
         }
+      } catch (IOException e) {
+        throw e;
       } catch (Exception e) {
         throw new FacebookJsonMappingException(
           "Unable to process field '" + facebookFieldName + "' for " + object.getClass(), e);
       }
     }
+  }
+
+
+  /**
+   * Recursively marshal the given {@code object} to JSON.
+   * <p>
+   * Used by {@link #toJson(Object)}.
+   * 
+   * @param object
+   *          The object to marshal.
+   * @param ignoreNullValuedProperties
+   *          If this is {@code true}, no Javabean properties with {@code null} values will be included in the generated
+   *          JSON.
+   * @return JSON representation of the given {@code object}.
+   * @throws FacebookJsonMappingException
+   *           If an error occurs while marshaling to JSON.
+   */
+  protected JsonValue toJsonInternal(Object object, boolean ignoreNullValuedProperties) {
+    if (object == null) {
+      return Json.NULL;
+    }
+
+    if (object instanceof JsonValue) {
+      return (JsonValue) object;
+    }
+
+    if (object instanceof List<?>) {
+      JsonArray jsonArray = new JsonArray();
+
+      for (Object o : (List<?>) object)
+        jsonArray.add(toJsonInternal(o, ignoreNullValuedProperties));
+
+      return jsonArray;
+    }
+
+    if (object instanceof Map<?, ?>) {
+      JsonObject jsonObject = new JsonObject();
+      for (Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+        if (!(entry.getKey() instanceof String)) {
+          throw new FacebookJsonMappingException("Your Map keys must be of type " + String.class
+              + " in order to be converted to JSON.  Offending map is " + object);
+        }
+
+        try {
+          jsonObject.add((String) entry.getKey(), toJsonInternal(entry.getValue(), ignoreNullValuedProperties));
+        } catch (ParseException | IllegalArgumentException e) {
+          throw new FacebookJsonMappingException(
+            "Unable to process value '" + entry.getValue() + "' for key '" + entry.getKey() + "' in Map " + object, e);
+        }
+      }
+
+      return jsonObject;
+    }
+
+    if (object instanceof Optional) {
+      return toJsonInternal(((Optional) object).orElse(null), ignoreNullValuedProperties);
+    }
+
+    if (isScalar(object)) {
+      return scalarToJsonValue(object);
+    }
+
+    // We've passed the special-case bits, so let's try to marshal this as a
+    // plain old Javabean...
+
+    JsonObject jsonObject = new JsonObject();
+
+    try {
+      forEachJsonProperty(object, ignoreNullValuedProperties, (facebookFieldName, fieldValue) -> jsonObject
+        .add(facebookFieldName, toJsonInternal(fieldValue, ignoreNullValuedProperties)));
+    } catch (IOException e) {
+      // cannot happen, nothing is written
+      throw new FacebookJsonMappingException("Unable to convert " + object.getClass() + " to JSON", e);
+    }
 
     return jsonObject;
   }
@@ -576,148 +854,147 @@ public class DefaultJsonMapper implements JsonMapper {
    */
   protected Object toJavaType(FieldWithAnnotation<Facebook> fieldWithAnnotation, JsonObject jsonObject,
       String facebookFieldName) {
-    Class<?> type = fieldWithAnnotation.getField().getType();
-    JsonValue rawValue = jsonObject.get(facebookFieldName);
+    Field field = fieldWithAnnotation.getField();
+    FieldBinding fieldBinding = TypeBinding.of(field.getDeclaringClass()).getFieldBinding(field);
+    if (fieldBinding == null) {
+      throw new FacebookJsonMappingException("No @Facebook binding found for " + fieldWithAnnotation);
+    }
+    return toJavaType(fieldBinding, jsonObject.get(facebookFieldName));
+  }
 
+  /**
+   * Converts the raw JSON value of a field with the conversion chosen for it by its {@link FieldBinding}.
+   *
+   * @param fieldBinding
+   *          The precompiled field binding which specifies what Java type to convert to.
+   * @param rawValue
+   *          "Raw" JSON value of the field, may be {@code null}.
+   * @return The converted value.
+   */
+  private Object toJavaType(FieldBinding fieldBinding, JsonValue rawValue) {
     // Short-circuit right off the bat if we've got a null value, but Optionals are created nevertheless.
     if (rawValue == null || rawValue.isNull()) {
-      if (type.equals(Optional.class)) {
-        return Optional.empty();
-      } else {
-        return null;
-      }
+      return fieldBinding.isOptional() ? Optional.empty() : null;
     }
 
-    if (String.class.equals(type)) {
-      /*
-       * Special handling here for better error checking.
-       *
-       * Since {@code JsonObject.getString()} will return literal JSON text even if it's _not_ a JSON string, we check
-       * the marshaled type and bail if needed. For example, calling {@code JsonObject.getString("results")} on the
-       * below JSON...
-       *
-       * <code> { "results":[ {"name":"Mark Allen"} ] } </code>
-       *
-       * ... would return the string {@code "[{"name":"Mark Allen"}]"} instead of throwing an error. So we throw the
-       * error ourselves.
-       *
-       * Per Antonello Naccarato, sometimes FB will return an empty JSON array instead of an empty string. Look for that
-       * here.
-       */
-      if (rawValue.isArray() && rawValue.asArray().isEmpty()) {
-        MAPPER_LOGGER.trace("Coercing an empty JSON array to an empty string for {}", fieldWithAnnotation);
-
-        return "";
-      }
-
-      /*
-       * If the user wants a string, _always_ give her a string.
-       *
-       * This is useful if, for example, you've got a @Facebook-annotated string field that you'd like to have a numeric
-       * type shoved into.
-       *
-       * User beware: this will turn *anything* into a string, which might lead to results you don't expect.
-       */
-      return jsonHelper.getStringFrom(rawValue);
-    }
-
-    if (Integer.class.equals(type) || Integer.TYPE.equals(type)) {
-      return jsonHelper.getIntegerFrom(rawValue);
-    }
-    if (Boolean.class.equals(type) || Boolean.TYPE.equals(type)) {
-      return jsonHelper.getBooleanFrom(rawValue);
-    }
-    if (Long.class.equals(type) || Long.TYPE.equals(type)) {
-      return jsonHelper.getLongFrom(rawValue);
-    }
-    if (Double.class.equals(type) || Double.TYPE.equals(type)) {
-      return jsonHelper.getDoubleFrom(rawValue);
-    }
-    if (Float.class.equals(type) || Float.TYPE.equals(type)) {
-      return jsonHelper.getFloatFrom(rawValue);
-    }
-    if (BigInteger.class.equals(type)) {
-      return jsonHelper.getBigIntegerFrom(rawValue);
-    }
-    if (BigDecimal.class.equals(type)) {
-      return jsonHelper.getBigDecimalFrom(rawValue);
-    }
-    if (List.class.equals(type)) {
-      return toJavaList(rawValue.toString(), getFirstParameterizedTypeArgument(fieldWithAnnotation.getField()));
-    }
-    if (Map.class.equals(type)) {
-      return convertJsonObjectToMap(rawValue.toString(), fieldWithAnnotation.getField());
-    }
-
-    if (Optional.class.equals(type)) {
-      return Optional.ofNullable(
-        toJavaObject(rawValue.toString(), getFirstParameterizedTypeArgument(fieldWithAnnotation.getField())));
-    }
-
-    if (type.isEnum()) {
-      Class<? extends Enum> enumType = type.asSubclass(Enum.class);
-      try {
-        return Enum.valueOf(enumType, rawValue.asString());
-      } catch (IllegalArgumentException iae) {
-        MAPPER_LOGGER.debug("Cannot map string {} to enum {}, try fallback toUpperString next...", rawValue.asString(),
-          enumType.getName());
-      }
-      try {
-        return Enum.valueOf(enumType, rawValue.asString().toUpperCase());
-      } catch (IllegalArgumentException iae) {
-        MAPPER_LOGGER.debug("Mapping string {} to enum {} not possible", rawValue.asString(), enumType.getName());
-      }
-    }
+    Class<?> type = fieldBinding.getField().getType();
+
+    switch (fieldBinding.getConversion()) {
+      case STRING:
+        /*
+         * Special handling here for better error checking.
+         *
+         * Since {@code JsonObject.getString()} will return literal JSON text even if it's _not_ a JSON string, we check
+         * the marshaled type and bail if needed. For example, calling {@code JsonObject.getString("results")} on the
+         * below JSON...
+         *
+         * <code> { "results":[ {"name":"Mark Allen"} ] } </code>
+         *
+         * ... would return the string {@code "[{"name":"Mark Allen"}]"} instead of throwing an error. So we throw the
+         * error ourselves.
+         *
+         * Per Antonello Naccarato, sometimes FB will return an empty JSON array instead of an empty string. Look for
+         * that here.
+         */
+        if (rawValue.isArray() && rawValue.asArray().isEmpty()) {
+          MAPPER_LOGGER.trace("Coercing an empty JSON array to an empty string for {}",
+            fieldBinding.getFieldWithAnnotation());
+
+          return "";
+        }
 
-    if (Date.class.equals(type)) {
-      return DateUtils.toDateFromLongFormat(jsonHelper.getStringFrom(rawValue));
-    }
+        /*
+         * If the user wants a string, _always_ give her a string.
+         *
+         * This is useful if, for example, you've got a @Facebook-annotated string field that you'd like to have a
+         * numeric type shoved into.
+         *
+         * User beware: this will turn *anything* into a string, which might lead to results you don't expect.
+         */
+        return jsonHelper.getStringFrom(rawValue);
+      case INTEGER:
+        return jsonHelper.getIntegerFrom(rawValue);
+      case BOOLEAN:
+        return jsonHelper.getBooleanFrom(rawValue);
+      case LONG:
+        return jsonHelper.getLongFrom(rawValue);
+      case DOUBLE:
+        return jsonHelper.getDoubleFrom(rawValue);
+      case FLOAT:
+        return jsonHelper.getFloatFrom(rawValue);
+      case BIG_INTEGER:
+        return jsonHelper.getBigIntegerFrom(rawValue);
+      case BIG_DECIMAL:
+        return jsonHelper.getBigDecimalFrom(rawValue);
+      case LIST:
+        return toJavaList(rawValue, fieldBinding.getFirstTypeArgument());
+      case MAP:
+        return convertJsonObjectToMap(rawValue, fieldBinding);
+      case OPTIONAL:
+        return Optional.ofNullable(toJavaObject(rawValue, fieldBinding.getFirstTypeArgument()));
+      case ENUM:
+        Class<? extends Enum> enumType = type.asSubclass(Enum.class);
+        try {
+          return Enum.valueOf(enumType, rawValue.asString());
+        } catch (IllegalArgumentException iae) {
+          MAPPER_LOGGER.debug("Cannot map string {} to enum {}, try fallback toUpperString next...",
+            rawValue.asString(), enumType.getName());
+        }
+        try {
+          return Enum.valueOf(enumType, rawValue.asString().toUpperCase());
+        } catch (IllegalArgumentException iae) {
+          MAPPER_LOGGER.debug("Mapping string {} to enum {} not possible", rawValue.asString(), enumType.getName());
+        }
+        break;
+      case DATE:
+        return DateUtils.toDateFromLongFormat(jsonHelper.getStringFrom(rawValue));
+      case CONNECTION:
+        if (null != facebookClient) {
+          Class<?> connectionType = fieldBinding.getFirstTypeArgument();
+          return rawValue.isObject() ? Connection.fromJsonObject(facebookClient, rawValue.asObject(), connectionType)
+              : new Connection(facebookClient, jsonHelper.getStringFrom(rawValue), connectionType);
+        }
 
-    if (Connection.class.equals(type)) {
-      if (null != facebookClient) {
-        return new Connection(facebookClient, jsonHelper.getStringFrom(rawValue),
-          getFirstParameterizedTypeArgument(fieldWithAnnotation.getField()));
-      } else {
         MAPPER_LOGGER.warn(
           "Skipping java field {}, because it has the type Connection, but the given facebook client is null",
-          fieldWithAnnotation.getField().getName());
-      }
-    }
-
-    String rawValueAsString = jsonHelper.getStringFrom(rawValue);
-
-    // Hack for issue #76 where FB will sometimes return a Post's Comments as
-    // "[]" instead of an object type (wtf)F
-    if (Comments.class.isAssignableFrom(type) && rawValue instanceof JsonArray) {
-      MAPPER_LOGGER.debug(
-        "Encountered comment array '{}' but expected a {} object instead.  Working around that by coercing "
-            + "into an empty {} instance...",
-        rawValueAsString, Comments.class.getSimpleName(), Comments.class.getSimpleName());
-
-      JsonObject workaroundJsonObject = new JsonObject();
-      workaroundJsonObject.add("total_count", 0);
-      workaroundJsonObject.add("data", new JsonArray());
-      rawValueAsString = workaroundJsonObject.toString();
+          fieldBinding.getField().getName());
+        break;
+      case COMMENTS:
+        // Hack for issue #76 where FB will sometimes return a Post's Comments as
+        // "[]" instead of an object type (wtf)F
+        if (rawValue.isArray()) {
+          MAPPER_LOGGER.debug(
+            "Encountered comment array '{}' but expected a {} object instead.  Working around that by coercing "
+                + "into an empty {} instance...",
+            rawValue, Comments.class.getSimpleName(), Comments.class.getSimpleName());
+
+          JsonObject workaroundJsonObject = new JsonObject();
+          workaroundJsonObject.add("total_count", 0);
+          workaroundJsonObject.add("data", new JsonArray());
+          rawValue = workaroundJsonObject;
+        }
+        break;
+      default:
+        break;
     }
 
     // Some other type - recurse into it
-    return toJavaObject(rawValueAsString, type);
+    return toJavaObject(rawValue, type);
   }
 
-  private Map convertJsonObjectToMap(String json, Field field) {
-    Class<?> firstParam = getFirstParameterizedTypeArgument(field);
+  private Map convertJsonObjectToMap(JsonValue json, FieldBinding fieldBinding) {
+    Class<?> firstParam = fieldBinding.getFirstTypeArgument();
     if (!String.class.equals(firstParam)) {
       throw new FacebookJsonMappingException("The java type map needs to have a 'String' key, but is " + firstParam);
     }
 
-    Class<?> secondParam = getSecondParameterizedTypeArgument(field);
+    Class<?> secondParam = fieldBinding.getSecondTypeArgument();
 
-    if (StringJsonUtils.isObject(json)) {
-      JsonObject jsonObject = Json.parse(json).asObject();
+    if (json.isObject()) {
+      JsonObject jsonObject = json.asObject();
       Map<String, Object> map = new HashMap<>();
-      for (String key : jsonObject.names()) {
-        String value = jsonHelper.getStringFrom(jsonObject.get(key));
-        map.put(key, toJavaObject(value, secondParam));
+      for (JsonObject.Member member : jsonObject) {
+        map.put(member.getName(), toJavaObject(member.getValue(), secondParam));
       }
       return map;
     }
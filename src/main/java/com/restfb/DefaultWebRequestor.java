@@ -23,14 +23,19 @@ package com.restfb;
 
 import static com.restfb.logging.RestFBLogger.HTTP_LOGGER;
 
-import java.io.Closeable;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import java.util.function.BiConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import com.restfb.util.StringUtils;
 import com.restfb.util.UrlUtils;
@@ -61,6 +66,13 @@ public class DefaultWebRequestor implements WebRequestor {
    */
   private static final int MULTIPART_DEFAULT_BUFFER_SIZE = 8192;
 
+  /**
+   * Closing line of every multipart part.
+   */
+  private static final byte[] MULTIPART_FOOTER = (MULTIPART_CARRIAGE_RETURN_AND_NEWLINE + MULTIPART_TWO_HYPHENS
+      + MULTIPART_BOUNDARY + MULTIPART_TWO_HYPHENS + MULTIPART_CARRIAGE_RETURN_AND_NEWLINE)
+        .getBytes(StringUtils.ENCODING_CHARSET);
+
   /**
    * By default, how long should we wait for a response (in ms)?
    */
@@ -75,6 +87,11 @@ public class DefaultWebRequestor implements WebRequestor {
    */
   private boolean autocloseBinaryAttachmentStream = true;
 
+  /**
+   * Request gzip/deflate encoded responses and decode them transparently
+   */
+  private boolean compressionEnabled = true;
+
   protected enum HttpMethod {
     GET, DELETE, POST
   }
@@ -89,6 +106,11 @@ public class DefaultWebRequestor implements WebRequestor {
     return execute(url, HttpMethod.GET, null);
   }
 
+  @Override
+  public Response executeGet(String url, String headerAccessToken, BodyHandler bodyHandler) throws IOException {
+    return execute(url, HttpMethod.GET, headerAccessToken, bodyHandler);
+  }
+
   @Override
   public Response executePost(String url, String parameters, String headerAccessToken) throws IOException {
     return executePost(url, parameters, null, headerAccessToken);
@@ -110,53 +132,52 @@ public class DefaultWebRequestor implements WebRequestor {
     OutputStream outputStream = null;
 
     try {
-      httpUrlConnection = openConnection(new URL(url + (!binaryAttachments.isEmpty() ? "?" + parameters : "")));
-      httpUrlConnection.setReadTimeout(DEFAULT_READ_TIMEOUT_IN_MS);
-
-      // Allow subclasses to customize the connection if they'd like to - set
-      // their own headers, timeouts, etc.
-      customizeConnection(httpUrlConnection);
-
-      httpUrlConnection.setRequestMethod(HttpMethod.POST.name());
-      httpUrlConnection.setDoOutput(true);
-      httpUrlConnection.setUseCaches(false);
-
-      initHeaderAccessToken(httpUrlConnection, headerAccessToken);
+      httpUrlConnection =
+          openPostConnection(url + (!binaryAttachments.isEmpty() ? "?" + parameters : ""), headerAccessToken);
 
       if (!binaryAttachments.isEmpty()) {
         httpUrlConnection.setRequestProperty("Connection", "Keep-Alive");
         httpUrlConnection.setRequestProperty("Content-Type", "multipart/form-data;boundary=" + MULTIPART_BOUNDARY);
       }
 
-      httpUrlConnection.connect();
-      outputStream = httpUrlConnection.getOutputStream();
-
       // If we have binary attachments, the body is just the attachments and the
       // other parameters are passed in via the URL.
       // Otherwise the body is the URL parameter string.
+      List<byte[]> partHeaders = new ArrayList<>();
+      byte[] parameterBytes = null;
+      long contentLength = 0;
       if (!binaryAttachments.isEmpty()) {
         for (BinaryAttachment binaryAttachment : binaryAttachments) {
-          StringBuilder stringBuilder = new StringBuilder();
-
-          stringBuilder.append(MULTIPART_TWO_HYPHENS).append(MULTIPART_BOUNDARY)
-            .append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE).append("Content-Disposition: form-data; name=\"")
-            .append(createFormFieldName(binaryAttachment)).append("\"; filename=\"")
-            .append(binaryAttachment.getFilename()).append("\"");
-
-          stringBuilder.append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE).append("Content-Type: ")
-            .append(binaryAttachment.getContentType());
-
-          stringBuilder.append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE).append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE);
+          byte[] partHeader = createMultipartHeader(binaryAttachment);
+          partHeaders.add(partHeader);
+          long dataLength = binaryAttachment.getContentLength();
+          contentLength = contentLength < 0 || dataLength < 0 ? -1
+              : contentLength + partHeader.length + dataLength + MULTIPART_FOOTER.length;
+        }
+      } else {
+        parameterBytes = parameters.getBytes(StringUtils.ENCODING_CHARSET);
+        contentLength = parameterBytes.length;
+      }
 
-          outputStream.write(stringBuilder.toString().getBytes(StringUtils.ENCODING_CHARSET));
+      // Stream the body instead of letting the JDK buffer all of it in memory to compute the length
+      if (contentLength >= 0) {
+        httpUrlConnection.setFixedLengthStreamingMode(contentLength);
+      } else {
+        httpUrlConnection.setChunkedStreamingMode(MULTIPART_DEFAULT_BUFFER_SIZE);
+      }
 
-          write(binaryAttachment.getData(), outputStream, MULTIPART_DEFAULT_BUFFER_SIZE);
+      httpUrlConnection.connect();
+      outputStream = httpUrlConnection.getOutputStream();
 
-          outputStream.write((MULTIPART_CARRIAGE_RETURN_AND_NEWLINE + MULTIPART_TWO_HYPHENS + MULTIPART_BOUNDARY
-              + MULTIPART_TWO_HYPHENS + MULTIPART_CARRIAGE_RETURN_AND_NEWLINE).getBytes(StringUtils.ENCODING_CHARSET));
+      if (!binaryAttachments.isEmpty()) {
+        for (int i = 0; i < binaryAttachments.size(); i++) {
+          BinaryAttachment binaryAttachment = binaryAttachments.get(i);
+          outputStream.write(partHeaders.get(i));
+          writeData(binaryAttachment, outputStream);
+          outputStream.write(MULTIPART_FOOTER);
         }
       } else {
-        outputStream.write(parameters.getBytes(StringUtils.ENCODING_CHARSET));
+        outputStream.write(parameterBytes);
       }
 
       HTTP_LOGGER.debug("Response headers: {}", httpUrlConnection.getHeaderFields());
@@ -169,14 +190,106 @@ public class DefaultWebRequestor implements WebRequestor {
       return response;
     } finally {
       if (autocloseBinaryAttachmentStream && !binaryAttachments.isEmpty()) {
-        binaryAttachments.forEach(binaryAttachment -> closeQuietly(binaryAttachment.getData()));
+        binaryAttachments.stream().filter(binaryAttachment -> binaryAttachment.getFile() == null)
+          .forEach(binaryAttachment -> closeQuietly(binaryAttachment.getData()));
+      }
+
+      closeQuietly(outputStream);
+      closeQuietly(httpUrlConnection);
+    }
+  }
+
+  @Override
+  public Response executePost(String url, BodyWriter bodyWriter, String headerAccessToken) throws IOException {
+    HTTP_LOGGER.debug("Executing a POST to {} with parameters streamed in the request body", url);
+
+    HttpURLConnection httpUrlConnection = null;
+    OutputStream outputStream = null;
+
+    try {
+      httpUrlConnection = openPostConnection(url, headerAccessToken);
+      httpUrlConnection.setChunkedStreamingMode(MULTIPART_DEFAULT_BUFFER_SIZE);
+
+      httpUrlConnection.connect();
+      outputStream = httpUrlConnection.getOutputStream();
+      try {
+        bodyWriter.write(outputStream);
+      } catch (IOException | RuntimeException e) {
+        // closing the stream would send the final chunk and Facebook would process the truncated body, so drop the
+        // connection instead
+        outputStream = null;
+        httpUrlConnection.disconnect();
+        throw e;
       }
 
+      HTTP_LOGGER.debug("Response headers: {}", httpUrlConnection.getHeaderFields());
+
+      fillHeaderAndDebugInfo(httpUrlConnection);
+
+      Response response = fetchResponse(httpUrlConnection);
+
+      HTTP_LOGGER.debug("Facebook responded with {}", response);
+      return response;
+    } finally {
       closeQuietly(outputStream);
       closeQuietly(httpUrlConnection);
     }
   }
 
+  private HttpURLConnection openPostConnection(String url, String headerAccessToken) throws IOException {
+    HttpURLConnection httpUrlConnection = openConnection(new URL(url));
+    httpUrlConnection.setReadTimeout(DEFAULT_READ_TIMEOUT_IN_MS);
+    initAcceptEncoding(httpUrlConnection);
+
+    // Allow subclasses to customize the connection if they'd like to - set
+    // their own headers, timeouts, etc.
+    customizeConnection(httpUrlConnection);
+
+    httpUrlConnection.setRequestMethod(HttpMethod.POST.name());
+    httpUrlConnection.setDoOutput(true);
+    httpUrlConnection.setUseCaches(false);
+
+    initHeaderAccessToken(httpUrlConnection, headerAccessToken);
+    return httpUrlConnection;
+  }
+
+  private byte[] createMultipartHeader(BinaryAttachment binaryAttachment) {
+    StringBuilder stringBuilder = new StringBuilder();
+
+    stringBuilder.append(MULTIPART_TWO_HYPHENS).append(MULTIPART_BOUNDARY)
+      .append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE).append("Content-Disposition: form-data; name=\"")
+      .append(createFormFieldName(binaryAttachment)).append("\"; filename=\"")
+      .append(binaryAttachment.getFilename()).append("\"");
+
+    stringBuilder.append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE).append("Content-Type: ")
+      .append(binaryAttachment.getContentType());
+
+    stringBuilder.append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE).append(MULTIPART_CARRIAGE_RETURN_AND_NEWLINE);
+
+    return stringBuilder.toString().getBytes(StringUtils.ENCODING_CHARSET);
+  }
+
+  private void writeData(BinaryAttachment binaryAttachment, OutputStream outputStream) throws IOException {
+    Path file = binaryAttachment.getFile();
+    if (file == null) {
+      write(binaryAttachment.getData(), outputStream, MULTIPART_DEFAULT_BUFFER_SIZE);
+      return;
+    }
+
+    // Let the file channel move the data, so the file content never passes through a heap buffer of ours
+    try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+      WritableByteChannel target = Channels.newChannel(outputStream);
+      long position = binaryAttachment.getFilePosition();
+      long end = position + binaryAttachment.getContentLength();
+      while (position < end) {
+        if (position >= fileChannel.size()) {
+          throw new EOFException("Binary attachment file " + file + " ended before byte " + end);
+        }
+        position += fileChannel.transferTo(position, end - position, target);
+      }
+    }
+  }
+
   protected void initHeaderAccessToken(HttpURLConnection httpUrlConnection, String headerAccessToken) {
     if (headerAccessToken != null) {
       httpUrlConnection.setRequestProperty("Authorization", "Bearer " + headerAccessToken);
@@ -318,6 +431,9 @@ public class DefaultWebRequestor implements WebRequestor {
 
   /**
    * access to the current response headers
+   * <p>
+   * These are the headers of the latest response. If the requestor is shared between threads, use
+   * {@link Response#getHeaders()} instead.
    * 
    * @return the current reponse header map
    */
@@ -336,6 +452,11 @@ public class DefaultWebRequestor implements WebRequestor {
   }
 
   private Response execute(String url, HttpMethod httpMethod, String headerAccessToken) throws IOException {
+    return execute(url, httpMethod, headerAccessToken, null);
+  }
+
+  private Response execute(String url, HttpMethod httpMethod, String headerAccessToken, BodyHandler bodyHandler)
+      throws IOException {
     HTTP_LOGGER.debug("Making a {} request to {}", httpMethod.name(), url);
 
     HttpURLConnection httpUrlConnection = null;
@@ -347,6 +468,7 @@ public class DefaultWebRequestor implements WebRequestor {
       httpUrlConnection.setRequestMethod(httpMethod.name());
 
       initHeaderAccessToken(httpUrlConnection, headerAccessToken);
+      initAcceptEncoding(httpUrlConnection);
 
       // Allow subclasses to customize the connection if they'd like to - set
       // their own headers, timeouts, etc.
@@ -358,6 +480,17 @@ public class DefaultWebRequestor implements WebRequestor {
 
       fillHeaderAndDebugInfo(httpUrlConnection);
 
+      if (bodyHandler != null && httpUrlConnection.getResponseCode() == HttpURLConnection.HTTP_OK) {
+        CountingInputStream compressed = new CountingInputStream(httpUrlConnection.getInputStream());
+        CountingInputStream uncompressed = new CountingInputStream(decode(httpUrlConnection, compressed));
+        try (Reader body = new InputStreamReader(uncompressed, StandardCharsets.UTF_8)) {
+          bodyHandler.handle(body);
+        }
+        HTTP_LOGGER.debug("Facebook responded with HTTP status code 200, the body was streamed to the handler");
+        return new Response(HttpURLConnection.HTTP_OK, null, httpUrlConnection.getHeaderFields(),
+          createDebugHeaderInfo(httpUrlConnection), compressed.getCount(), uncompressed.getCount());
+      }
+
       Response response = fetchResponse(httpUrlConnection);
 
       HTTP_LOGGER.debug("Facebook responded with {}", response);
@@ -369,15 +502,25 @@ public class DefaultWebRequestor implements WebRequestor {
 
   protected void fillHeaderAndDebugInfo(HttpURLConnection httpUrlConnection) {
     currentHeaders = Collections.unmodifiableMap(httpUrlConnection.getHeaderFields());
+    debugHeaderInfo = createDebugHeaderInfo(httpUrlConnection);
+    HTTP_LOGGER.debug("Facebook used the API {} to answer your request", debugHeaderInfo.getUsedVersion());
+  }
 
+  /**
+   * Extracts the Facebook debug information from the response headers of the given connection.
+   *
+   * @param httpUrlConnection
+   *          the connection with an available response
+   * @return the debug information of the response
+   * @since 3.16.0
+   */
+  protected DebugHeaderInfo createDebugHeaderInfo(HttpURLConnection httpUrlConnection) {
     String usedApiVersion = StringUtils.trimToEmpty(httpUrlConnection.getHeaderField("facebook-api-version"));
-    HTTP_LOGGER.debug("Facebook used the API {} to answer your request", usedApiVersion);
-
     Version usedVersion = Version.getVersionFromString(usedApiVersion);
     DebugHeaderInfo.DebugHeaderInfoFactory factory = DebugHeaderInfo.DebugHeaderInfoFactory.create().setVersion(usedVersion);
 
     Arrays.stream(FbHeaderField.values()).forEach(f -> f.getPutHeader().accept(httpUrlConnection, factory));
-    debugHeaderInfo = factory.build();
+    return factory.build();
   }
 
   protected Response fetchResponse(HttpURLConnection httpUrlConnection) throws IOException {
@@ -391,7 +534,136 @@ public class DefaultWebRequestor implements WebRequestor {
         httpUrlConnection.getURL(), e);
     }
 
-    return new Response(httpUrlConnection.getResponseCode(), StringUtils.fromInputStream(inputStream));
+    if (inputStream == null) {
+      return new Response(httpUrlConnection.getResponseCode(), null, httpUrlConnection.getHeaderFields(),
+        createDebugHeaderInfo(httpUrlConnection));
+    }
+
+    CountingInputStream compressed = new CountingInputStream(inputStream);
+    byte[] body = readFully(decode(httpUrlConnection, compressed));
+    // the body is kept as bytes, so the client can parse it without decoding it to a String first
+    return Response.fromRawBody(httpUrlConnection.getResponseCode(), body, httpUrlConnection.getHeaderFields(),
+      createDebugHeaderInfo(httpUrlConnection), compressed.getCount());
+  }
+
+  private static byte[] readFully(InputStream inputStream) throws IOException {
+    try (InputStream in = inputStream) {
+      ByteArrayOutputStream body = new ByteArrayOutputStream(MULTIPART_DEFAULT_BUFFER_SIZE);
+      byte[] buffer = new byte[MULTIPART_DEFAULT_BUFFER_SIZE];
+      int count;
+      while ((count = in.read(buffer)) != -1) {
+        body.write(buffer, 0, count);
+      }
+      return body.toByteArray();
+    }
+  }
+
+  /**
+   * Advertises the content encodings this requestor can decode, if compression is enabled.
+   *
+   * @param httpUrlConnection
+   *          the connection to configure
+   */
+  protected void initAcceptEncoding(HttpURLConnection httpUrlConnection) {
+    if (compressionEnabled) {
+      httpUrlConnection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+    }
+  }
+
+  /**
+   * Wraps the raw response stream in a decoder matching the {@code Content-Encoding} of the response.
+   *
+   * @param httpUrlConnection
+   *          the connection with an available response
+   * @param inputStream
+   *          the raw response body
+   * @return the decoded response body
+   * @throws IOException
+   *           if the compressed stream is corrupt
+   */
+  protected InputStream decode(HttpURLConnection httpUrlConnection, InputStream inputStream) throws IOException {
+    String contentEncoding = StringUtils.trimToEmpty(httpUrlConnection.getContentEncoding());
+    if ("gzip".equalsIgnoreCase(contentEncoding) || "x-gzip".equalsIgnoreCase(contentEncoding)) {
+      PushbackInputStream pushbackInputStream = new PushbackInputStream(inputStream);
+      int firstByte = pushbackInputStream.read();
+      if (firstByte == -1) {
+        // empty body, nothing to decode
+        return pushbackInputStream;
+      }
+      pushbackInputStream.unread(firstByte);
+      return new GZIPInputStream(pushbackInputStream, MULTIPART_DEFAULT_BUFFER_SIZE);
+    }
+    if ("deflate".equalsIgnoreCase(contentEncoding)) {
+      return new InflaterInputStream(inputStream);
+    }
+    return inputStream;
+  }
+
+  /**
+   * returns if compressed responses are requested
+   *
+   * @since 3.16.0
+   * @return {@code true} if gzip and deflate encoded responses are requested and decoded (default)
+   */
+  public boolean isCompressionEnabled() {
+    return compressionEnabled;
+  }
+
+  /**
+   * define if compressed responses are requested with an {@code Accept-Encoding} header
+   *
+   * @since 3.16.0
+   * @param compressionEnabled
+   *          {@code true} to request gzip or deflate encoded responses, {@code false} for uncompressed responses
+   */
+  public void setCompressionEnabled(boolean compressionEnabled) {
+    this.compressionEnabled = compressionEnabled;
+  }
+
+  /**
+   * {@link FilterInputStream} counting the bytes read through it.
+   */
+  private static final class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    private CountingInputStream(InputStream inputStream) {
+      super(inputStream);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int result = super.read();
+      if (result != -1) {
+        count++;
+      }
+      return result;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int result = super.read(buffer, offset, length);
+      if (result > 0) {
+        count += result;
+      }
+      return result;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long result = super.skip(n);
+      count += result;
+      return result;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    long getCount() {
+      return count;
+    }
   }
 
   private enum FbHeaderField {
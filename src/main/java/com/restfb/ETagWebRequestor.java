@@ -21,9 +21,12 @@
  */
 package com.restfb;
 
+import static com.restfb.util.StringUtils.isBlank;
 import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.net.HttpURLConnection.HTTP_OK;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.util.Collections;
 import java.util.Map;
@@ -66,8 +69,27 @@ public class ETagWebRequestor extends DefaultWebRequestor {
   private final ThreadLocal<ETagResponse> currentETagRespThreadLocal = new ThreadLocal<>();
   private volatile boolean useCache = true;
 
+  /**
+   * The body is not streamed to the handler, it has to be read completely to cache it. A cached body of a 304 response
+   * is handed to the handler as well.
+   */
+  @Override
+  public Response executeGet(String url, String headerAccessToken, BodyHandler bodyHandler) throws IOException {
+    Response response = executeGet(url, headerAccessToken);
+    Integer statusCode = response.getStatusCode();
+    if (statusCode == null || (statusCode != HTTP_OK && statusCode != HTTP_NOT_MODIFIED)
+        || isBlank(response.getBody())) {
+      return response;
+    }
+    bodyHandler.handle(new StringReader(response.getBody()));
+    return new Response(statusCode, null, response.getHeaders(), response.getDebugHeaderInfo(),
+      response.getCompressedLength(), response.getUncompressedLength());
+  }
+
   @Override
   protected void customizeConnection(HttpURLConnection connection) {
+    // a request failing before its response was fetched must not leave its cached response behind
+    currentETagRespThreadLocal.remove();
     if (isUseCache() && connection.getRequestMethod().equals(HttpMethod.GET.name())) {
       ETagResponse resp = etagCache.get(connection.getURL().toString());
       if (resp != null) {
@@ -83,7 +105,8 @@ public class ETagWebRequestor extends DefaultWebRequestor {
       if (httpUrlConnection.getRequestMethod().equals(HttpMethod.GET.name())) {
         if (httpUrlConnection.getResponseCode() == HTTP_NOT_MODIFIED && currentETagRespThreadLocal.get() != null) {
           ETagResponse etagResp = currentETagRespThreadLocal.get();
-          return new Response(httpUrlConnection.getResponseCode(), etagResp.getBody());
+          return new Response(httpUrlConnection.getResponseCode(), etagResp.getBody(),
+            httpUrlConnection.getHeaderFields(), createDebugHeaderInfo(httpUrlConnection));
         } else {
           Response resp = super.fetchResponse(httpUrlConnection);
           if (httpUrlConnection.getHeaderField("ETag") != null) {
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import com.restfb.batch.BatchRequest;
+import com.restfb.batch.BatchResponse;
+
+/**
+ * Executor-backed variant of the most common {@link FacebookClient} operations, returning a
+ * {@link CompletableFuture} instead of blocking the caller.
+ * <p>
+ * Every call is executed by the wrapped {@code FacebookClient} on the given {@link Executor}, so it shares the
+ * client's {@link JsonMapper}, {@link WebRequestor} and exception handling. The returned {@link CompletableFuture}
+ * completes with the mapped result, or exceptionally with the same {@link com.restfb.exception.FacebookException} the
+ * blocking call would have thrown.
+ * <p>
+ * This is not non-blocking I/O: the underlying {@code WebRequestor} performs blocking I/O, so every call in flight
+ * occupies one executor thread for its whole round trip, and the executor's size caps the number of concurrent calls.
+ * Use a {@code WebRequestor} that is safe to share between threads, like the {@link DefaultWebRequestor} or
+ * {@link KeepAliveWebRequestor}.
+ *
+ * @since 3.16.0
+ */
+public class ExecutorBackedFacebookClient {
+
+  private final FacebookClient facebookClient;
+
+  private final Executor executor;
+
+  /**
+   * Creates an executor-backed client.
+   *
+   * @param facebookClient
+   *          the client performing the API calls
+   * @param executor
+   *          the executor the API calls run on
+   */
+  public ExecutorBackedFacebookClient(FacebookClient facebookClient, Executor executor) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    verifyParameterPresence("executor", executor);
+    this.facebookClient = facebookClient;
+    this.executor = executor;
+  }
+
+  /**
+   * @see FacebookClient#fetchObject(String, Class, Parameter...)
+   */
+  public <T> CompletableFuture<T> fetchObject(String object, Class<T> objectType, Parameter... parameters) {
+    return supply(() -> facebookClient.fetchObject(object, objectType, parameters));
+  }
+
+  /**
+   * @see FacebookClient#fetchObjects(List, Class, Parameter...)
+   */
+  public <T> CompletableFuture<T> fetchObjects(List<String> ids, Class<T> objectType, Parameter... parameters) {
+    return supply(() -> facebookClient.fetchObjects(ids, objectType, parameters));
+  }
+
+  /**
+   * @see FacebookClient#fetchConnection(String, Class, Parameter...)
+   */
+  public <T> CompletableFuture<Connection<T>> fetchConnection(String connection, Class<T> connectionType,
+      Parameter... parameters) {
+    return supply(() -> facebookClient.fetchConnection(connection, connectionType, parameters));
+  }
+
+  /**
+   * @see FacebookClient#fetchConnectionPage(String, Class)
+   */
+  public <T> CompletableFuture<Connection<T>> fetchConnectionPage(String connectionPageUrl, Class<T> connectionType) {
+    return supply(() -> facebookClient.fetchConnectionPage(connectionPageUrl, connectionType));
+  }
+
+  /**
+   * @see FacebookClient#executeBatch(List)
+   */
+  public CompletableFuture<List<BatchResponse>> executeBatch(List<BatchRequest> batchRequests) {
+    return supply(() -> facebookClient.executeBatch(batchRequests));
+  }
+
+  /**
+   * @see FacebookClient#executeBatch(List, List)
+   */
+  public CompletableFuture<List<BatchResponse>> executeBatch(List<BatchRequest> batchRequests,
+      List<BinaryAttachment> binaryAttachments) {
+    return supply(() -> facebookClient.executeBatch(batchRequests, binaryAttachments));
+  }
+
+  /**
+   * @see FacebookClient#publish(String, Class, Parameter...)
+   */
+  public <T> CompletableFuture<T> publish(String connection, Class<T> objectType, Parameter... parameters) {
+    return supply(() -> facebookClient.publish(connection, objectType, parameters));
+  }
+
+  /**
+   * @see FacebookClient#publish(String, Class, List, Parameter...)
+   */
+  public <T> CompletableFuture<T> publish(String connection, Class<T> objectType,
+      List<BinaryAttachment> binaryAttachments, Parameter... parameters) {
+    return supply(() -> facebookClient.publish(connection, objectType, binaryAttachments, parameters));
+  }
+
+  /**
+   * @see FacebookClient#deleteObject(String, Parameter...)
+   */
+  public CompletableFuture<Boolean> deleteObject(String object, Parameter... parameters) {
+    return supply(() -> facebookClient.deleteObject(object, parameters));
+  }
+
+  /**
+   * Returns the blocking client performing the API calls.
+   *
+   * @return the wrapped client
+   */
+  public FacebookClient getFacebookClient() {
+    return facebookClient;
+  }
+
+  private <T> CompletableFuture<T> supply(Supplier<T> call) {
+    return CompletableFuture.supplyAsync(call, executor);
+  }
+}
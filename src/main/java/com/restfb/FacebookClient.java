@@ -26,6 +26,7 @@ import static java.lang.String.format;
 import static java.util.Collections.unmodifiableList;
 
 import java.util.*;
+import java.util.function.Consumer;
 
 import com.restfb.batch.BatchRequest;
 import com.restfb.batch.BatchResponse;
@@ -162,6 +163,67 @@ public interface FacebookClient {
    */
   <T> Connection<T> fetchConnectionPage(String connectionPageUrl, Class<T> connectionType);
 
+  /**
+   * Fetches a Graph API {@code Connection} type and decodes the response while it is read from the network, handing
+   * every element of the {@code data} array to {@code itemConsumer} as soon as it is mapped.
+   * <p>
+   * Unlike {@link #fetchConnection(String, Class, Parameter...)} the page is never held in memory as a whole, which
+   * keeps the footprint low for large pages. The returned connection carries the paging and summary information of
+   * the page, but its {@link Connection#getData() data} is empty.
+   * <p>
+   * The default implementation fetches the whole page with {@link #fetchConnection(String, Class, Parameter...)} and
+   * hands its data to {@code itemConsumer}, so the returned connection still contains the data.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param connection
+   *          The name of the connection, e.g. {@code "me/feed"}.
+   * @param connectionType
+   *          Connection type token.
+   * @param itemConsumer
+   *          Receives the mapped elements of the page in order.
+   * @param parameters
+   *          URL parameters to include in the API call (optional).
+   * @return The connection's paging and summary information, without data.
+   * @throws FacebookException
+   *           If an error occurs while performing the API call.
+   * @since 3.16.0
+   */
+  default <T> Connection<T> streamConnection(String connection, Class<T> connectionType,
+      Consumer<? super T> itemConsumer, Parameter... parameters) {
+    Connection<T> page = fetchConnection(connection, connectionType, parameters);
+    page.getData().forEach(itemConsumer);
+    return page;
+  }
+
+  /**
+   * Fetches a previous/next page of a Graph API {@code Connection} type and streams its elements to
+   * {@code itemConsumer}, see {@link #streamConnection(String, Class, Consumer, Parameter...)}.
+   * <p>
+   * The default implementation fetches the whole page with {@link #fetchConnectionPage(String, Class)} and hands its
+   * data to {@code itemConsumer}.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param connectionPageUrl
+   *          The URL of the connection page to fetch, usually retrieved via {@link Connection#getPreviousPageUrl()} or
+   *          {@link Connection#getNextPageUrl()}.
+   * @param connectionType
+   *          Connection type token.
+   * @param itemConsumer
+   *          Receives the mapped elements of the page in order.
+   * @return The connection's paging and summary information, without data.
+   * @throws FacebookException
+   *           If an error occurs while performing the API call.
+   * @since 3.16.0
+   */
+  default <T> Connection<T> streamConnectionPage(String connectionPageUrl, Class<T> connectionType,
+      Consumer<? super T> itemConsumer) {
+    Connection<T> page = fetchConnectionPage(connectionPageUrl, connectionType);
+    page.getData().forEach(itemConsumer);
+    return page;
+  }
+
   /**
    * Executes operations as a batch using the <a href="https://developers.facebook.com/docs/reference/api/batch/">Batch
    * API</a>.
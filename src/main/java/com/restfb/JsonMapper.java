@@ -24,11 +24,15 @@ package com.restfb;
 import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import com.restfb.exception.FacebookJsonMappingException;
+import com.restfb.json.JsonValue;
 
 /**
  * Specifies how a Facebook JSON-to-Java (and vice-versa) mapper must operate.
@@ -76,6 +80,72 @@ public interface JsonMapper {
    */
   <T> List<T> toJavaList(String json, Class<T> type);
 
+  /**
+   * Given an already parsed JSON value, create and return a new instance of a corresponding Java object of type
+   * {@code type}.
+   * <p>
+   * This method is used to map nested values and connection data without serializing them to a string and parsing
+   * them again. The default implementation falls back to {@link #toJavaObject(String, Class)}.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param json
+   *          The parsed JSON to be mapped to a Java type.
+   * @param type
+   *          Java type token.
+   * @return A Java object (of type {@code type}) representation of the JSON input.
+   * @throws FacebookJsonMappingException
+   *           If an error occurs while mapping JSON to Java.
+   * @since 3.16.0
+   */
+  default <T> T toJavaObject(JsonValue json, Class<T> type) {
+    return toJavaObject(json.toString(), type);
+  }
+
+  /**
+   * Given a JSON response body as UTF-8 bytes, create and return a new instance of a corresponding Java object of type
+   * {@code type}.
+   * <p>
+   * This method is used to map response bodies without decoding them to a string first. The default implementation
+   * falls back to {@link #toJavaObject(String, Class)}.
+   *
+   * @param <T>
+   *          Java type to map to.
+   * @param json
+   *          The UTF-8 encoded JSON to be mapped to a Java type.
+   * @param type
+   *          Java type token.
+   * @return A Java object (of type {@code type}) representation of the JSON input.
+   * @throws FacebookJsonMappingException
+   *           If an error occurs while mapping JSON to Java.
+   * @since 3.16.0
+   */
+  default <T> T toJavaObject(byte[] json, Class<T> type) {
+    return toJavaObject(new String(json, StandardCharsets.UTF_8), type);
+  }
+
+  /**
+   * Given an already parsed JSON value, create and return a new instance of a corresponding Java
+   * {@link java.util.List} which contains elements of type {@code type}.
+   * <p>
+   * The default implementation falls back to {@link #toJavaList(String, Class)}.
+   *
+   * @param <T>
+   *          Java type to map to for each element of the list.
+   * @param json
+   *          The parsed JSON to be mapped to a Java type.
+   * @param type
+   *          Java type token.
+   * @return A Java object (of type {@code List} which contains elements of type {@code type}) representation of the
+   *         JSON input.
+   * @throws FacebookJsonMappingException
+   *           If an error occurs while mapping JSON to Java.
+   * @since 3.16.0
+   */
+  default <T> List<T> toJavaList(JsonValue json, Class<T> type) {
+    return toJavaList(json.toString(), type);
+  }
+
   /**
    * Given a Java {@code object}, create and return a JSON string that represents it.
    * <p>
@@ -106,6 +176,28 @@ public interface JsonMapper {
    */
   String toJson(Object object, boolean ignoreNullValuedProperties);
 
+  /**
+   * Given a Java {@code object}, write the JSON string that represents it to the given {@code writer}.
+   * <p>
+   * This produces the same output as {@link #toJson(Object, boolean)}. Implementations should write large objects
+   * directly to the writer, the default implementation writes the result of {@link #toJson(Object, boolean)}.
+   *
+   * @param object
+   *          The Java object to map to JSON. Can be a Javabean, {@link java.util.List}, or {@link java.util.Map}.
+   * @param ignoreNullValuedProperties
+   *          If {@code true}, no Javabean properties with {@code null} values will be included in the generated JSON.
+   * @param writer
+   *          The writer to write the JSON string to, it is neither flushed nor closed.
+   * @throws IOException
+   *           If an error occurs while writing to {@code writer}.
+   * @throws FacebookJsonMappingException
+   *           If an error occurs while mapping Java to JSON.
+   * @since 3.16.0
+   */
+  default void toJson(Object object, boolean ignoreNullValuedProperties, Writer writer) throws IOException {
+    writer.write(toJson(object, ignoreNullValuedProperties));
+  }
+
   /**
    * adds a {@link FacebookClient} implementation to the mapper.
    *
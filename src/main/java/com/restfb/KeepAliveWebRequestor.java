@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.HTTP_LOGGER;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+
+/**
+ * {@link WebRequestor} that keeps the connections to the Graph API open between requests.
+ * <p>
+ * {@link DefaultWebRequestor} disconnects every {@code HttpURLConnection} after the response is read, which closes
+ * the underlying socket and forces a new TCP and TLS handshake for the next request. This implementation only closes
+ * the fully consumed response streams, so the JDK returns the socket to its shared keep-alive cache and the next
+ * request to the same host reuses it. A response body that was not read completely, for example after an exception, is
+ * drained first; connections without a response or with too much unread data are disconnected.
+ * <p>
+ * The keep-alive cache is configured JVM-wide with the standard networking properties, most notably
+ * {@code http.maxConnections} (idle connections kept per host, default 5) and {@code http.keepAlive}.
+ *
+ * @since 3.16.0
+ */
+public class KeepAliveWebRequestor extends DefaultWebRequestor {
+
+  /**
+   * By default, how long should we wait for a connection to be established (in ms)?
+   */
+  private static final int DEFAULT_CONNECT_TIMEOUT_IN_MS = 10000;
+
+  /**
+   * By default, how long should we wait for a response (in ms)?
+   */
+  private static final int DEFAULT_READ_TIMEOUT_IN_MS = 180000;
+
+  /**
+   * How many unread bytes of a response body are drained to keep the connection, larger remainders disconnect it.
+   */
+  private static final int MAX_DRAINED_BYTES = 64 * 1024;
+
+  /**
+   * The connection of the current thread that received a response, only those can be kept alive.
+   */
+  private final ThreadLocal<HttpURLConnection> answeredConnection = new ThreadLocal<>();
+
+  private final int connectTimeoutInMs;
+
+  private final int readTimeoutInMs;
+
+  /**
+   * Creates a web requestor with a connect timeout of 10 seconds and a read timeout of 3 minutes.
+   */
+  public KeepAliveWebRequestor() {
+    this(DEFAULT_CONNECT_TIMEOUT_IN_MS, DEFAULT_READ_TIMEOUT_IN_MS);
+  }
+
+  /**
+   * Creates a web requestor with the given timeouts.
+   *
+   * @param connectTimeoutInMs
+   *          timeout for establishing a new connection in milliseconds, {@code 0} waits forever
+   * @param readTimeoutInMs
+   *          timeout for reading the response in milliseconds, {@code 0} waits forever
+   */
+  public KeepAliveWebRequestor(int connectTimeoutInMs, int readTimeoutInMs) {
+    if (connectTimeoutInMs < 0 || readTimeoutInMs < 0) {
+      throw new IllegalArgumentException("Timeouts must not be negative.");
+    }
+    this.connectTimeoutInMs = connectTimeoutInMs;
+    this.readTimeoutInMs = readTimeoutInMs;
+  }
+
+  @Override
+  protected void customizeConnection(HttpURLConnection connection) {
+    connection.setConnectTimeout(connectTimeoutInMs);
+    connection.setReadTimeout(readTimeoutInMs);
+  }
+
+  @Override
+  protected void fillHeaderAndDebugInfo(HttpURLConnection httpUrlConnection) {
+    super.fillHeaderAndDebugInfo(httpUrlConnection);
+    answeredConnection.set(httpUrlConnection);
+  }
+
+  /**
+   * Leaves the connection open, so the socket can be reused by the next request.
+   * <p>
+   * The rest of the response body is drained and the stream closed, which hands the socket back to the JDK keep-alive
+   * cache. A connection that got no response or still has more than 64 KB of unread body is disconnected instead.
+   *
+   * @param httpUrlConnection
+   *          The connection to release.
+   */
+  @Override
+  protected void closeQuietly(HttpURLConnection httpUrlConnection) {
+    if (httpUrlConnection == null) {
+      return;
+    }
+
+    boolean answered = answeredConnection.get() == httpUrlConnection;
+    answeredConnection.remove();
+
+    if (!answered || !drain(httpUrlConnection)) {
+      super.closeQuietly(httpUrlConnection);
+    }
+  }
+
+  /**
+   * Reads the unread rest of the response body and closes the response stream.
+   *
+   * @param httpUrlConnection
+   *          The connection with a response.
+   * @return {@code true} if the body was consumed and the socket can be reused, {@code false} otherwise.
+   */
+  private boolean drain(HttpURLConnection httpUrlConnection) {
+    InputStream body;
+    try {
+      body = httpUrlConnection.getResponseCode() >= HttpURLConnection.HTTP_BAD_REQUEST
+          ? httpUrlConnection.getErrorStream() : httpUrlConnection.getInputStream();
+    } catch (IOException e) {
+      HTTP_LOGGER.debug("No response stream to drain for {}", httpUrlConnection.getURL(), e);
+      return false;
+    }
+
+    if (body == null) {
+      return true;
+    }
+
+    try (InputStream in = body) {
+      byte[] buffer = new byte[8192];
+      long drained = 0;
+      int count;
+      while ((count = in.read(buffer)) != -1) {
+        drained += count;
+        if (drained > MAX_DRAINED_BYTES) {
+          return false;
+        }
+      }
+    } catch (IOException e) {
+      // the stream was already closed, the JDK released or closed the socket when that happened
+      HTTP_LOGGER.trace("Response stream of {} is already closed", httpUrlConnection.getURL(), e);
+    }
+    return true;
+  }
+
+  public int getConnectTimeoutInMs() {
+    return connectTimeoutInMs;
+  }
+
+  public int getReadTimeoutInMs() {
+    return readTimeoutInMs;
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.restfb.json.JsonObject;
+import com.restfb.types.FacebookType;
+
+/**
+ * Fetches a time bounded connection, like a feed or insights, as several time slices paginated concurrently.
+ * <p>
+ * The range between {@code since} and {@code until} is split into equally long slices. Every slice is requested with
+ * its own {@code since}/{@code until} parameters and paginated through its own {@link Connection} on the given
+ * {@link Executor}. Items are deduplicated by their id ({@link FacebookType#getId()} or the {@code id} field of a
+ * {@link JsonObject}), because Facebook may return an item sitting on a slice boundary in both slices.
+ *
+ * <pre>
+ * PartitionedConnectionFetcher fetcher = new PartitionedConnectionFetcher(facebookClient, executor);
+ * List&lt;Post&gt; posts = fetcher.fetch("me/feed", Post.class, since, until, 8, Parameter.with("limit", 100));
+ * </pre>
+ *
+ * @since 3.16.0
+ */
+public class PartitionedConnectionFetcher {
+
+  private static final String SINCE = "since";
+
+  private static final String UNTIL = "until";
+
+  private final FacebookClient facebookClient;
+
+  private final Executor executor;
+
+  /**
+   * Creates a fetcher.
+   *
+   * @param facebookClient
+   *          the client fetching the connection pages
+   * @param executor
+   *          the executor the slices are paginated on, it bounds the number of concurrent requests
+   */
+  public PartitionedConnectionFetcher(FacebookClient facebookClient, Executor executor) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    verifyParameterPresence("executor", executor);
+    this.facebookClient = facebookClient;
+    this.executor = executor;
+  }
+
+  /**
+   * Fetches all items of the connection between {@code since} and {@code until}, in the connection's order.
+   * <p>
+   * The slices are returned from the newest to the oldest, the reverse chronological order the Graph API uses for
+   * feeds.
+   *
+   * @param connection
+   *          the connection, e.g. {@code "me/feed"}
+   * @param connectionType
+   *          connection type token
+   * @param since
+   *          start of the time range
+   * @param until
+   *          end of the time range
+   * @param partitions
+   *          number of slices
+   * @param parameters
+   *          additional parameters, {@code since} and {@code until} are set by the fetcher
+   * @param <T>
+   *          the Facebook type
+   * @return the items of all slices without duplicates
+   */
+  public <T> List<T> fetch(String connection, Class<T> connectionType, Date since, Date until, int partitions,
+      Parameter... parameters) {
+    Set<String> seenIds = new HashSet<>();
+    List<T> items = new ArrayList<>();
+    List<CompletableFuture<List<T>>> slices = fetchSlices(connection, connectionType, since, until, partitions,
+      parameters, slice -> {
+        List<T> sliceItems = new ArrayList<>();
+        slice.forEach(sliceItems::addAll);
+        return sliceItems;
+      });
+
+    for (int i = slices.size() - 1; i >= 0; i--) {
+      for (T item : await(slices.get(i))) {
+        String id = extractId(item);
+        if (id == null || seenIds.add(id)) {
+          items.add(item);
+        }
+      }
+    }
+    return items;
+  }
+
+  /**
+   * Fetches all items of the connection between {@code since} and {@code until}, handing every item to the consumer as
+   * soon as its page arrives.
+   * <p>
+   * The items of different slices are interleaved. The consumer is never called concurrently.
+   *
+   * @param connection
+   *          the connection, e.g. {@code "me/feed"}
+   * @param connectionType
+   *          connection type token
+   * @param since
+   *          start of the time range
+   * @param until
+   *          end of the time range
+   * @param partitions
+   *          number of slices
+   * @param itemConsumer
+   *          receives the items without duplicates
+   * @param parameters
+   *          additional parameters, {@code since} and {@code until} are set by the fetcher
+   * @param <T>
+   *          the Facebook type
+   */
+  public <T> void fetch(String connection, Class<T> connectionType, Date since, Date until, int partitions,
+      Consumer<? super T> itemConsumer, Parameter... parameters) {
+    verifyParameterPresence("itemConsumer", itemConsumer);
+    Set<String> seenIds = ConcurrentHashMap.newKeySet();
+    List<CompletableFuture<Void>> slices =
+        fetchSlices(connection, connectionType, since, until, partitions, parameters, slice -> {
+          for (List<T> page : slice) {
+            synchronized (itemConsumer) {
+              page.stream().filter(item -> {
+                String id = extractId(item);
+                return id == null || seenIds.add(id);
+              }).forEach(itemConsumer);
+            }
+          }
+          return null;
+        });
+
+    slices.forEach(this::await);
+  }
+
+  private <T, R> List<CompletableFuture<R>> fetchSlices(String connection, Class<T> connectionType, Date since,
+      Date until, int partitions, Parameter[] parameters, Function<Connection<T>, R> sliceHandler) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("connectionType", connectionType);
+    verifyParameterPresence("since", since);
+    verifyParameterPresence("until", until);
+    if (partitions < 1) {
+      throw new IllegalArgumentException("partitions must be at least 1");
+    }
+
+    long start = since.getTime() / 1000;
+    long end = until.getTime() / 1000;
+    if (end <= start) {
+      throw new IllegalArgumentException("until must be after since");
+    }
+
+    long sliceCount = Math.min(partitions, end - start);
+    List<Parameter> baseParameters = Stream.of(parameters)
+      .filter(p -> !SINCE.equals(p.name) && !UNTIL.equals(p.name)).collect(Collectors.toList());
+
+    CLIENT_LOGGER.debug("Fetching {} between {} and {} in {} slices", connection, start, end, sliceCount);
+    List<CompletableFuture<R>> slices = new ArrayList<>();
+    for (long i = 0; i < sliceCount; i++) {
+      List<Parameter> sliceParameters = new ArrayList<>(baseParameters);
+      sliceParameters.add(Parameter.with(SINCE, start + (end - start) * i / sliceCount));
+      sliceParameters.add(Parameter.with(UNTIL, start + (end - start) * (i + 1) / sliceCount));
+      Parameter[] sliceParameterArray = sliceParameters.toArray(new Parameter[0]);
+      slices.add(CompletableFuture.supplyAsync(
+        () -> sliceHandler.apply(facebookClient.fetchConnection(connection, connectionType, sliceParameterArray)),
+        executor));
+    }
+    return slices;
+  }
+
+  /**
+   * Returns the id used to detect items fetched by two slices.
+   *
+   * @param item
+   *          the item
+   * @return the item's id, or {@code null} if the item cannot be deduplicated
+   */
+  protected String extractId(Object item) {
+    if (item instanceof FacebookType) {
+      return ((FacebookType) item).getId();
+    }
+    if (item instanceof JsonObject) {
+      return ((JsonObject) item).getString("id", null);
+    }
+    return null;
+  }
+
+  private <R> R await(CompletableFuture<R> slice) {
+    try {
+      return slice.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Iterator over connection pages that fetches the following pages in the background.
+ * <p>
+ * While the caller processes a page, up to {@code prefetchDepth} following pages are requested on the given
+ * {@link Executor}. Because every page URL is taken from the previous page, the pages are still fetched one after the
+ * other, but no longer in turns with the processing. At most {@code prefetchDepth} pages are held ahead of the caller.
+ * <p>
+ * Closing the iterator stops fetching further pages, so an iteration that ends early should close it:
+ *
+ * <pre>
+ * try (PrefetchingConnectionIterator&lt;Post&gt; pages = feed.prefetchingIterator(executor, 2)) {
+ *   while (pages.hasNext()) {
+ *     process(pages.next());
+ *   }
+ * }
+ * </pre>
+ *
+ * @param <T>
+ *          The Facebook type
+ * @since 3.16.0
+ */
+public class PrefetchingConnectionIterator<T> implements ConnectionIterator<T>, AutoCloseable {
+
+  private final Executor executor;
+
+  private final int prefetchDepth;
+
+  private final Deque<CompletableFuture<Connection<T>>> prefetchedPages = new ArrayDeque<>();
+
+  private Connection<T> connection;
+
+  private boolean initialPage = true;
+
+  private volatile boolean closed;
+
+  /**
+   * Creates a new iterator over the given {@code connection}.
+   *
+   * @param connection
+   *          The connection over which to iterate.
+   * @param executor
+   *          The executor the following pages are fetched on.
+   * @param prefetchDepth
+   *          How many pages are fetched ahead of the caller, at least 1.
+   */
+  protected PrefetchingConnectionIterator(Connection<T> connection, Executor executor, int prefetchDepth) {
+    verifyParameterPresence("connection", connection);
+    verifyParameterPresence("executor", executor);
+    if (prefetchDepth < 1) {
+      throw new IllegalArgumentException("prefetchDepth must be at least 1");
+    }
+    this.connection = connection;
+    this.executor = executor;
+    this.prefetchDepth = prefetchDepth;
+  }
+
+  /**
+   * @see java.util.Iterator#hasNext()
+   */
+  @Override
+  public boolean hasNext() {
+    // Special case: initial page will always have data
+    return !closed && (initialPage || connection.hasNext());
+  }
+
+  /**
+   * @see java.util.Iterator#next()
+   */
+  @Override
+  public List<T> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("There are no more pages in the connection.");
+    }
+
+    if (initialPage) {
+      initialPage = false;
+    } else {
+      connection = await(prefetchedPages.poll());
+    }
+
+    prefetch();
+    return connection.getData();
+  }
+
+  /**
+   * @see java.util.Iterator#remove()
+   */
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException(
+      PrefetchingConnectionIterator.class.getSimpleName() + " doesn't support the remove() operation.");
+  }
+
+  /**
+   * @see ConnectionIterator#snapshot()
+   */
+  @Override
+  public Connection<T> snapshot() {
+    return connection;
+  }
+
+  /**
+   * Stops fetching pages, pages already requested are discarded.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    prefetchedPages.forEach(page -> page.cancel(true));
+    prefetchedPages.clear();
+  }
+
+  private void prefetch() {
+    while (prefetchedPages.size() < prefetchDepth) {
+      CompletableFuture<Connection<T>> previous = prefetchedPages.isEmpty()
+          ? CompletableFuture.completedFuture(connection) : prefetchedPages.peekLast();
+      prefetchedPages.add(previous.thenApplyAsync(page -> {
+        // null marks the end of the connection, or a closed iterator
+        if (closed || page == null || !page.hasNext()) {
+          return null;
+        }
+        return page.fetchNextPage();
+      }, executor));
+    }
+  }
+
+  private Connection<T> await(CompletableFuture<Connection<T>> page) {
+    try {
+      Connection<T> nextPage = page.join();
+      if (nextPage == null) {
+        throw new NoSuchElementException("There are no more pages in the connection.");
+      }
+      return nextPage;
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    } catch (CancellationException e) {
+      throw new NoSuchElementException("The iterator has been closed.");
+    }
+  }
+}
@@ -0,0 +1,516 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.HTTP_LOGGER;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import com.restfb.DebugHeaderInfo.BusinessUseCaseUsage;
+import com.restfb.DebugHeaderInfo.HeaderUsage;
+import com.restfb.DebugHeaderInfo.InnerBusinessUseCaseUsage;
+import com.restfb.json.Json;
+import com.restfb.json.JsonValue;
+import com.restfb.json.ParseException;
+
+/**
+ * {@link WebRequestor} decorator that paces requests according to the rate limit usage Facebook reports in the
+ * {@code x-app-usage}, {@code x-page-usage}, {@code x-ad-account-usage} and {@code x-business-use-case-usage}
+ * headers.
+ * <p>
+ * Every response updates a {@link UsageBudget} per app, page, ad account and business. The page and ad account a usage
+ * header refers to are taken from the request URL: the node the request is made for (e.g. {@code 12345} in
+ * {@code /v10.0/12345/feed}) and its {@code act_} path segment. Before a request is sent, the budgets that apply to it
+ * are checked, so a throttled page or ad account only delays requests for that page or ad account:
+ * <ul>
+ * <li>below the pace threshold the request is sent immediately</li>
+ * <li>between the pace threshold and 100% the request is delayed, linearly growing up to the maximum pace delay</li>
+ * <li>at 100% or while Facebook reports an estimated time to regain access, the request waits until the budget is
+ * expected to be available again</li>
+ * </ul>
+ * Throttling errors exhaust the matching budget as well: code 4 the app budget, code 32 the page budget, codes 17 and
+ * 613 the ad account budget or, without an ad account in the URL, the app budget. No single wait is longer than the
+ * configured maximum delay, so a request is never blocked indefinitely.
+ *
+ * @since 3.16.0
+ */
+public class ThrottlingWebRequestor implements WebRequestor {
+
+  /**
+   * Key of the budget reported by {@code x-app-usage}.
+   */
+  public static final String APP_BUDGET = "app";
+
+  /**
+   * Prefix of the budgets reported per page (node) id by {@code x-page-usage}.
+   */
+  public static final String PAGE_BUDGET_PREFIX = "page:";
+
+  /**
+   * Prefix of the budgets reported per ad account id (without {@code act_}) by {@code x-ad-account-usage}.
+   */
+  public static final String AD_ACCOUNT_BUDGET_PREFIX = "ad_account:";
+
+  /**
+   * Prefix of the budgets reported per business id by {@code x-business-use-case-usage}.
+   */
+  public static final String BUSINESS_BUDGET_PREFIX = "business:";
+
+  private static final double DEFAULT_PACE_THRESHOLD = 75.0;
+
+  private static final long DEFAULT_MAX_PACE_DELAY_IN_MS = TimeUnit.SECONDS.toMillis(2);
+
+  private static final long DEFAULT_MAX_DELAY_IN_MS = TimeUnit.MINUTES.toMillis(5);
+
+  /**
+   * How long an exhausted budget without an estimated time to regain access blocks requests.
+   */
+  private static final long EXHAUSTED_COOL_DOWN_IN_MS = TimeUnit.MINUTES.toMillis(1);
+
+  /**
+   * Budgets without update for this long are dropped, the usage is reported over a rolling one hour window.
+   */
+  private static final long STALE_BUDGET_IN_MS = TimeUnit.MINUTES.toMillis(10);
+
+  private static final int CODE_APP_LIMIT = 4;
+
+  private static final int CODE_USER_LIMIT = 17;
+
+  private static final int CODE_PAGE_LIMIT = 32;
+
+  private static final int CODE_CUSTOM_LIMIT = 613;
+
+  private static final String AD_ACCOUNT_PREFIX = "act_";
+
+  private static final Pattern VERSION_SEGMENT = Pattern.compile("v\\d+\\.\\d+");
+
+  private final WebRequestor delegate;
+
+  private final double paceThreshold;
+
+  private final long maxPaceDelayInMs;
+
+  private final long maxDelayInMs;
+
+  private final ConcurrentMap<String, UsageBudget> budgets = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a throttling requestor that starts pacing at 75% usage, delays paced requests by up to 2 seconds and
+   * waits at most 5 minutes for an exhausted budget.
+   *
+   * @param delegate
+   *          the requestor performing the HTTP calls
+   */
+  public ThrottlingWebRequestor(WebRequestor delegate) {
+    this(delegate, DEFAULT_PACE_THRESHOLD, DEFAULT_MAX_PACE_DELAY_IN_MS, DEFAULT_MAX_DELAY_IN_MS);
+  }
+
+  /**
+   * Creates a throttling requestor.
+   *
+   * @param delegate
+   *          the requestor performing the HTTP calls
+   * @param paceThreshold
+   *          usage in percent from which requests are delayed
+   * @param maxPaceDelayInMs
+   *          delay in milliseconds of a request just below 100% usage
+   * @param maxDelayInMs
+   *          upper bound in milliseconds of any single wait
+   */
+  public ThrottlingWebRequestor(WebRequestor delegate, double paceThreshold, long maxPaceDelayInMs,
+      long maxDelayInMs) {
+    verifyParameterPresence("delegate", delegate);
+    if (paceThreshold < 0 || paceThreshold >= 100) {
+      throw new IllegalArgumentException("The pace threshold must be between 0 and 100.");
+    }
+    if (maxPaceDelayInMs < 0 || maxDelayInMs < 0) {
+      throw new IllegalArgumentException("Delays must not be negative.");
+    }
+    this.delegate = delegate;
+    this.paceThreshold = paceThreshold;
+    this.maxPaceDelayInMs = maxPaceDelayInMs;
+    this.maxDelayInMs = maxDelayInMs;
+  }
+
+  @Override
+  public Response executeGet(String url, String headerAccessToken) throws IOException {
+    awaitBudget(url);
+    return record(url, delegate.executeGet(url, headerAccessToken));
+  }
+
+  @Override
+  public Response executeGet(String url) throws IOException {
+    awaitBudget(url);
+    return record(url, delegate.executeGet(url));
+  }
+
+  @Override
+  public Response executeGet(String url, String headerAccessToken, BodyHandler bodyHandler) throws IOException {
+    awaitBudget(url);
+    return record(url, delegate.executeGet(url, headerAccessToken, bodyHandler));
+  }
+
+  @Override
+  public Response executePost(String url, String parameters, String headerAccessToken) throws IOException {
+    awaitBudget(url);
+    return record(url, delegate.executePost(url, parameters, headerAccessToken));
+  }
+
+  @Override
+  public Response executePost(String url, String parameters, List<BinaryAttachment> binaryAttachments,
+      String headerAccessToken) throws IOException {
+    awaitBudget(url);
+    return record(url, delegate.executePost(url, parameters, binaryAttachments, headerAccessToken));
+  }
+
+  @Override
+  public Response executePost(String url, BodyWriter bodyWriter, String headerAccessToken) throws IOException {
+    awaitBudget(url);
+    return record(url, delegate.executePost(url, bodyWriter, headerAccessToken));
+  }
+
+  @Override
+  public Response executeDelete(String url, String headerAccessToken) throws IOException {
+    awaitBudget(url);
+    return record(url, delegate.executeDelete(url, headerAccessToken));
+  }
+
+  @Override
+  public DebugHeaderInfo getDebugHeaderInfo() {
+    return delegate.getDebugHeaderInfo();
+  }
+
+  /**
+   * Returns the currently tracked budgets.
+   *
+   * @return snapshot of the budgets by key, see {@link #APP_BUDGET}, {@link #PAGE_BUDGET_PREFIX},
+   *         {@link #AD_ACCOUNT_BUDGET_PREFIX} and {@link #BUSINESS_BUDGET_PREFIX}
+   */
+  public Map<String, UsageBudget> getBudgets() {
+    return Collections.unmodifiableMap(new TreeMap<>(budgets));
+  }
+
+  /**
+   * Computes how long a request to the given URL would be delayed right now.
+   *
+   * @param url
+   *          the request URL
+   * @return the delay in milliseconds, {@code 0} if the request can be sent immediately
+   */
+  public long getDelayInMs(String url) {
+    long now = currentTimeMillis();
+    long delay = 0;
+    List<String> pathSegments = pathSegments(url);
+    for (UsageBudget budget : budgets.values()) {
+      if (budget.isStale(now)) {
+        budgets.remove(budget.getKey(), budget);
+      } else if (budget.appliesTo(pathSegments)) {
+        delay = Math.max(delay, delayFor(budget, now));
+      }
+    }
+    return Math.min(delay, maxDelayInMs);
+  }
+
+  /**
+   * Returns the current time, hook for tests.
+   *
+   * @return the current time in milliseconds
+   */
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  /**
+   * Waits the given time, hook for tests.
+   *
+   * @param delayInMs
+   *          the time to wait in milliseconds
+   * @throws InterruptedException
+   *           if the thread is interrupted while waiting
+   */
+  protected void pause(long delayInMs) throws InterruptedException {
+    Thread.sleep(delayInMs);
+  }
+
+  private void awaitBudget(String url) throws IOException {
+    long delay = getDelayInMs(url);
+    if (delay <= 0) {
+      return;
+    }
+
+    HTTP_LOGGER.debug("Rate limit usage is high, delaying the request to {} by {} ms", url, delay);
+    try {
+      pause(delay);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the rate limit budget");
+    }
+  }
+
+  private long delayFor(UsageBudget budget, long now) {
+    if (budget.getRegainAccessAt() > now) {
+      return budget.getRegainAccessAt() - now;
+    }
+    if (budget.getUtilization() >= 100) {
+      return Math.max(0, budget.getUpdatedAt() + EXHAUSTED_COOL_DOWN_IN_MS - now);
+    }
+    if (budget.getUtilization() >= paceThreshold) {
+      return (long) (maxPaceDelayInMs * (budget.getUtilization() - paceThreshold) / (100 - paceThreshold));
+    }
+    return 0;
+  }
+
+  private Response record(String url, Response response) {
+    if (response == null) {
+      return null;
+    }
+
+    long now = currentTimeMillis();
+    List<String> pathSegments = pathSegments(url);
+    String pageKey = pageKey(pathSegments);
+    String adAccountKey = adAccountKey(pathSegments);
+    DebugHeaderInfo debugHeaderInfo = response.getDebugHeaderInfo();
+    if (debugHeaderInfo != null) {
+      recordUsage(APP_BUDGET, debugHeaderInfo.getAppUsage(), now);
+      recordUsage(pageKey, debugHeaderInfo.getPageUsage(), now);
+      recordUsage(adAccountKey, debugHeaderInfo.getAdAccountUsage(), now);
+      recordBusinessUsage(debugHeaderInfo.getBusinessUseCaseUsage(), now);
+    }
+
+    recordThrottlingError(url, pageKey, adAccountKey, response, now);
+    return response;
+  }
+
+  private void recordUsage(String key, HeaderUsage usage, long now) {
+    if (key == null || usage == null || usage.isPercentageOnly()) {
+      return;
+    }
+
+    double utilization = usage.isAdAccountHeader() ? valueOf(usage.getAccIdUtilPct())
+        : max(usage.getCallCount(), usage.getTotalTime(), usage.getTotalCputime());
+    budgets.put(key, new UsageBudget(key, utilization, 0, now));
+  }
+
+  private void recordBusinessUsage(BusinessUseCaseUsage usage, long now) {
+    if (usage == null) {
+      return;
+    }
+
+    for (String businessId : usage.getBusinessIds()) {
+      double utilization = 0;
+      long regainAccessAt = 0;
+      for (InnerBusinessUseCaseUsage inner : Optional.ofNullable(usage.get(businessId))
+        .orElse(Collections.emptyList())) {
+        utilization = Math.max(utilization,
+          max(inner.getCallCount(), inner.getTotalTime(), inner.getTotalCputime()));
+        if (inner.getEstimatedTimeToRegainAccess() != null && inner.getEstimatedTimeToRegainAccess() > 0) {
+          regainAccessAt = Math.max(regainAccessAt,
+            now + TimeUnit.MINUTES.toMillis(inner.getEstimatedTimeToRegainAccess()));
+        }
+      }
+      String key = BUSINESS_BUDGET_PREFIX + businessId;
+      budgets.put(key, new UsageBudget(key, utilization, regainAccessAt, now));
+    }
+  }
+
+  private void recordThrottlingError(String url, String pageKey, String adAccountKey, Response response, long now) {
+    // throttling errors come with an error status, so successful bodies are neither decoded nor parsed here
+    Integer statusCode = response.getStatusCode();
+    if (statusCode == null || statusCode == HttpURLConnection.HTTP_OK) {
+      return;
+    }
+    String body = response.getBody();
+    if (body == null || !body.contains("\"error\"")) {
+      return;
+    }
+
+    int code;
+    try {
+      JsonValue json = Json.parse(body);
+      JsonValue error = json.isObject() ? json.asObject().get("error") : null;
+      code = error != null && error.isObject() ? error.asObject().getInt("code", 0) : 0;
+    } catch (ParseException | UnsupportedOperationException e) {
+      return;
+    }
+
+    String key;
+    if (code == CODE_PAGE_LIMIT) {
+      key = pageKey;
+    } else if (code == CODE_APP_LIMIT) {
+      key = APP_BUDGET;
+    } else if (code == CODE_USER_LIMIT || code == CODE_CUSTOM_LIMIT) {
+      key = adAccountKey != null ? adAccountKey : APP_BUDGET;
+    } else {
+      return;
+    }
+
+    if (key == null) {
+      return;
+    }
+
+    HTTP_LOGGER.debug("Facebook throttled the request to {} with code {}", url, code);
+    budgets.compute(key, (k, budget) -> new UsageBudget(k, 100,
+      budget != null ? budget.getRegainAccessAt() : 0, now));
+  }
+
+  /**
+   * Splits the path of the URL into its segments, without the API version.
+   */
+  private static List<String> pathSegments(String url) {
+    if (url == null) {
+      return Collections.emptyList();
+    }
+
+    int schemeEnd = url.indexOf("://");
+    int pathStart = url.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+    if (pathStart < 0) {
+      return Collections.emptyList();
+    }
+    int pathEnd = url.indexOf('?', pathStart);
+
+    List<String> segments = new ArrayList<>();
+    for (String segment : url.substring(pathStart, pathEnd < 0 ? url.length() : pathEnd).split("/")) {
+      if (!segment.isEmpty() && !(segments.isEmpty() && VERSION_SEGMENT.matcher(segment).matches())) {
+        segments.add(segment);
+      }
+    }
+    return segments;
+  }
+
+  private static String pageKey(List<String> pathSegments) {
+    return pathSegments.isEmpty() ? null : PAGE_BUDGET_PREFIX + pathSegments.get(0);
+  }
+
+  private static String adAccountKey(List<String> pathSegments) {
+    return pathSegments.stream().filter(segment -> segment.startsWith(AD_ACCOUNT_PREFIX)).findFirst()
+      .map(segment -> AD_ACCOUNT_BUDGET_PREFIX + segment.substring(AD_ACCOUNT_PREFIX.length())).orElse(null);
+  }
+
+  private static double max(Integer... values) {
+    double max = 0;
+    for (Integer value : values) {
+      if (value != null && value > max) {
+        max = value;
+      }
+    }
+    return max;
+  }
+
+  private static double valueOf(Double value) {
+    return value != null ? value : 0;
+  }
+
+  /**
+   * Rate limit usage of a single app, page, ad account or business as reported by the latest response.
+   */
+  public static final class UsageBudget {
+
+    private final String key;
+
+    private final double utilization;
+
+    private final long regainAccessAt;
+
+    private final long updatedAt;
+
+    UsageBudget(String key, double utilization, long regainAccessAt, long updatedAt) {
+      this.key = key;
+      this.utilization = utilization;
+      this.regainAccessAt = regainAccessAt;
+      this.updatedAt = updatedAt;
+    }
+
+    /**
+     * @return the budget key
+     */
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * @return the highest reported usage in percent
+     */
+    public double getUtilization() {
+      return utilization;
+    }
+
+    /**
+     * @return the remaining budget in percent
+     */
+    public double getRemaining() {
+      return Math.max(0, 100 - utilization);
+    }
+
+    /**
+     * @return the time in milliseconds when access is expected to be regained, {@code 0} if not reported
+     */
+    public long getRegainAccessAt() {
+      return regainAccessAt;
+    }
+
+    /**
+     * @return the time in milliseconds of the response that reported this usage
+     */
+    public long getUpdatedAt() {
+      return updatedAt;
+    }
+
+    /**
+     * @return {@code true} if the budget is used up
+     */
+    public boolean isExhausted() {
+      return utilization >= 100;
+    }
+
+    boolean isStale(long now) {
+      return regainAccessAt <= now && now - updatedAt > STALE_BUDGET_IN_MS;
+    }
+
+    boolean appliesTo(List<String> pathSegments) {
+      if (APP_BUDGET.equals(key)) {
+        return true;
+      }
+      if (key.startsWith(PAGE_BUDGET_PREFIX)) {
+        return key.equals(pageKey(pathSegments));
+      }
+      if (key.startsWith(AD_ACCOUNT_BUDGET_PREFIX)) {
+        return key.equals(adAccountKey(pathSegments));
+      }
+      String businessId = key.substring(BUSINESS_BUDGET_PREFIX.length());
+      return pathSegments.contains(businessId) || pathSegments.contains(AD_ACCOUNT_PREFIX + businessId);
+    }
+
+    @Override
+    public String toString() {
+      return String.format("UsageBudget[key=%s utilization=%.1f regainAccessAt=%d updatedAt=%d]", key, utilization,
+        regainAccessAt, updatedAt);
+    }
+  }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.MAPPER_LOGGER;
+import static com.restfb.util.ReflectionUtils.findFieldsWithAnnotation;
+import static com.restfb.util.ReflectionUtils.findMethodsWithAnnotation;
+import static com.restfb.util.ReflectionUtils.getFirstParameterizedTypeArgument;
+import static com.restfb.util.ReflectionUtils.getSecondParameterizedTypeArgument;
+import static com.restfb.util.StringUtils.isBlank;
+import static java.lang.String.format;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+import com.restfb.JsonMapper.JsonMappingCompleted;
+import com.restfb.annotation.OriginalJson;
+import com.restfb.exception.FacebookJsonMappingException;
+import com.restfb.types.AbstractFacebookType;
+import com.restfb.types.Comments;
+import com.restfb.util.ReflectionUtils;
+import com.restfb.util.ReflectionUtils.FieldWithAnnotation;
+
+/**
+ * Precompiled mapping plan for a Java type, used by {@link DefaultJsonMapper}.
+ * <p>
+ * All reflection work needed to map JSON to an instance of the type is done once, when the binding is created: the
+ * JSON names of the {@code @Facebook} fields, the conversion used for each field, the field accessors and the
+ * {@code @JsonMappingCompleted} methods. Bindings are immutable and cached per class, so they can be shared by all
+ * mapper instances and threads.
+ * 
+ * @since 3.16.0
+ */
+final class TypeBinding {
+
+  private static final ClassValue<TypeBinding> BINDINGS = new ClassValue<TypeBinding>() {
+    @Override
+    protected TypeBinding computeValue(Class<?> type) {
+      return new TypeBinding(type);
+    }
+  };
+
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  private final Class<?> type;
+
+  private final Constructor<?> defaultConstructor;
+
+  private final List<FieldBinding> fieldBindings;
+
+  private final List<FieldWithAnnotation<Facebook>> fieldsWithAnnotation;
+
+  private final Map<Field, FieldBinding> fieldBindingsByField;
+
+  private final Set<String> facebookFieldNamesWithMultipleMappings;
+
+  private final List<Method> mappingCompletedMethods;
+
+  private final boolean originalJsonPresent;
+
+  private TypeBinding(Class<?> type) {
+    this.type = type;
+    this.defaultConstructor = findDefaultConstructor(type);
+
+    List<FieldWithAnnotation<Facebook>> fieldsWithAnnotation = findFieldsWithAnnotation(type, Facebook.class);
+
+    // Count the Facebook field name occurrences so fields sharing a name can be flagged
+    Map<String, Integer> occurrenceCount = new HashMap<>();
+    for (FieldWithAnnotation<Facebook> fieldWithAnnotation : fieldsWithAnnotation) {
+      occurrenceCount.merge(facebookFieldName(fieldWithAnnotation), 1, Integer::sum);
+    }
+
+    Set<String> multipleMappings = new HashSet<>();
+    occurrenceCount.forEach((name, count) -> {
+      if (count > 1) {
+        multipleMappings.add(name);
+      }
+    });
+
+    List<FieldBinding> bindings = new ArrayList<>(fieldsWithAnnotation.size());
+    Map<Field, FieldBinding> bindingsByField = new HashMap<>();
+    for (FieldWithAnnotation<Facebook> fieldWithAnnotation : fieldsWithAnnotation) {
+      FieldBinding fieldBinding = new FieldBinding(fieldWithAnnotation, facebookFieldName(fieldWithAnnotation));
+      bindings.add(fieldBinding);
+      bindingsByField.put(fieldWithAnnotation.getField(), fieldBinding);
+    }
+
+    List<Method> completedMethods = new ArrayList<>();
+    for (Method method : findMethodsWithAnnotation(type, JsonMappingCompleted.class)) {
+      method.setAccessible(true);
+      completedMethods.add(method);
+    }
+
+    this.fieldBindings = unmodifiableList(bindings);
+    this.fieldsWithAnnotation = unmodifiableList(fieldsWithAnnotation);
+    this.fieldBindingsByField = bindingsByField;
+    this.facebookFieldNamesWithMultipleMappings = unmodifiableSet(multipleMappings);
+    this.mappingCompletedMethods = unmodifiableList(completedMethods);
+    this.originalJsonPresent = AbstractFacebookType.class.isAssignableFrom(type)
+        && !findFieldsWithAnnotation(type, OriginalJson.class).isEmpty();
+  }
+
+  /**
+   * Returns the cached binding for the given {@code type}, creating it on first use.
+   * 
+   * @param type
+   *          The Java type to map to.
+   * @return The binding for {@code type}.
+   */
+  static TypeBinding of(Class<?> type) {
+    return BINDINGS.get(type);
+  }
+
+  /**
+   * For a Java field annotated with the {@code Facebook} annotation, figure out what the corresponding Facebook JSON
+   * field name to map to it is.
+   * 
+   * @param fieldWithAnnotation
+   *          A Java field annotated with the {@code Facebook} annotation.
+   * @return The Facebook JSON field name that should be mapped to this Java field.
+   */
+  static String facebookFieldName(FieldWithAnnotation<Facebook> fieldWithAnnotation) {
+    String facebookFieldName = fieldWithAnnotation.getAnnotation().value();
+    Field field = fieldWithAnnotation.getField();
+
+    // If no Facebook field name was specified in the annotation, assume
+    // it's the same name as the Java field
+    if (isBlank(facebookFieldName)) {
+      MAPPER_LOGGER.trace("No explicit Facebook field name found for {}, so defaulting to the field name itself ({})",
+        field, field.getName());
+
+      facebookFieldName = field.getName();
+    }
+
+    return facebookFieldName;
+  }
+
+  /**
+   * Creates a new instance of the bound type using its cached no-argument constructor.
+   * 
+   * @param <T>
+   *          Java type to map to.
+   * @return A new instance of the bound type.
+   * @throws FacebookJsonMappingException
+   *           If the type cannot be instantiated.
+   */
+  @SuppressWarnings("unchecked")
+  <T> T newInstance() {
+    if (defaultConstructor == null) {
+      // produces the detailed error message
+      return (T) ReflectionUtils.createInstance(type);
+    }
+
+    try {
+      return (T) defaultConstructor.newInstance();
+    } catch (Exception e) {
+      throw new FacebookJsonMappingException("Unable to create an instance of " + type
+          + ". Please make sure that if it's a nested class, is marked 'static'. "
+          + "It should have a no-argument constructor.",
+        e);
+    }
+  }
+
+  /**
+   * Invokes the {@code @JsonMappingCompleted} methods of the bound type on the given {@code object}.
+   * 
+   * @param object
+   *          The object on which to invoke the methods.
+   * @param jsonMapper
+   *          The mapper passed to methods taking a single {@link JsonMapper} parameter.
+   * @throws IllegalAccessException
+   *           If unable to invoke the method.
+   * @throws InvocationTargetException
+   *           If unable to invoke the method.
+   */
+  void invokeJsonMappingCompletedMethods(Object object, JsonMapper jsonMapper)
+      throws IllegalAccessException, InvocationTargetException {
+    for (Method method : mappingCompletedMethods) {
+      Class<?>[] parameterTypes = method.getParameterTypes();
+
+      if (parameterTypes.length == 0)
+        method.invoke(object);
+      else if (parameterTypes.length == 1 && JsonMapper.class.equals(parameterTypes[0]))
+        method.invoke(object, jsonMapper);
+      else
+        throw new FacebookJsonMappingException(
+          format("Methods annotated with @%s must take 0 parameters or a single %s parameter. Your method was %s",
+            JsonMappingCompleted.class.getSimpleName(), JsonMapper.class.getSimpleName(), method));
+    }
+  }
+
+  List<FieldBinding> getFieldBindings() {
+    return fieldBindings;
+  }
+
+  List<FieldWithAnnotation<Facebook>> getFieldsWithAnnotation() {
+    return fieldsWithAnnotation;
+  }
+
+  /**
+   * Returns the binding of the given {@code @Facebook}-annotated field of the bound type.
+   * 
+   * @param field
+   *          The field, declared by the bound type or one of its superclasses.
+   * @return The binding, or {@code null} if the field is not mapped.
+   */
+  FieldBinding getFieldBinding(Field field) {
+    return fieldBindingsByField.get(field);
+  }
+
+  Set<String> getFacebookFieldNamesWithMultipleMappings() {
+    return facebookFieldNamesWithMultipleMappings;
+  }
+
+  boolean hasFieldBindings() {
+    return !fieldBindings.isEmpty();
+  }
+
+  boolean isOriginalJsonPresent() {
+    return originalJsonPresent;
+  }
+
+  private static Constructor<?> findDefaultConstructor(Class<?> type) {
+    try {
+      Constructor<?> constructor = type.getDeclaredConstructor();
+      // Allows protected, private, and package-private constructors to be invoked
+      constructor.setAccessible(true);
+      return constructor;
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  /**
+   * The conversion applied to a JSON value before it is stored in a field, chosen once per field by its declared type.
+   */
+  enum Conversion {
+    STRING, INTEGER, BOOLEAN, LONG, DOUBLE, FLOAT, BIG_INTEGER, BIG_DECIMAL, LIST, MAP, OPTIONAL, ENUM, DATE,
+    CONNECTION, COMMENTS, OBJECT;
+
+    static Conversion forType(Class<?> type) {
+      if (String.class.equals(type)) {
+        return STRING;
+      }
+      if (Integer.class.equals(type) || Integer.TYPE.equals(type)) {
+        return INTEGER;
+      }
+      if (Boolean.class.equals(type) || Boolean.TYPE.equals(type)) {
+        return BOOLEAN;
+      }
+      if (Long.class.equals(type) || Long.TYPE.equals(type)) {
+        return LONG;
+      }
+      if (Double.class.equals(type) || Double.TYPE.equals(type)) {
+        return DOUBLE;
+      }
+      if (Float.class.equals(type) || Float.TYPE.equals(type)) {
+        return FLOAT;
+      }
+      if (BigInteger.class.equals(type)) {
+        return BIG_INTEGER;
+      }
+      if (BigDecimal.class.equals(type)) {
+        return BIG_DECIMAL;
+      }
+      if (List.class.equals(type)) {
+        return LIST;
+      }
+      if (Map.class.equals(type)) {
+        return MAP;
+      }
+      if (Optional.class.equals(type)) {
+        return OPTIONAL;
+      }
+      if (type.isEnum()) {
+        return ENUM;
+      }
+      if (Date.class.equals(type)) {
+        return DATE;
+      }
+      if (Connection.class.equals(type)) {
+        return CONNECTION;
+      }
+      if (Comments.class.isAssignableFrom(type)) {
+        return COMMENTS;
+      }
+      return OBJECT;
+    }
+  }
+
+  /**
+   * Precompiled mapping plan for a single {@code @Facebook}-annotated field.
+   */
+  static final class FieldBinding {
+
+    private final FieldWithAnnotation<Facebook> fieldWithAnnotation;
+
+    private final String facebookFieldName;
+
+    private final Conversion conversion;
+
+    private final Class<?> firstTypeArgument;
+
+    private final Class<?> secondTypeArgument;
+
+    private final MethodHandle setter;
+
+    private final MethodHandle getter;
+
+    private final boolean primitive;
+
+    private FieldBinding(FieldWithAnnotation<Facebook> fieldWithAnnotation, String facebookFieldName) {
+      Field field = fieldWithAnnotation.getField();
+      field.setAccessible(true);
+
+      this.fieldWithAnnotation = fieldWithAnnotation;
+      this.facebookFieldName = facebookFieldName;
+      this.conversion = Conversion.forType(field.getType());
+      this.firstTypeArgument = getFirstParameterizedTypeArgument(field);
+      this.secondTypeArgument = conversion == Conversion.MAP ? getSecondParameterizedTypeArgument(field) : null;
+      this.primitive = field.getType().isPrimitive();
+
+      try {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        this.setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+      } catch (IllegalAccessException e) {
+        throw new FacebookJsonMappingException("Unable to access field " + fieldWithAnnotation, e);
+      }
+    }
+
+    FieldWithAnnotation<Facebook> getFieldWithAnnotation() {
+      return fieldWithAnnotation;
+    }
+
+    Field getField() {
+      return fieldWithAnnotation.getField();
+    }
+
+    String getFacebookFieldName() {
+      return facebookFieldName;
+    }
+
+    Conversion getConversion() {
+      return conversion;
+    }
+
+    Class<?> getFirstTypeArgument() {
+      return firstTypeArgument;
+    }
+
+    Class<?> getSecondTypeArgument() {
+      return secondTypeArgument;
+    }
+
+    boolean isOptional() {
+      return conversion == Conversion.OPTIONAL;
+    }
+
+    /**
+     * Stores {@code value} in the bound field of {@code instance}.
+     * 
+     * @param instance
+     *          The object to modify.
+     * @param value
+     *          The new field value.
+     * @throws IllegalArgumentException
+     *           If {@code value} is {@code null} and the field has a primitive type, like {@link Field#set} does.
+     */
+    void set(Object instance, Object value) {
+      if (value == null && primitive) {
+        throw new IllegalArgumentException(
+          format("Can not set %s field %s to null value", getField().getType(), getField()));
+      }
+
+      try {
+        setter.invokeExact(instance, value);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new FacebookJsonMappingException("Unable to set " + fieldWithAnnotation, t);
+      }
+    }
+
+    /**
+     * Reads the bound field of {@code instance}.
+     * 
+     * @param instance
+     *          The object to read from.
+     * @return The field value.
+     */
+    Object get(Object instance) {
+      try {
+        return (Object) getter.invokeExact(instance);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new FacebookJsonMappingException("Unable to read " + fieldWithAnnotation, t);
+      }
+    }
+  }
+}
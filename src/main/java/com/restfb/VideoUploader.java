@@ -0,0 +1,462 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.restfb.exception.FacebookException;
+import com.restfb.exception.FacebookGraphException;
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.FacebookResponseContentException;
+import com.restfb.types.GraphResponse;
+import com.restfb.types.ResumableUploadStartResponse;
+import com.restfb.types.ResumableUploadTransferResponse;
+
+/**
+ * Drives the resumable video upload (start, transfer, finish) of a file.
+ * <p>
+ * The file is split into chunks of the size Facebook advises in the start phase. The chunks are sent straight from
+ * the file without buffering them in memory, and are transferred concurrently on the given {@link Executor}, so the
+ * executor bounds how many chunks are in flight. A chunk failing with a network error or a transient Graph API error
+ * is retried with an exponential backoff.
+ * <p>
+ * When a progress file is given, the upload session and the transferred chunks are recorded in it, so an upload that
+ * was interrupted continues where it stopped when started again with the same file and progress file.
+ *
+ * <pre>
+ * VideoUploader uploader = new VideoUploader(facebookClient, Executors.newFixedThreadPool(4));
+ * uploader.setProgressListener((uploaded, total, bytesPerSecond) -&gt; log(uploaded, total));
+ * String videoId = uploader.upload(pageId, video, progressFile, Parameter.with("title", "My video"));
+ * </pre>
+ *
+ * @since 3.16.0
+ */
+public class VideoUploader {
+
+  private static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+  private static final long DEFAULT_RETRY_DELAY_IN_MS = TimeUnit.SECONDS.toMillis(1);
+
+  private static final String CHUNK_FIELD_NAME = "video_file_chunk";
+
+  private static final String CHUNK_CONTENT_TYPE = "application/octet-stream";
+
+  private final FacebookClient facebookClient;
+
+  private final Executor executor;
+
+  private final int maxAttempts;
+
+  private final long retryDelayInMs;
+
+  private ProgressListener progressListener;
+
+  /**
+   * Creates an uploader that tries every chunk up to 3 times, starting with a 1 second delay between attempts.
+   *
+   * @param facebookClient
+   *          the client performing the API calls
+   * @param executor
+   *          the executor the chunk transfers run on
+   */
+  public VideoUploader(FacebookClient facebookClient, Executor executor) {
+    this(facebookClient, executor, DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_DELAY_IN_MS);
+  }
+
+  /**
+   * Creates an uploader.
+   *
+   * @param facebookClient
+   *          the client performing the API calls
+   * @param executor
+   *          the executor the chunk transfers run on
+   * @param maxAttempts
+   *          how often a chunk is tried before the upload fails
+   * @param retryDelayInMs
+   *          delay in milliseconds before the first retry of a chunk, doubled for every further retry
+   */
+  public VideoUploader(FacebookClient facebookClient, Executor executor, int maxAttempts, long retryDelayInMs) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    verifyParameterPresence("executor", executor);
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be at least 1");
+    }
+    this.facebookClient = facebookClient;
+    this.executor = executor;
+    this.maxAttempts = maxAttempts;
+    this.retryDelayInMs = retryDelayInMs;
+  }
+
+  /**
+   * Sets the listener informed after every transferred chunk.
+   *
+   * @param progressListener
+   *          the listener, may be {@code null}
+   */
+  public void setProgressListener(ProgressListener progressListener) {
+    this.progressListener = progressListener;
+  }
+
+  /**
+   * Uploads a video without recording the progress.
+   *
+   * @param targetId
+   *          the id of the page, user or group the video is uploaded to
+   * @param file
+   *          the video file
+   * @param finishParameters
+   *          parameters sent with the finish phase, e.g. {@code title} or {@code description}
+   * @return the id of the uploaded video
+   * @throws FacebookException
+   *           if a phase of the upload fails
+   * @throws UncheckedIOException
+   *           if the file cannot be read
+   */
+  public String upload(String targetId, Path file, Parameter... finishParameters) {
+    return upload(targetId, file, null, finishParameters);
+  }
+
+  /**
+   * Uploads a video, continuing an earlier upload recorded in {@code progressFile}.
+   * <p>
+   * The progress file is deleted once the upload is finished.
+   *
+   * @param targetId
+   *          the id of the page, user or group the video is uploaded to
+   * @param file
+   *          the video file
+   * @param progressFile
+   *          the file the upload progress is recorded in, may be {@code null}
+   * @param finishParameters
+   *          parameters sent with the finish phase, e.g. {@code title} or {@code description}
+   * @return the id of the uploaded video
+   * @throws FacebookException
+   *           if a phase of the upload fails
+   * @throws UncheckedIOException
+   *           if the file cannot be read or the progress file cannot be written
+   */
+  public String upload(String targetId, Path file, Path progressFile, Parameter... finishParameters) {
+    verifyParameterPresence("targetId", targetId);
+    verifyParameterPresence("file", file);
+
+    try {
+      long fileSize = Files.size(file);
+      UploadState state = progressFile == null ? null : UploadState.load(progressFile, fileSize);
+      if (state == null) {
+        state = start(targetId, fileSize, progressFile);
+      } else {
+        CLIENT_LOGGER.debug("Resuming upload session {} with {} transferred chunks", state.uploadSessionId,
+          state.completedChunks.size());
+      }
+
+      if (state.chunkSize > 0) {
+        transferChunks(targetId, file, state);
+      }
+
+      facebookClient.publish(targetId + "/videos", GraphResponse.class,
+        createParameters(finishParameters, Parameter.with("upload_phase", "finish"),
+          Parameter.with("upload_session_id", state.uploadSessionId)));
+
+      if (progressFile != null) {
+        Files.deleteIfExists(progressFile);
+      }
+      return state.videoId;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to upload video file " + file, e);
+    }
+  }
+
+  private UploadState start(String targetId, long fileSize, Path progressFile) throws IOException {
+    ResumableUploadStartResponse response = facebookClient.publish(targetId + "/videos",
+      ResumableUploadStartResponse.class, Parameter.with("upload_phase", "start"),
+      Parameter.with("file_size", fileSize));
+
+    long chunkSize = response.isFinished() ? 0 : response.getEndOffset() - response.getStartOffset();
+    UploadState state =
+        new UploadState(progressFile, response.getUploadSessionId(), response.getVideoId(), fileSize, chunkSize);
+    state.save();
+    return state;
+  }
+
+  private void transferChunks(String targetId, Path file, UploadState state) {
+    long startTime = System.nanoTime();
+    long alreadyUploaded = state.uploadedBytes();
+
+    List<CompletableFuture<ResumableUploadTransferResponse>> transfers = state.pendingChunks().stream()
+      .map(offset -> CompletableFuture.supplyAsync(() -> {
+        ResumableUploadTransferResponse response = transfer(targetId, file, state, offset, state.chunkLength(offset));
+        long uploaded = state.complete(offset);
+        reportProgress(uploaded, state.fileSize, uploaded - alreadyUploaded, startTime);
+        return response;
+      }, executor))
+      .collect(Collectors.toList());
+
+    ResumableUploadTransferResponse lastResponse = null;
+    try {
+      for (CompletableFuture<ResumableUploadTransferResponse> transfer : transfers) {
+        ResumableUploadTransferResponse response = transfer.join();
+        if (lastResponse == null || !lastResponse.isFinished()) {
+          lastResponse = response;
+        }
+      }
+    } catch (CompletionException e) {
+      transfers.forEach(transfer -> transfer.cancel(false));
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+
+    // Facebook tells with every transfer which range it expects next, send whatever it still misses
+    long previousOffset = -1;
+    while (lastResponse != null && !lastResponse.isFinished() && lastResponse.getStartOffset() < state.fileSize) {
+      long offset = lastResponse.getStartOffset();
+      if (offset == previousOffset) {
+        throw new FacebookResponseContentException(
+          "Facebook requested the range starting at " + offset + " again after it was transferred", null);
+      }
+      previousOffset = offset;
+      long length = Math.min(lastResponse.getEndOffset(), state.fileSize) - offset;
+      lastResponse = transfer(targetId, file, state, offset, length);
+    }
+  }
+
+  private ResumableUploadTransferResponse transfer(String targetId, Path file, UploadState state, long offset,
+      long length) {
+    for (int attempt = 1;; attempt++) {
+      try {
+        return facebookClient.publish(targetId + "/videos", ResumableUploadTransferResponse.class,
+          Collections.singletonList(BinaryAttachment.with(CHUNK_FIELD_NAME, file, offset, length, CHUNK_CONTENT_TYPE)),
+          Parameter.with("upload_phase", "transfer"), Parameter.with("upload_session_id", state.uploadSessionId),
+          Parameter.with("start_offset", offset));
+      } catch (FacebookException e) {
+        if (attempt >= maxAttempts || !isRetryable(e)) {
+          throw e;
+        }
+        CLIENT_LOGGER.debug("Transfer of chunk at {} failed (attempt {} of {}), retrying", offset, attempt,
+          maxAttempts);
+        try {
+          pause(retryDelayInMs << (attempt - 1));
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Decides if a failed chunk transfer is tried again.
+   *
+   * @param exception
+   *          the failure
+   * @return {@code true} for network errors and errors Facebook marks as transient
+   */
+  protected boolean isRetryable(FacebookException exception) {
+    if (exception instanceof FacebookNetworkException) {
+      return true;
+    }
+    return exception instanceof FacebookGraphException
+        && Boolean.TRUE.equals(((FacebookGraphException) exception).getIsTransient());
+  }
+
+  /**
+   * Waits the given time, hook for tests.
+   *
+   * @param delayInMs
+   *          the time to wait in milliseconds
+   * @throws InterruptedException
+   *           if the thread is interrupted while waiting
+   */
+  protected void pause(long delayInMs) throws InterruptedException {
+    Thread.sleep(delayInMs);
+  }
+
+  private void reportProgress(long uploadedBytes, long totalBytes, long bytesThisRun, long startTime) {
+    if (progressListener == null) {
+      return;
+    }
+    double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+    progressListener.onProgress(uploadedBytes, totalBytes, seconds > 0 ? bytesThisRun / seconds : 0);
+  }
+
+  private static Parameter[] createParameters(Parameter[] additional, Parameter... phaseParameters) {
+    List<Parameter> parameters = new ArrayList<>(Arrays.asList(phaseParameters));
+    if (additional != null) {
+      parameters.addAll(Arrays.asList(additional));
+    }
+    return parameters.toArray(new Parameter[0]);
+  }
+
+  /**
+   * Receives the progress of an upload.
+   */
+  @FunctionalInterface
+  public interface ProgressListener {
+
+    /**
+     * Called after a chunk is transferred, possibly from several threads at once.
+     *
+     * @param uploadedBytes
+     *          number of bytes Facebook received so far, including those of an earlier, resumed upload
+     * @param totalBytes
+     *          size of the video file
+     * @param bytesPerSecond
+     *          throughput of the current upload
+     */
+    void onProgress(long uploadedBytes, long totalBytes, double bytesPerSecond);
+  }
+
+  /**
+   * The upload session and the chunks already transferred, persisted as properties file.
+   */
+  private static class UploadState {
+
+    private static final String SESSION_KEY = "upload_session_id";
+
+    private static final String VIDEO_KEY = "video_id";
+
+    private static final String FILE_SIZE_KEY = "file_size";
+
+    private static final String CHUNK_SIZE_KEY = "chunk_size";
+
+    private static final String COMPLETED_KEY = "completed_chunks";
+
+    private final Path progressFile;
+
+    private final String uploadSessionId;
+
+    private final String videoId;
+
+    private final long fileSize;
+
+    private final long chunkSize;
+
+    private final Set<Long> completedChunks = new TreeSet<>();
+
+    UploadState(Path progressFile, String uploadSessionId, String videoId, long fileSize, long chunkSize) {
+      this.progressFile = progressFile;
+      this.uploadSessionId = uploadSessionId;
+      this.videoId = videoId;
+      this.fileSize = fileSize;
+      this.chunkSize = chunkSize;
+    }
+
+    static UploadState load(Path progressFile, long fileSize) throws IOException {
+      if (!Files.isRegularFile(progressFile)) {
+        return null;
+      }
+
+      Properties properties = new Properties();
+      try (InputStream in = Files.newInputStream(progressFile)) {
+        properties.load(in);
+      }
+
+      try {
+        if (Long.parseLong(properties.getProperty(FILE_SIZE_KEY)) != fileSize) {
+          CLIENT_LOGGER.debug("Ignoring progress file {}, it belongs to a file of different size", progressFile);
+          return null;
+        }
+        UploadState state = new UploadState(progressFile, properties.getProperty(SESSION_KEY),
+          properties.getProperty(VIDEO_KEY), fileSize, Long.parseLong(properties.getProperty(CHUNK_SIZE_KEY)));
+        String completed = properties.getProperty(COMPLETED_KEY, "");
+        for (String offset : completed.split(",")) {
+          if (!offset.isEmpty()) {
+            state.completedChunks.add(Long.valueOf(offset));
+          }
+        }
+        return state.uploadSessionId == null ? null : state;
+      } catch (NumberFormatException e) {
+        CLIENT_LOGGER.debug("Ignoring unreadable progress file {}", progressFile);
+        return null;
+      }
+    }
+
+    List<Long> pendingChunks() {
+      List<Long> pending = new ArrayList<>();
+      synchronized (this) {
+        for (long offset = 0; offset < fileSize; offset += chunkSize) {
+          if (!completedChunks.contains(offset)) {
+            pending.add(offset);
+          }
+        }
+      }
+      return pending;
+    }
+
+    long chunkLength(long offset) {
+      return Math.min(chunkSize, fileSize - offset);
+    }
+
+    synchronized long uploadedBytes() {
+      return completedChunks.stream().mapToLong(this::chunkLength).sum();
+    }
+
+    synchronized long complete(long offset) {
+      completedChunks.add(offset);
+      try {
+        save();
+      } catch (IOException e) {
+        throw new UncheckedIOException("Unable to record upload progress in " + progressFile, e);
+      }
+      return uploadedBytes();
+    }
+
+    synchronized void save() throws IOException {
+      if (progressFile == null) {
+        return;
+      }
+
+      Properties properties = new Properties();
+      properties.setProperty(SESSION_KEY, uploadSessionId);
+      if (videoId != null) {
+        properties.setProperty(VIDEO_KEY, videoId);
+      }
+      properties.setProperty(FILE_SIZE_KEY, String.valueOf(fileSize));
+      properties.setProperty(CHUNK_SIZE_KEY, String.valueOf(chunkSize));
+      properties.setProperty(COMPLETED_KEY,
+        completedChunks.stream().map(String::valueOf).collect(Collectors.joining(",")));
+
+      // write aside and move, so a crash never leaves a half written progress file behind
+      Path tempFile = progressFile.resolveSibling(progressFile.getFileName() + ".tmp");
+      try (OutputStream out = Files.newOutputStream(tempFile)) {
+        properties.store(out, "restfb resumable video upload");
+      }
+      Files.move(tempFile, progressFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
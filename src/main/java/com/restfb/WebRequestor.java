@@ -25,8 +25,17 @@ import static com.restfb.util.StringUtils.isBlank;
 import static com.restfb.util.StringUtils.trimToEmpty;
 import static java.lang.String.format;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 /**
  * Specifies how a class that sends {@code HTTP} requests to the Facebook API endpoint must operate.
@@ -46,9 +55,34 @@ public interface WebRequestor {
     private final Integer statusCode;
 
     /**
-     * HTTP response body as text.
+     * HTTP response body as text, decoded from {@link #rawBody} on first access if the requestor provided bytes.
      */
-    private final String body;
+    private String body;
+
+    /**
+     * HTTP response body as UTF-8 bytes, {@code null} if the requestor provided text.
+     */
+    private final byte[] rawBody;
+
+    /**
+     * HTTP response headers, never {@code null}.
+     */
+    private final Map<String, List<String>> headers;
+
+    /**
+     * Facebook debug information of this response, may be {@code null}.
+     */
+    private final DebugHeaderInfo debugHeaderInfo;
+
+    /**
+     * Number of body bytes received over the wire, {@code -1} if unknown.
+     */
+    private final long compressedLength;
+
+    /**
+     * Number of body bytes after content decoding, {@code -1} if unknown.
+     */
+    private final long uncompressedLength;
 
     /**
      * Creates a response with the given HTTP status code and response body as text.
@@ -59,8 +93,82 @@ public interface WebRequestor {
      *          The response body as text.
      */
     public Response(Integer statusCode, String body) {
+      this(statusCode, body, null, null);
+    }
+
+    /**
+     * Creates a response with the given HTTP status code, response body as text and the response metadata.
+     *
+     * @param statusCode
+     *          The HTTP status code of the response.
+     * @param body
+     *          The response body as text.
+     * @param headers
+     *          The HTTP response headers, may be {@code null}.
+     * @param debugHeaderInfo
+     *          The Facebook debug information extracted from the headers, may be {@code null}.
+     * @since 3.16.0
+     */
+    public Response(Integer statusCode, String body, Map<String, List<String>> headers,
+        DebugHeaderInfo debugHeaderInfo) {
+      this(statusCode, body, headers, debugHeaderInfo, -1, -1);
+    }
+
+    /**
+     * Creates a response with the given HTTP status code, response body as text, the response metadata and the body
+     * sizes before and after content decoding.
+     *
+     * @param statusCode
+     *          The HTTP status code of the response.
+     * @param body
+     *          The response body as text.
+     * @param headers
+     *          The HTTP response headers, may be {@code null}.
+     * @param debugHeaderInfo
+     *          The Facebook debug information extracted from the headers, may be {@code null}.
+     * @param compressedLength
+     *          Number of body bytes received over the wire, {@code -1} if unknown.
+     * @param uncompressedLength
+     *          Number of body bytes after content decoding, {@code -1} if unknown.
+     * @since 3.16.0
+     */
+    public Response(Integer statusCode, String body, Map<String, List<String>> headers,
+        DebugHeaderInfo debugHeaderInfo, long compressedLength, long uncompressedLength) {
+      this(statusCode, trimToEmpty(body), null, headers, debugHeaderInfo, compressedLength, uncompressedLength);
+    }
+
+    private Response(Integer statusCode, String body, byte[] rawBody, Map<String, List<String>> headers,
+        DebugHeaderInfo debugHeaderInfo, long compressedLength, long uncompressedLength) {
       this.statusCode = statusCode;
-      this.body = trimToEmpty(body);
+      this.body = body;
+      this.rawBody = rawBody;
+      this.headers = headers == null ? Collections.emptyMap() : Collections.unmodifiableMap(headers);
+      this.debugHeaderInfo = debugHeaderInfo;
+      this.compressedLength = compressedLength;
+      this.uncompressedLength = uncompressedLength;
+    }
+
+    /**
+     * Creates a response whose body is kept as the UTF-8 bytes read from the wire. The body is only decoded to text
+     * if {@link #getBody()} is called, so it can be parsed straight from the bytes.
+     *
+     * @param statusCode
+     *          The HTTP status code of the response.
+     * @param rawBody
+     *          The response body as UTF-8 bytes.
+     * @param headers
+     *          The HTTP response headers, may be {@code null}.
+     * @param debugHeaderInfo
+     *          The Facebook debug information extracted from the headers, may be {@code null}.
+     * @param compressedLength
+     *          Number of body bytes received over the wire, {@code -1} if unknown.
+     * @return The response.
+     * @since 3.16.0
+     */
+    public static Response fromRawBody(Integer statusCode, byte[] rawBody, Map<String, List<String>> headers,
+        DebugHeaderInfo debugHeaderInfo, long compressedLength) {
+      Objects.requireNonNull(rawBody, "rawBody is null");
+      return new Response(statusCode, null, rawBody, headers, debugHeaderInfo, compressedLength, rawBody.length);
     }
 
     /**
@@ -78,9 +186,68 @@ public interface WebRequestor {
      * @return The HTTP response body as text.
      */
     public String getBody() {
+      if (body == null) {
+        body = trimToEmpty(new String(rawBody, StandardCharsets.UTF_8));
+      }
       return body;
     }
 
+    /**
+     * Gets the HTTP response body as the UTF-8 bytes read from the wire, untrimmed.
+     * <p>
+     * The array is not copied and must not be modified.
+     *
+     * @return The HTTP response body as bytes, or {@code null} if the requestor provided the body as text.
+     * @since 3.16.0
+     */
+    public byte[] getRawBody() {
+      return rawBody;
+    }
+
+    /**
+     * Gets the HTTP response headers of this response.
+     *
+     * @return The HTTP response headers, empty if the requestor did not provide them.
+     * @since 3.16.0
+     */
+    public Map<String, List<String>> getHeaders() {
+      return headers;
+    }
+
+    /**
+     * Gets the Facebook debug information of this response.
+     * <p>
+     * Unlike {@link WebRequestor#getDebugHeaderInfo()} this belongs to exactly this response, even if the requestor is
+     * shared between threads.
+     *
+     * @return The debug information, or {@code null} if the requestor did not provide it.
+     * @since 3.16.0
+     */
+    public DebugHeaderInfo getDebugHeaderInfo() {
+      return debugHeaderInfo;
+    }
+
+    /**
+     * Gets the number of body bytes received over the wire.
+     *
+     * @return The transferred body size, {@code -1} if the requestor did not provide it.
+     * @since 3.16.0
+     */
+    public long getCompressedLength() {
+      return compressedLength;
+    }
+
+    /**
+     * Gets the number of body bytes after content decoding, equal to {@link #getCompressedLength()} if the response was
+     * not compressed.
+     *
+     * @return The decoded body size, {@code -1} if the requestor did not provide it.
+     * @since 3.16.0
+     */
+    public long getUncompressedLength() {
+      return uncompressedLength;
+    }
+
     /**
      * @see java.lang.Object#toString()
      */
@@ -93,6 +260,42 @@ public interface WebRequestor {
     }
   }
 
+  /**
+   * Consumes an HTTP response body as a character stream.
+   *
+   * @since 3.16.0
+   */
+  @FunctionalInterface
+  interface BodyHandler {
+    /**
+     * Handles the response body. The reader is closed by the caller.
+     *
+     * @param body
+     *          The response body.
+     * @throws IOException
+     *           If an error occurs while reading the body.
+     */
+    void handle(Reader body) throws IOException;
+  }
+
+  /**
+   * Produces an {@code application/x-www-form-urlencoded} request body as a byte stream.
+   *
+   * @since 3.16.0
+   */
+  @FunctionalInterface
+  interface BodyWriter {
+    /**
+     * Writes the request body. The stream is closed by the caller.
+     *
+     * @param body
+     *          The request body.
+     * @throws IOException
+     *           If an error occurs while writing the body.
+     */
+    void write(OutputStream body) throws IOException;
+  }
+
   /**
    * Given a Facebook API endpoint URL, execute a {@code GET} against it.
    * 
@@ -119,6 +322,37 @@ public interface WebRequestor {
    */
   Response executeGet(String url) throws IOException;
 
+  /**
+   * Given a Facebook API endpoint URL, execute a {@code GET} against it and hand a successful ({@code 200 OK}) response
+   * body to the {@code bodyHandler} as a character stream.
+   * <p>
+   * If the body was passed to the handler, the returned response has an empty body. Any other response is returned
+   * unchanged, so the caller can process errors as usual.
+   * <p>
+   * The default implementation reads the complete body via {@link #executeGet(String, String)} first, implementations
+   * should override this method to stream the body directly from the connection.
+   *
+   * @param url
+   *          The URL to make a {@code GET} request for, including URL parameters.
+   * @param headerAccessToken
+   *          access token used in the header. May be {@code null}, if access token is already part of the query string
+   * @param bodyHandler
+   *          Consumer of a successful response body.
+   * @return HTTP response data.
+   * @throws IOException
+   *           If an error occurs while performing the {@code GET} operation or while handling the body.
+   * @since 3.16.0
+   */
+  default Response executeGet(String url, String headerAccessToken, BodyHandler bodyHandler) throws IOException {
+    Response response = executeGet(url, headerAccessToken);
+    if (response.getStatusCode() != null && response.getStatusCode() == HttpURLConnection.HTTP_OK) {
+      bodyHandler.handle(new StringReader(response.getBody()));
+      return new Response(response.getStatusCode(), null, response.getHeaders(), response.getDebugHeaderInfo(),
+        response.getCompressedLength(), response.getUncompressedLength());
+    }
+    return response;
+  }
+
   /**
    * Given a Facebook API endpoint URL and parameter string, execute a {@code POST} to the endpoint URL.
    * 
@@ -151,6 +385,32 @@ public interface WebRequestor {
    */
   Response executePost(String url, String parameters, List<BinaryAttachment> binaryAttachments, String headerAccessToken) throws IOException;
 
+  /**
+   * Given a Facebook API endpoint URL, execute a {@code POST} to the endpoint URL with a body that is written by the
+   * given {@code bodyWriter}, so large bodies need not be held in memory.
+   * <p>
+   * The default implementation writes the complete body into memory and passes it to
+   * {@link #executePost(String, String, List, String)}, implementations should override this method to stream the body
+   * directly to the connection.
+   *
+   * @param url
+   *          The URL to {@code POST} to.
+   * @param bodyWriter
+   *          Producer of the URL-encoded parameters to be {@code POST}ed.
+   * @param headerAccessToken
+   *          access token used in the header. May be {@code null}, if access token is already part of the body
+   * @return HTTP response data.
+   * @throws IOException
+   *           If an error occurs while performing the {@code POST} or while writing the body.
+   * @since 3.16.0
+   */
+  default Response executePost(String url, BodyWriter bodyWriter, String headerAccessToken) throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    bodyWriter.write(body);
+    return executePost(url, new String(body.toByteArray(), StandardCharsets.UTF_8), Collections.emptyList(),
+      headerAccessToken);
+  }
+
   /**
    * Given a Facebook API endpoint URL and parameter string, execute a {@code DELETE} to the endpoint URL.
    * 
@@ -169,6 +429,9 @@ public interface WebRequestor {
    * 
    * The fields <code>x-fb-rev</code>, <code>x-fb-trace-id</code> and <code>x-fb-debug</code> are checked and returned
    * in a single container of the type {@link DebugHeaderInfo}
+   * <p>
+   * This is the information of the latest response. If the requestor is shared between threads, use
+   * {@link Response#getDebugHeaderInfo()} instead.
    * 
    * @return container with the explained facebook debug header information
    */
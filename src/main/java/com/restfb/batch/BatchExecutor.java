@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.batch;
+
+import static com.restfb.logging.RestFBLogger.CLIENT_LOGGER;
+import static com.restfb.util.ObjectUtil.verifyParameterPresence;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import com.restfb.FacebookClient;
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.json.Json;
+import com.restfb.json.JsonObject;
+import com.restfb.json.JsonValue;
+import com.restfb.json.ParseException;
+import com.restfb.util.UrlUtils;
+
+/**
+ * Executes any number of {@link BatchRequest}s, split into as many Graph Batch API calls as needed.
+ * <p>
+ * Requests connected by {@code depends_on} or by a JSONPath reference ({@code {result=name:$.id}}) are kept in the
+ * same batch call, everything else is packed into batch calls of at most {@value #MAX_BATCH_SIZE} requests that are
+ * sent concurrently on the given {@link Executor}. A dependency chain longer than {@value #MAX_BATCH_SIZE} requests is
+ * sent as a sequence of batch calls in dependency order, which works for {@code depends_on} but not for JSONPath
+ * references between the calls.
+ * <p>
+ * Requests that fail transiently (not processed at all, server errors, or errors Facebook marks as transient) are
+ * sent again, without the requests of the same batch call that already succeeded. Facebook may already have applied a
+ * {@code POST} or {@code DELETE} that failed or whose batch call failed as a whole, so by default only {@code GET}
+ * requests and requests that were not processed at all are sent again. Retrying the other requests has to be enabled
+ * explicitly.
+ *
+ * @since 3.16.0
+ */
+public class BatchExecutor {
+
+  /**
+   * Maximum number of requests Facebook accepts in one batch.
+   */
+  public static final int MAX_BATCH_SIZE = 50;
+
+  private static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+  private static final long DEFAULT_RETRY_DELAY_IN_MS = TimeUnit.SECONDS.toMillis(1);
+
+  private static final Pattern RESULT_REFERENCE = Pattern.compile("\\{result=([^:}]+):");
+
+  private static final int ERROR_CODE_UNKNOWN = 1;
+
+  private static final int ERROR_CODE_SERVICE = 2;
+
+  private final FacebookClient facebookClient;
+
+  private final Executor executor;
+
+  private final int maxAttempts;
+
+  private final long retryDelayInMs;
+
+  private final boolean retryNonIdempotentRequests;
+
+  /**
+   * Creates an executor that tries every request up to 3 times, starting with a 1 second delay between attempts.
+   *
+   * @param facebookClient
+   *          the client sending the batch calls
+   * @param executor
+   *          the executor the batch calls run on
+   */
+  public BatchExecutor(FacebookClient facebookClient, Executor executor) {
+    this(facebookClient, executor, DEFAULT_MAX_ATTEMPTS, DEFAULT_RETRY_DELAY_IN_MS);
+  }
+
+  /**
+   * Creates an executor.
+   *
+   * @param facebookClient
+   *          the client sending the batch calls
+   * @param executor
+   *          the executor the batch calls run on
+   * @param maxAttempts
+   *          how often a request is tried before its failure is returned
+   * @param retryDelayInMs
+   *          delay in milliseconds before the first retry, doubled for every further retry
+   */
+  public BatchExecutor(FacebookClient facebookClient, Executor executor, int maxAttempts, long retryDelayInMs) {
+    this(facebookClient, executor, maxAttempts, retryDelayInMs, false);
+  }
+
+  /**
+   * Creates an executor that may send failed non-{@code GET} requests again.
+   *
+   * @param facebookClient
+   *          the client sending the batch calls
+   * @param executor
+   *          the executor the batch calls run on
+   * @param maxAttempts
+   *          how often a request is tried before its failure is returned
+   * @param retryDelayInMs
+   *          delay in milliseconds before the first retry, doubled for every further retry
+   * @param retryNonIdempotentRequests
+   *          {@code true} to send failed {@code POST} and {@code DELETE} requests again, which may apply them twice
+   */
+  public BatchExecutor(FacebookClient facebookClient, Executor executor, int maxAttempts, long retryDelayInMs,
+      boolean retryNonIdempotentRequests) {
+    verifyParameterPresence("facebookClient", facebookClient);
+    verifyParameterPresence("executor", executor);
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("maxAttempts must be at least 1");
+    }
+    this.facebookClient = facebookClient;
+    this.executor = executor;
+    this.maxAttempts = maxAttempts;
+    this.retryDelayInMs = retryDelayInMs;
+    this.retryNonIdempotentRequests = retryNonIdempotentRequests;
+  }
+
+  /**
+   * Executes the batch requests.
+   *
+   * @param batchRequests
+   *          the requests, any number
+   * @return the responses in the order of {@code batchRequests}; an element is {@code null} if the request was not
+   *         processed, e.g. because a request it depends on failed, or if its response was omitted on success
+   * @throws IllegalArgumentException
+   *           if the requests contain a dependency cycle, or a chain longer than {@value #MAX_BATCH_SIZE} requests
+   *           uses JSONPath references
+   * @throws FacebookNetworkException
+   *           if a batch call keeps failing, fails while it contains requests that may not be sent again, or the
+   *           thread is interrupted while waiting to send it again
+   */
+  public List<BatchResponse> execute(List<BatchRequest> batchRequests) {
+    verifyParameterPresence("batchRequests", batchRequests);
+    if (batchRequests.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Execution execution = new Execution(batchRequests);
+    List<CompletableFuture<Void>> lanes = execution.createLanes().stream()
+      .map(lane -> CompletableFuture.runAsync(() -> lane.forEach(execution::executeChunk), executor))
+      .collect(Collectors.toList());
+
+    try {
+      lanes.forEach(CompletableFuture::join);
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+
+    return Arrays.asList(execution.responses);
+  }
+
+  /**
+   * Decides if a request is sent again.
+   *
+   * @param batchRequest
+   *          the request
+   * @param batchResponse
+   *          its response, may be {@code null}
+   * @return {@code true} if the request was not processed, or if it may be sent again and failed with a server error
+   *         or with an error Facebook marks as transient
+   */
+  protected boolean isTransientFailure(BatchRequest batchRequest, BatchResponse batchResponse) {
+    if (batchResponse == null || batchResponse.getCode() == null) {
+      return !batchRequest.isOmitResponseOnSuccess();
+    }
+
+    int code = batchResponse.getCode();
+    if (code >= 200 && code < 300 || !isRetryable(batchRequest)) {
+      return false;
+    }
+    if (code >= 500) {
+      return true;
+    }
+
+    try {
+      JsonValue error = Json.parse(batchResponse.getBody()).asObject().get("error");
+      if (error == null || !error.isObject()) {
+        return false;
+      }
+      JsonObject errorObject = error.asObject();
+      int errorCode = errorObject.getInt("code", 0);
+      return errorObject.getBoolean("is_transient", false) || errorCode == ERROR_CODE_UNKNOWN
+          || errorCode == ERROR_CODE_SERVICE;
+    } catch (ParseException | UnsupportedOperationException | NullPointerException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Decides if a request that may have been applied by Facebook can be sent again.
+   *
+   * @param batchRequest
+   *          the request
+   * @return {@code true} for {@code GET} requests, or for all requests if retrying non-idempotent requests is enabled
+   */
+  protected boolean isRetryable(BatchRequest batchRequest) {
+    return retryNonIdempotentRequests || "GET".equalsIgnoreCase(batchRequest.getMethod());
+  }
+
+  /**
+   * Waits the given time, hook for tests.
+   *
+   * @param delayInMs
+   *          the time to wait in milliseconds
+   * @throws InterruptedException
+   *           if the thread is interrupted while waiting
+   */
+  protected void pause(long delayInMs) throws InterruptedException {
+    Thread.sleep(delayInMs);
+  }
+
+  /**
+   * The dependency graph and the responses of one {@link #execute(List)} call.
+   */
+  private class Execution {
+
+    private final List<BatchRequest> requests;
+
+    private final BatchResponse[] responses;
+
+    private final List<Set<Integer>> dependencies = new ArrayList<>();
+
+    private final List<Set<Integer>> resultReferences = new ArrayList<>();
+
+    private final List<Integer> dependsOn = new ArrayList<>();
+
+    Execution(List<BatchRequest> requests) {
+      this.requests = requests;
+      this.responses = new BatchResponse[requests.size()];
+
+      Map<String, Integer> indexByName = new HashMap<>();
+      for (int i = 0; i < requests.size(); i++) {
+        String name = requests.get(i).getName();
+        if (name != null) {
+          indexByName.put(name, i);
+        }
+      }
+
+      for (BatchRequest request : requests) {
+        Set<Integer> references = new HashSet<>();
+        addReferences(request.getRelativeUrl(), indexByName, references);
+        addReferences(UrlUtils.urlDecode(request.getBody()), indexByName, references);
+        Set<Integer> requestDependencies = new HashSet<>(references);
+        Integer dependsOnIndex = Optional.ofNullable(request.getDependsOn()).map(indexByName::get).orElse(null);
+        Optional.ofNullable(dependsOnIndex).ifPresent(requestDependencies::add);
+        dependsOn.add(dependsOnIndex);
+        resultReferences.add(references);
+        dependencies.add(requestDependencies);
+      }
+    }
+
+    private void addReferences(String text, Map<String, Integer> indexByName, Set<Integer> references) {
+      if (text == null) {
+        return;
+      }
+      Matcher matcher = RESULT_REFERENCE.matcher(text);
+      while (matcher.find()) {
+        Optional.ofNullable(indexByName.get(matcher.group(1))).ifPresent(references::add);
+      }
+    }
+
+    /**
+     * Groups connected requests and packs the groups into chunks. The chunks of a lane are sent one after the other,
+     * the lanes concurrently.
+     */
+    List<List<List<Integer>>> createLanes() {
+      int[] parent = new int[requests.size()];
+      for (int i = 0; i < parent.length; i++) {
+        parent[i] = i;
+      }
+      for (int i = 0; i < parent.length; i++) {
+        for (int dependency : dependencies.get(i)) {
+          parent[find(parent, i)] = find(parent, dependency);
+        }
+      }
+
+      Map<Integer, List<Integer>> components = new LinkedHashMap<>();
+      for (int i = 0; i < parent.length; i++) {
+        components.computeIfAbsent(find(parent, i), root -> new ArrayList<>()).add(i);
+      }
+
+      List<List<List<Integer>>> lanes = new ArrayList<>();
+      List<Integer> packed = new ArrayList<>();
+      for (List<Integer> component : components.values()) {
+        if (component.size() > MAX_BATCH_SIZE) {
+          lanes.add(splitInDependencyOrder(component));
+          continue;
+        }
+        if (packed.size() + component.size() > MAX_BATCH_SIZE) {
+          lanes.add(Collections.singletonList(packed));
+          packed = new ArrayList<>();
+        }
+        packed.addAll(component);
+      }
+      if (!packed.isEmpty()) {
+        lanes.add(Collections.singletonList(packed));
+      }
+
+      CLIENT_LOGGER.debug("Executing {} batch requests in {} lanes", requests.size(), lanes.size());
+      return lanes;
+    }
+
+    private int find(int[] parent, int i) {
+      while (parent[i] != i) {
+        parent[i] = parent[parent[i]];
+        i = parent[i];
+      }
+      return i;
+    }
+
+    private List<List<Integer>> splitInDependencyOrder(List<Integer> component) {
+      Map<Integer, Integer> missing = new HashMap<>();
+      Map<Integer, List<Integer>> dependents = new HashMap<>();
+      PriorityQueue<Integer> ready = new PriorityQueue<>();
+      for (int i : component) {
+        missing.put(i, dependencies.get(i).size());
+        dependencies.get(i).forEach(d -> dependents.computeIfAbsent(d, key -> new ArrayList<>()).add(i));
+        if (dependencies.get(i).isEmpty()) {
+          ready.add(i);
+        }
+      }
+
+      List<List<Integer>> chunks = new ArrayList<>();
+      Map<Integer, Integer> chunkIndex = new HashMap<>();
+      List<Integer> chunk = new ArrayList<>();
+      while (!ready.isEmpty()) {
+        int i = ready.poll();
+        if (chunk.size() == MAX_BATCH_SIZE) {
+          chunks.add(chunk);
+          chunk = new ArrayList<>();
+        }
+        for (int reference : resultReferences.get(i)) {
+          if (chunkIndex.get(reference) != chunks.size()) {
+            throw new IllegalArgumentException("Batch request '" + requests.get(i).getRelativeUrl()
+                + "' references the result of a request that has to be sent in an earlier batch call");
+          }
+        }
+        chunk.add(i);
+        chunkIndex.put(i, chunks.size());
+        for (int dependent : dependents.getOrDefault(i, Collections.emptyList())) {
+          if (missing.merge(dependent, -1, Integer::sum) == 0) {
+            ready.add(dependent);
+          }
+        }
+      }
+      chunks.add(chunk);
+
+      if (chunkIndex.size() != component.size()) {
+        throw new IllegalArgumentException("The batch requests contain a dependency cycle.");
+      }
+      return chunks;
+    }
+
+    void executeChunk(List<Integer> chunk) {
+      // Facebook would skip these as well, their dependency was sent in an earlier call and failed
+      List<Integer> toSend = chunk.stream()
+        .filter(i -> dependencies.get(i).stream().allMatch(d -> chunk.contains(d) || succeeded(d)))
+        .collect(Collectors.toList());
+
+      for (int attempt = 1; !toSend.isEmpty(); attempt++) {
+        if (attempt > 1) {
+          try {
+            pause(retryDelayInMs << (attempt - 2));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FacebookNetworkException(e);
+          }
+        }
+
+        List<BatchResponse> batchResponses;
+        try {
+          batchResponses = facebookClient.executeBatch(createBatch(toSend));
+        } catch (FacebookNetworkException e) {
+          // the call may have failed after Facebook applied it
+          if (attempt >= maxAttempts || !toSend.stream().map(requests::get).allMatch(BatchExecutor.this::isRetryable)) {
+            throw e;
+          }
+          CLIENT_LOGGER.debug("Batch call failed (attempt {} of {}), retrying", attempt, maxAttempts);
+          continue;
+        }
+
+        Set<Integer> retry = new LinkedHashSet<>();
+        for (int k = 0; k < toSend.size(); k++) {
+          int i = toSend.get(k);
+          responses[i] = k < batchResponses.size() ? batchResponses.get(k) : null;
+          if (isTransientFailure(requests.get(i), responses[i])) {
+            retry.add(i);
+          }
+        }
+
+        if (attempt >= maxAttempts) {
+          return;
+        }
+        toSend = retainRetryable(retry);
+        if (!toSend.isEmpty()) {
+          CLIENT_LOGGER.debug("Retrying {} transiently failed batch requests", toSend.size());
+        }
+      }
+    }
+
+    /**
+     * Drops requests whose dependencies are neither done nor sent again with them.
+     */
+    private List<Integer> retainRetryable(Set<Integer> retry) {
+      boolean changed = true;
+      while (changed) {
+        changed = retry.removeIf(i -> !retry.containsAll(resultReferences.get(i))
+            || !dependencies.get(i).stream().allMatch(d -> retry.contains(d) || succeeded(d)));
+      }
+      return new ArrayList<>(retry);
+    }
+
+    private List<BatchRequest> createBatch(List<Integer> indices) {
+      List<BatchRequest> batch = new ArrayList<>(indices.size());
+      for (int i : indices) {
+        BatchRequest request = requests.get(i);
+        Integer dependsOnIndex = dependsOn.get(i);
+        boolean keepDependsOn = dependsOnIndex == null || indices.contains(dependsOnIndex);
+        batch.add(keepDependsOn ? request : request.withoutDependsOn());
+      }
+      return batch;
+    }
+
+    private boolean succeeded(int i) {
+      BatchResponse response = responses[i];
+      if (response == null || response.getCode() == null) {
+        return requests.get(i).isOmitResponseOnSuccess();
+      }
+      return response.getCode() >= 200 && response.getCode() < 300;
+    }
+  }
+}
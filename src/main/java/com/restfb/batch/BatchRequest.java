@@ -27,6 +27,7 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -117,6 +118,19 @@ public class BatchRequest {
     this.body = generateParameterString(bodyParameters);
   }
 
+  /**
+   * Copies this request without its {@code depends_on} reference, for sending it apart from the request it depends
+   * on.
+   *
+   * @return the copy
+   */
+  BatchRequest withoutDependsOn() {
+    BatchRequest copy = new BatchRequest(relativeUrl, Collections.emptyList(), method, headers,
+      Collections.emptyList(), attachedFiles, null, name, omitResponseOnSuccess);
+    copy.body = body;
+    return copy;
+  }
+
   /**
    * Builder pattern implementation used to construct instances of <tt>{@link BatchRequest}</tt>.
    * <p>
@@ -50,7 +50,7 @@ public class DefaultFacebookExceptionGenerator implements FacebookExceptionGener
       // If we have a batch API exception, throw it.
       throwBatchFacebookResponseStatusExceptionIfNecessary(json, httpStatusCode);
 
-      JsonObject errorObject = Json.parse(json).asObject();
+      JsonObject errorObject = Json.parseLazy(json).asObject();
 
       if (!errorObject.contains(ERROR_ATTRIBUTE_NAME)) {
         return;
@@ -22,7 +22,9 @@
 package com.restfb.json;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 
@@ -276,6 +278,28 @@ public final class Json {
     return handler.getValue();
   }
 
+  /**
+   * Parses the given input string as JSON, building nested objects and arrays only when they are accessed. The input
+   * must contain a valid JSON value, optionally padded with whitespace.
+   * <p>
+   * The whole input is validated up front, but without creating any values. The members of an object or the elements
+   * of an array are only decoded when it is first accessed through {@link JsonObject#get(String)},
+   * {@link JsonArray#get(int)}, iteration, comparison or serialization. This makes it cheap to read a few members,
+   * like an error or the paging information, from a large response. The returned values behave exactly like the ones
+   * returned by {@link #parse(String)}, but keep the input string in memory until all nested values are built.
+   *
+   * @param string
+   *          the input string, must be valid JSON
+   * @return a value that represents the parsed JSON
+   * @throws ParseException
+   *           if the input is not valid JSON
+   * @since 3.16.0
+   */
+  public static JsonValue parseLazy(String string) {
+    Objects.requireNonNull(string, STRING_IS_NULL);
+    return LazyJsonParser.parse(string);
+  }
+
   /**
    * Reads the entire input from the given reader and parses it as JSON. The input must contain a
    * valid JSON value, optionally padded with whitespace.
@@ -299,6 +323,59 @@ public final class Json {
     return handler.getValue();
   }
 
+  /**
+   * Parses the given UTF-8 encoded bytes as JSON, without decoding them into a string first. The input must contain a
+   * valid JSON value, optionally padded with whitespace.
+   *
+   * @param bytes
+   *          the input bytes, must be valid JSON
+   * @return a value that represents the parsed JSON
+   * @throws ParseException
+   *           if the input is not valid JSON
+   * @since 3.16.0
+   */
+  public static JsonValue parse(byte[] bytes) {
+    DefaultHandler handler = new DefaultHandler();
+    new Utf8JsonParser(handler).parse(bytes);
+    return handler.getValue();
+  }
+
+  /**
+   * Parses the remaining bytes of the given heap or direct buffer as UTF-8 encoded JSON, without decoding them into a
+   * string first. The input must contain a valid JSON value, optionally padded with whitespace.
+   *
+   * @param buffer
+   *          the input buffer, must be valid JSON between its position and its limit
+   * @return a value that represents the parsed JSON
+   * @throws ParseException
+   *           if the input is not valid JSON
+   * @since 3.16.0
+   */
+  public static JsonValue parse(ByteBuffer buffer) {
+    DefaultHandler handler = new DefaultHandler();
+    new Utf8JsonParser(handler).parse(buffer);
+    return handler.getValue();
+  }
+
+  /**
+   * Reads the entire input from the given stream and parses it as UTF-8 encoded JSON, without decoding it into a
+   * string first. The input must contain a valid JSON value, optionally padded with whitespace.
+   *
+   * @param inputStream
+   *          the stream to read the JSON value from, it is not closed
+   * @return a value that represents the parsed JSON
+   * @throws IOException
+   *           if an I/O error occurs in the stream
+   * @throws ParseException
+   *           if the input is not valid JSON
+   * @since 3.16.0
+   */
+  public static JsonValue parse(InputStream inputStream) throws IOException {
+    DefaultHandler handler = new DefaultHandler();
+    new Utf8JsonParser(handler).parse(inputStream);
+    return handler.getValue();
+  }
+
   private static String cutOffPointZero(String string) {
     if (string.endsWith(".0")) {
       return string.substring(0, string.length() - 2);
@@ -345,7 +345,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    *           if the index is out of range, i.e. <code>index &lt; 0</code> or <code>index &gt;= size</code>
    */
   public JsonValue get(int index) {
-    return values.get(index);
+    return LazyJsonValue.resolve(values.get(index));
   }
 
   /**
@@ -356,7 +356,18 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
    * @return a list of the values in this array
    */
   public List<JsonValue> values() {
-    return Collections.unmodifiableList(values);
+    return Collections.unmodifiableList(new AbstractList<JsonValue>() {
+
+      @Override
+      public JsonValue get(int index) {
+        return JsonArray.this.get(index);
+      }
+
+      @Override
+      public int size() {
+        return values.size();
+      }
+    });
   }
 
   public Stream<JsonValue> valueStream() {
@@ -380,7 +391,7 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
 
       @Override
       public JsonValue next() {
-        return iterator.next();
+        return LazyJsonValue.resolve(iterator.next());
       }
 
       @Override
@@ -437,6 +448,9 @@ public class JsonArray extends JsonValue implements Iterable<JsonValue> {
     if (this == object) {
       return true;
     }
+    if (object instanceof LazyJsonValue) {
+      return equals(((LazyJsonValue) object).get());
+    }
     if (object == null) {
       return false;
     }
@@ -21,10 +21,12 @@
  ******************************************************************************/
 package com.restfb.json;
 
+import java.util.function.Supplier;
 
 /**
- * A handler for parser events. Instances of this class can be given to a {@link JsonParser}. The
- * parser will then call the methods of the given handler while reading the input.
+ * A handler for parser events. Instances of this class can be given to a {@link JsonParser} or a
+ * {@link Utf8JsonParser}. The parser will then call the methods of the given handler while reading
+ * the input.
  * <p>
  * The default implementations of these methods do nothing. Subclasses may override only those
  * methods they are interested in. They can use <code>getLocation()</code> to access the current
@@ -54,7 +56,7 @@ package com.restfb.json;
  */
 public abstract class JsonHandler<A, O> {
 
-  JsonParser parser;
+  Supplier<Location> parserLocation;
 
   /**
    * Returns the current parser location.
@@ -62,7 +64,7 @@ public abstract class JsonHandler<A, O> {
    * @return the current parser location
    */
   protected Location getLocation() {
-    return parser.getLocation();
+    return parserLocation.get();
   }
 
   /**
@@ -75,7 +75,7 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
   public JsonObject() {
     names = new ArrayList<>();
     values = new ArrayList<>();
-    table = new HashIndexTable();
+    table = new HashIndexTable(names);
   }
 
   /**
@@ -93,12 +93,13 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
     if (unmodifiable) {
       names = Collections.unmodifiableList(object.names);
       values = Collections.unmodifiableList(object.values);
+      // share the index, so the view reflects changes to the object
+      table = object.table;
     } else {
       names = new ArrayList<>(object.names);
       values = new ArrayList<>(object.values);
+      table = new HashIndexTable(object.table, names);
     }
-    table = new HashIndexTable();
-    updateHashIndex();
   }
 
   /**
@@ -268,9 +269,9 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
   public JsonObject add(String name, JsonValue value) {
     Objects.requireNonNull(name, NAME_IS_NULL);
     Objects.requireNonNull(value, VALUE_IS_NULL);
-    table.add(name, names.size());
     names.add(name);
     values.add(value);
+    table.add(name, names.size() - 1);
     return this;
   }
 
@@ -423,9 +424,9 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
     if (index != -1) {
       values.set(index, value);
     } else {
-      table.add(name, names.size());
       names.add(name);
       values.add(value);
+      table.add(name, names.size() - 1);
     }
     return this;
   }
@@ -446,6 +447,10 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
       table.remove(index);
       names.remove(index);
       values.remove(index);
+      int previousIndex = names.lastIndexOf(name);
+      if (previousIndex != -1) {
+        table.add(name, previousIndex);
+      }
     }
     return this;
   }
@@ -460,7 +465,7 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
    * @return whether or not the member is present
    */
   public boolean contains(String name) {
-    return names.contains(name);
+    return name != null && indexOf(name) != -1;
   }
 
   /**
@@ -492,7 +497,7 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
   public JsonValue get(String name) {
     Objects.requireNonNull(name, NAME_IS_NULL);
     int index = indexOf(name);
-    return index != -1 ? values.get(index) : null;
+    return index != -1 ? LazyJsonValue.resolve(values.get(index)) : null;
   }
 
   /**
@@ -651,7 +656,7 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
       @Override
       public Member next() {
         String name = namesIterator.next();
-        JsonValue value = valuesIterator.next();
+        JsonValue value = LazyJsonValue.resolve(valuesIterator.next());
         return new Member(name, value);
       }
 
@@ -705,6 +710,9 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
     if (this == obj) {
       return true;
     }
+    if (obj instanceof LazyJsonValue) {
+      return equals(((LazyJsonValue) obj).get());
+    }
     if (obj == null) {
       return false;
     }
@@ -716,16 +724,12 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
   }
 
   int indexOf(String name) {
-    int index = table.get(name);
-    if (index != -1 && name.equals(names.get(index))) {
-      return index;
-    }
-    return names.lastIndexOf(name);
+    return table.get(name);
   }
 
   private synchronized void readObject(ObjectInputStream inputStream) throws IOException, ClassNotFoundException {
     inputStream.defaultReadObject();
-    table = new HashIndexTable();
+    table = new HashIndexTable(names);
     updateHashIndex();
   }
 
@@ -805,46 +809,111 @@ public class JsonObject extends JsonValue implements Iterable<Member> {
 
   }
 
+  /**
+   * Maps member names to the index of the last member with that name, using open addressing with linear probing.
+   * <p>
+   * The table only stores indexes and compares the probed names against the list of member names, so it stays compact.
+   * Names must be added to that list before they are added to the table.
+   * It starts with 8 slots and doubles whenever it is half full, so lookups take constant time for any number of
+   * members.
+   */
   static class HashIndexTable {
 
-    private final byte[] hashTable = new byte[32]; // must be a power of two
+    private static final int INITIAL_CAPACITY = 8; // must be a power of two
+
+    private final List<String> names;
+    private int[] slots = new int[INITIAL_CAPACITY]; // index + 1, 0 stands for empty
+    private int size;
 
-    public HashIndexTable() {
-        // nothing to do here
+    HashIndexTable(List<String> names) {
+      this.names = names;
     }
 
-    public HashIndexTable(HashIndexTable original) {
-      System.arraycopy(original.hashTable, 0, hashTable, 0, hashTable.length);
+    HashIndexTable(HashIndexTable original, List<String> names) {
+      this.names = names;
+      slots = original.slots.clone();
+      size = original.size;
     }
 
     void add(String name, int index) {
       int slot = hashSlotFor(name);
-      if (index < 0xff) {
-        // increment by 1, 0 stands for empty
-        hashTable[slot] = (byte) (index + 1);
-      } else {
-        hashTable[slot] = 0;
+      while (slots[slot] != 0) {
+        if (name.equals(names.get(slots[slot] - 1))) {
+          slots[slot] = index + 1;
+          return;
+        }
+        slot = slot + 1 & slots.length - 1;
+      }
+      slots[slot] = index + 1;
+      if (++size * 2 > slots.length) {
+        resize(slots.length * 2);
       }
     }
 
     void remove(int index) {
-      for (int i = 0; i < hashTable.length; i++) {
-        if (hashTable[i] == index + 1) {
-          hashTable[i] = 0;
-        } else if (hashTable[i] > index + 1) {
-          hashTable[i]--;
+      int slot = slotOf(index);
+      if (slot != -1) {
+        // shift back the following entries of the probe sequence that would no longer be reachable
+        int mask = slots.length - 1;
+        int next = slot + 1 & mask;
+        while (slots[next] != 0) {
+          int home = hashSlotFor(names.get(slots[next] - 1));
+          if ((next - home & mask) >= (next - slot & mask)) {
+            slots[slot] = slots[next];
+            slot = next;
+          }
+          next = next + 1 & mask;
+        }
+        slots[slot] = 0;
+        size--;
+      }
+      for (int i = 0; i < slots.length; i++) {
+        if (slots[i] > index + 1) {
+          slots[i]--;
         }
       }
     }
 
     int get(Object name) {
       int slot = hashSlotFor(name);
-      // subtract 1, 0 stands for empty
-      return (hashTable[slot] & 0xff) - 1;
+      while (slots[slot] != 0) {
+        int index = slots[slot] - 1;
+        if (name.equals(names.get(index))) {
+          return index;
+        }
+        slot = slot + 1 & slots.length - 1;
+      }
+      return -1;
+    }
+
+    private int slotOf(int index) {
+      int slot = hashSlotFor(names.get(index));
+      while (slots[slot] != 0) {
+        if (slots[slot] == index + 1) {
+          return slot;
+        }
+        slot = slot + 1 & slots.length - 1;
+      }
+      return -1;
+    }
+
+    private void resize(int capacity) {
+      int[] oldSlots = slots;
+      slots = new int[capacity];
+      for (int entry : oldSlots) {
+        if (entry != 0) {
+          int slot = hashSlotFor(names.get(entry - 1));
+          while (slots[slot] != 0) {
+            slot = slot + 1 & capacity - 1;
+          }
+          slots[slot] = entry;
+        }
+      }
     }
 
     private int hashSlotFor(Object element) {
-      return element.hashCode() & hashTable.length - 1;
+      int hash = element.hashCode();
+      return (hash ^ hash >>> 16) & slots.length - 1;
     }
 
   }
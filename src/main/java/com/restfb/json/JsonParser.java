@@ -69,7 +69,7 @@ public class JsonParser {
   public JsonParser(JsonHandler<?, ?> handler) {
     Objects.requireNonNull(handler, "handler is null");
     this.handler = (JsonHandler<Object, Object>)handler;
-    handler.parser = this;
+    handler.parserLocation = this::getLocation;
   }
 
   /**
@@ -253,7 +253,7 @@ public class JsonParser {
     if (current != '"') {
       throw expected("name");
     }
-    return readStringInternal();
+    return readStringInternal(true);
   }
 
   private void readNull() throws IOException {
@@ -292,10 +292,10 @@ public class JsonParser {
 
   private void readString() throws IOException {
     handler.startString();
-    handler.endString(readStringInternal());
+    handler.endString(readStringInternal(false));
   }
 
-  private String readStringInternal() throws IOException {
+  private String readStringInternal(boolean name) throws IOException {
     read();
     startCapture();
     while (current != '"') {
@@ -309,7 +309,7 @@ public class JsonParser {
         read();
       }
     }
-    String string = endCapture();
+    String string = endCapture(name);
     read();
     return string;
   }
@@ -369,7 +369,7 @@ public class JsonParser {
     }
     readFraction();
     readExponent();
-    handler.endNumber(endCapture());
+    handler.endNumber(endCapture(false));
   }
 
   private boolean readFraction() throws IOException {
@@ -458,7 +458,7 @@ public class JsonParser {
     captureStart = -1;
   }
 
-  private String endCapture() {
+  private String endCapture(boolean name) {
     int start = captureStart;
     int end = index - 1;
     captureStart = -1;
@@ -468,7 +468,8 @@ public class JsonParser {
       captureBuffer.setLength(0);
       return captured;
     }
-    return new String(buffer, start, end - start);
+    // names are canonicalized straight from the buffer, names with escapes or spanning two buffer fills are not
+    return name ? NameCache.get(buffer, start, end - start) : new String(buffer, start, end - start);
   }
 
   Location getLocation() {
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.json;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Writes JSON objects and arrays member by member to a writer, without building a {@link JsonValue} tree first.
+ * <p>
+ * By default, the output is formatted like {@link JsonValue#toString()}. Callers are responsible for calling the methods in a
+ * valid order, e.g. {@link #name(String)} before each value of an object. Nothing is buffered, wrap the writer in a
+ * buffer if it is expensive to write to.
+ *
+ * @since 3.16.0
+ */
+public class JsonStreamWriter {
+
+  private final JsonWriter writer;
+  private boolean[] hasValues = new boolean[16];
+  private int depth;
+  private boolean afterName;
+
+  /**
+   * Creates a new stream writer that writes JSON to the given writer in the same form as {@link JsonValue#toString()}.
+   *
+   * @param writer
+   *          the writer to write the JSON to
+   */
+  public JsonStreamWriter(Writer writer) {
+    this(writer, WriterConfig.UNICODE);
+  }
+
+  /**
+   * Creates a new stream writer that writes JSON to the given writer using the given formatting.
+   *
+   * @param writer
+   *          the writer to write the JSON to
+   * @param config
+   *          a configuration that controls the formatting
+   */
+  public JsonStreamWriter(Writer writer, WriterConfig config) {
+    Objects.requireNonNull(writer, "writer is null");
+    Objects.requireNonNull(config, "config is null");
+    this.writer = config.createWriter(writer);
+  }
+
+  /**
+   * Starts a new object, as a value of the current array or object.
+   *
+   * @return the stream writer itself, to enable method chaining
+   * @throws IOException
+   *           if an I/O error occurs in the writer
+   */
+  public JsonStreamWriter beginObject() throws IOException {
+    beforeValue();
+    writer.writeObjectOpen();
+    push();
+    return this;
+  }
+
+  /**
+   * Ends the current object.
+   *
+   * @return the stream writer itself, to enable method chaining
+   * @throws IOException
+   *           if an I/O error occurs in the writer
+   */
+  public JsonStreamWriter endObject() throws IOException {
+    depth--;
+    writer.writeObjectClose();
+    return this;
+  }
+
+  /**
+   * Starts a new array, as a value of the current array or object.
+   *
+   * @return the stream writer itself, to enable method chaining
+   * @throws IOException
+   *           if an I/O error occurs in the writer
+   */
+  public JsonStreamWriter beginArray() throws IOException {
+    beforeValue();
+    writer.writeArrayOpen();
+    push();
+    return this;
+  }
+
+  /**
+   * Ends the current array.
+   *
+   * @return the stream writer itself, to enable method chaining
+   * @throws IOException
+   *           if an I/O error occurs in the writer
+   */
+  public JsonStreamWriter endArray() throws IOException {
+    depth--;
+    writer.writeArrayClose();
+    return this;
+  }
+
+  /**
+   * Writes the name of the next member of the current object. It must be followed by a value.
+   *
+   * @param name
+   *          the name of the member
+   * @return the stream writer itself, to enable method chaining
+   * @throws IOException
+   *           if an I/O error occurs in the writer
+   */
+  public JsonStreamWriter name(String name) throws IOException {
+    Objects.requireNonNull(name, JsonValue.NAME_IS_NULL);
+    if (hasValues[depth]) {
+      writer.writeObjectSeparator();
+    }
+    hasValues[depth] = true;
+    writer.writeMemberName(name);
+    writer.writeMemberSeparator();
+    afterName = true;
+    return this;
+  }
+
+  /**
+   * Writes the given value, as a value of the current array or object.
+   *
+   * @param value
+   *          the value to write, objects and arrays are written completely
+   * @return the stream writer itself, to enable method chaining
+   * @throws IOException
+   *           if an I/O error occurs in the writer
+   */
+  public JsonStreamWriter value(JsonValue value) throws IOException {
+    Objects.requireNonNull(value, JsonValue.VALUE_IS_NULL);
+    beforeValue();
+    value.write(writer);
+    return this;
+  }
+
+  private void beforeValue() throws IOException {
+    if (afterName) {
+      afterName = false;
+    } else if (depth > 0) {
+      if (hasValues[depth]) {
+        writer.writeArraySeparator();
+      }
+      hasValues[depth] = true;
+    }
+  }
+
+  private void push() {
+    if (++depth == hasValues.length) {
+      hasValues = Arrays.copyOf(hasValues, depth * 2);
+    }
+    hasValues[depth] = false;
+  }
+
+}
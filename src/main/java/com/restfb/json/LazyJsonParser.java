@@ -0,0 +1,503 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.json;
+
+import java.util.Arrays;
+
+/**
+ * Parses JSON into objects and arrays whose nested objects and arrays are only built when they are accessed.
+ * <p>
+ * A single structural pass validates the complete input, exactly as {@link JsonParser} would, but creates no values.
+ * It only records where each object and array ends. The root value is then built from the source string. Nested
+ * objects and arrays are added as placeholders that remember their offset, and are built on first access in the same
+ * way. Names, strings and numbers are only decoded for the objects and arrays that are actually built.
+ *
+ * @since 3.16.0
+ */
+final class LazyJsonParser {
+
+  private static final int MAX_NESTING_LEVEL = 1000;
+
+  private final String input;
+  private int index;
+  private int current;
+  private int nestingLevel;
+
+  /*
+   * Objects and arrays are numbered in the order of their opening brackets. For each one, the offset after its closing
+   * bracket and the number of the next object or array after it (its children are numbered in between) are recorded.
+   */
+  private int[] containerEnds = new int[16];
+  private int[] containerSuccessors = new int[16];
+  private int containerCount;
+
+  private LazyJsonParser(String input) {
+    this.input = input;
+  }
+
+  /**
+   * Parses the given input string as JSON. The input must contain a valid JSON value, optionally padded with
+   * whitespace.
+   *
+   * @param string
+   *          the input string, must be valid JSON
+   * @return a value that represents the parsed JSON, its nested objects and arrays are built on first access
+   * @throws ParseException
+   *           if the input is not valid JSON
+   */
+  static JsonValue parse(String string) {
+    LazyJsonParser parser = new LazyJsonParser(string);
+    int valueStart = parser.scan();
+    return parser.build(valueStart, 0);
+  }
+
+  // structural pass
+
+  private int scan() {
+    index = -1;
+    read();
+    skipWhiteSpace();
+    int valueStart = index;
+    scanValue();
+    skipWhiteSpace();
+    if (!isEndOfText()) {
+      throw error("Unexpected character");
+    }
+    return valueStart;
+  }
+
+  private void scanValue() {
+    switch (current) {
+      case 'n':
+        read();
+        readRequiredChars("ull");
+        break;
+      case 't':
+        read();
+        readRequiredChars("rue");
+        break;
+      case 'f':
+        read();
+        readRequiredChars("alse");
+        break;
+      case '"':
+        scanString();
+        break;
+      case '[':
+        scanArray();
+        break;
+      case '{':
+        scanObject();
+        break;
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+        scanNumber();
+        break;
+      default:
+        throw expected("value");
+    }
+  }
+
+  private void scanArray() {
+    int container = startContainer();
+    skipWhiteSpace();
+    if (!readChar(']')) {
+      do {
+        skipWhiteSpace();
+        scanValue();
+        skipWhiteSpace();
+      } while (readChar(','));
+      if (!readChar(']')) {
+        throw expected("',' or ']'");
+      }
+    }
+    endContainer(container);
+  }
+
+  private void scanObject() {
+    int container = startContainer();
+    skipWhiteSpace();
+    if (!readChar('}')) {
+      do {
+        skipWhiteSpace();
+        if (current != '"') {
+          throw expected("name");
+        }
+        scanString();
+        skipWhiteSpace();
+        if (!readChar(':')) {
+          throw expected("':'");
+        }
+        skipWhiteSpace();
+        scanValue();
+        skipWhiteSpace();
+      } while (readChar(','));
+      if (!readChar('}')) {
+        throw expected("',' or '}'");
+      }
+    }
+    endContainer(container);
+  }
+
+  private int startContainer() {
+    read();
+    if (++nestingLevel > MAX_NESTING_LEVEL) {
+      throw error("Nesting too deep");
+    }
+    if (containerCount == containerEnds.length) {
+      containerEnds = Arrays.copyOf(containerEnds, containerCount * 2);
+      containerSuccessors = Arrays.copyOf(containerSuccessors, containerCount * 2);
+    }
+    return containerCount++;
+  }
+
+  private void endContainer(int container) {
+    nestingLevel--;
+    containerEnds[container] = index;
+    containerSuccessors[container] = containerCount;
+  }
+
+  private void scanString() {
+    read();
+    while (current != '"') {
+      if (current == '\\') {
+        scanEscape();
+      } else if (current < 0x20) {
+        throw expected("valid string character");
+      } else {
+        read();
+      }
+    }
+    read();
+  }
+
+  private void scanEscape() {
+    read();
+    switch (current) {
+      case '"':
+      case '/':
+      case '\\':
+      case 'b':
+      case 'f':
+      case 'n':
+      case 'r':
+      case 't':
+        break;
+      case 'u':
+        for (int i = 0; i < 4; i++) {
+          read();
+          if (!isHexDigit()) {
+            throw expected("hexadecimal digit");
+          }
+        }
+        break;
+      default:
+        throw expected("valid escape sequence");
+    }
+    read();
+  }
+
+  private void scanNumber() {
+    readChar('-');
+    int firstDigit = current;
+    if (!readDigit()) {
+      throw expected("digit");
+    }
+    if (firstDigit != '0') {
+      skipDigits();
+    }
+    if (readChar('.')) {
+      readRequiredDigits();
+    }
+    if (readChar('e') || readChar('E')) {
+      if (!readChar('+')) {
+        readChar('-');
+      }
+      readRequiredDigits();
+    }
+  }
+
+  private void readRequiredDigits() {
+    if (!readDigit()) {
+      throw expected("digit");
+    }
+    skipDigits();
+  }
+
+  private void skipDigits() {
+    while (readDigit()) {
+      // nothing to do here
+    }
+  }
+
+  private void readRequiredChars(String chars) {
+    for (int i = 0; i < chars.length(); i++) {
+      char ch = chars.charAt(i);
+      if (!readChar(ch)) {
+        throw expected("'" + ch + "'");
+      }
+    }
+  }
+
+  // building values from the validated input
+
+  /**
+   * Builds the value that starts at the given offset. If it is an object or array, its members are built, except
+   * nested objects and arrays which are added as placeholders.
+   *
+   * @param offset
+   *          the offset of the first character of the value
+   * @param container
+   *          the number of the object or array at that offset, ignored for other values
+   * @return the value
+   */
+  synchronized JsonValue build(int offset, int container) {
+    index = offset - 1;
+    read();
+    switch (current) {
+      case '[':
+        return buildArray(container);
+      case '{':
+        return buildObject(container);
+      default:
+        return buildScalar();
+    }
+  }
+
+  private JsonArray buildArray(int container) {
+    JsonArray array = new JsonArray();
+    int child = container + 1;
+    read();
+    skipWhiteSpace();
+    while (current != ']') {
+      if (current == '[' || current == '{') {
+        array.add(new LazyJsonValue(this, index, child));
+        child = skipContainer(child);
+      } else {
+        array.add(buildScalar());
+      }
+      skipWhiteSpace();
+      readChar(',');
+      skipWhiteSpace();
+    }
+    return array;
+  }
+
+  private JsonObject buildObject(int container) {
+    JsonObject object = new JsonObject();
+    int child = container + 1;
+    read();
+    skipWhiteSpace();
+    while (current != '}') {
+      String name = buildName();
+      skipWhiteSpace();
+      readChar(':');
+      skipWhiteSpace();
+      if (current == '[' || current == '{') {
+        object.add(name, new LazyJsonValue(this, index, child));
+        child = skipContainer(child);
+      } else {
+        object.add(name, buildScalar());
+      }
+      skipWhiteSpace();
+      readChar(',');
+      skipWhiteSpace();
+    }
+    return object;
+  }
+
+  private int skipContainer(int container) {
+    index = containerEnds[container] - 1;
+    read();
+    return containerSuccessors[container];
+  }
+
+  private JsonValue buildScalar() {
+    switch (current) {
+      case 'n':
+        index += 3;
+        read();
+        return Json.NULL;
+      case 't':
+        index += 3;
+        read();
+        return Json.TRUE;
+      case 'f':
+        index += 4;
+        read();
+        return Json.FALSE;
+      case '"':
+        return new JsonString(buildString());
+      default:
+        int numberStart = index;
+        scanNumber();
+        return new JsonNumber(input.substring(numberStart, index));
+    }
+  }
+
+  private String buildName() {
+    int nameStart = index + 1;
+    int nameEnd = nameStart;
+    char ch;
+    while ((ch = input.charAt(nameEnd)) != '"' && ch != '\\') {
+      nameEnd++;
+    }
+    if (ch == '\\') {
+      return buildString();
+    }
+    index = nameEnd;
+    read();
+    return NameCache.get(input, nameStart, nameEnd);
+  }
+
+  private String buildString() {
+    int stringStart = index + 1;
+    int stringEnd = stringStart;
+    char ch;
+    while ((ch = input.charAt(stringEnd)) != '"' && ch != '\\') {
+      stringEnd++;
+    }
+    index = stringEnd;
+    if (ch == '"') {
+      read();
+      return input.substring(stringStart, stringEnd);
+    }
+    StringBuilder builder = new StringBuilder().append(input, stringStart, stringEnd);
+    current = ch;
+    while (current != '"') {
+      if (current == '\\') {
+        index++;
+        char escaped = input.charAt(index);
+        switch (escaped) {
+          case 'b':
+            builder.append('\b');
+            break;
+          case 'f':
+            builder.append('\f');
+            break;
+          case 'n':
+            builder.append('\n');
+            break;
+          case 'r':
+            builder.append('\r');
+            break;
+          case 't':
+            builder.append('\t');
+            break;
+          case 'u':
+            builder.append((char) Integer.parseInt(input.substring(index + 1, index + 5), 16));
+            index += 4;
+            break;
+          default:
+            builder.append(escaped);
+        }
+      } else {
+        builder.append((char) current);
+      }
+      read();
+    }
+    read();
+    return builder.toString();
+  }
+
+  // reading
+
+  private boolean readChar(char ch) {
+    if (current != ch) {
+      return false;
+    }
+    read();
+    return true;
+  }
+
+  private boolean readDigit() {
+    if (!isDigit()) {
+      return false;
+    }
+    read();
+    return true;
+  }
+
+  private void skipWhiteSpace() {
+    while (isWhiteSpace()) {
+      read();
+    }
+  }
+
+  private void read() {
+    if (++index < input.length()) {
+      current = input.charAt(index);
+    } else {
+      index = input.length();
+      current = -1;
+    }
+  }
+
+  private Location getLocation() {
+    int line = 1;
+    int lineStart = 0;
+    for (int i = 0; i < index; i++) {
+      if (input.charAt(i) == '\n') {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+    return new Location(index, line, index - lineStart + 1);
+  }
+
+  private ParseException expected(String expected) {
+    if (isEndOfText()) {
+      return error("Unexpected end of input");
+    }
+    return error("Expected " + expected);
+  }
+
+  private ParseException error(String message) {
+    return new ParseException(message, getLocation());
+  }
+
+  private boolean isWhiteSpace() {
+    return current == ' ' || current == '\t' || current == '\n' || current == '\r';
+  }
+
+  private boolean isDigit() {
+    return current >= '0' && current <= '9';
+  }
+
+  private boolean isHexDigit() {
+    return current >= '0' && current <= '9' || current >= 'a' && current <= 'f' || current >= 'A' && current <= 'F';
+  }
+
+  private boolean isEndOfText() {
+    return current == -1;
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.json;
+
+import java.io.IOException;
+
+/**
+ * Placeholder for an object or array of a lazily parsed input that has not been accessed yet. The value is built by
+ * its {@link LazyJsonParser} on first access and all methods delegate to it.
+ * <p>
+ * {@link JsonObject} and {@link JsonArray} replace placeholders by the built value before they hand out a member, so
+ * callers never see this class.
+ *
+ * @since 3.16.0
+ */
+final class LazyJsonValue extends JsonValue {
+
+  private static final long serialVersionUID = 1L;
+
+  private final transient LazyJsonParser parser;
+  private final int offset;
+  private final int container;
+  private transient JsonValue value;
+
+  LazyJsonValue(LazyJsonParser parser, int offset, int container) {
+    this.parser = parser;
+    this.offset = offset;
+    this.container = container;
+  }
+
+  /**
+   * Returns the given value, or the built value if it is a placeholder.
+   *
+   * @param value
+   *          the value to resolve
+   * @return the value that can be handed out to callers
+   */
+  static JsonValue resolve(JsonValue value) {
+    return value instanceof LazyJsonValue ? ((LazyJsonValue) value).get() : value;
+  }
+
+  synchronized JsonValue get() {
+    if (value == null) {
+      value = parser.build(offset, container);
+    }
+    return value;
+  }
+
+  @Override
+  public boolean isObject() {
+    return get().isObject();
+  }
+
+  @Override
+  public boolean isArray() {
+    return get().isArray();
+  }
+
+  @Override
+  public JsonObject asObject() {
+    return get().asObject();
+  }
+
+  @Override
+  public JsonArray asArray() {
+    return get().asArray();
+  }
+
+  @Override
+  void write(JsonWriter writer) throws IOException {
+    get().write(writer);
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    return object instanceof JsonValue && get().equals(resolve((JsonValue) object));
+  }
+
+  @Override
+  public int hashCode() {
+    return get().hashCode();
+  }
+
+  private Object writeReplace() {
+    return get();
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.json;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A bounded cache of object member names shared by all parsers, so the same names in different responses are
+ * represented by the same {@link String} instance.
+ * <p>
+ * Names are matched directly in the parser's input, a string is only created when the name is not cached yet. The
+ * cache is a direct-mapped table: a name replaces the one cached in its slot, so the table never grows and
+ * frequently used names stay cached. Names longer than {@value #MAX_LENGTH} characters are not cached.
+ * <p>
+ * The table is read and written without locking. This is safe because strings are immutable, a reader sees either
+ * the previous or the new name of a slot, and the name is compared before it is used.
+ *
+ * @since 3.16.0
+ */
+final class NameCache {
+
+  static final int MAX_LENGTH = 32;
+
+  private static final int SIZE = 2048; // must be a power of two
+
+  private static final String[] NAMES = new String[SIZE];
+
+  private NameCache() {
+    // prevent instantiation
+  }
+
+  /**
+   * Returns the name stored in the given range of a character array.
+   *
+   * @param chars
+   *          the characters
+   * @param offset
+   *          the index of the first character of the name
+   * @param length
+   *          the number of characters of the name
+   * @return the cached name, or a new string that is cached from now on
+   */
+  static String get(char[] chars, int offset, int length) {
+    if (length > MAX_LENGTH) {
+      return new String(chars, offset, length);
+    }
+    int hash = 0;
+    for (int i = 0; i < length; i++) {
+      hash = 31 * hash + chars[offset + i];
+    }
+    int slot = slotFor(hash);
+    String name = NAMES[slot];
+    if (name != null && name.length() == length) {
+      int i = 0;
+      while (i < length && name.charAt(i) == chars[offset + i]) {
+        i++;
+      }
+      if (i == length) {
+        return name;
+      }
+    }
+    name = new String(chars, offset, length);
+    NAMES[slot] = name;
+    return name;
+  }
+
+  /**
+   * Returns the name stored in the given range of a string.
+   *
+   * @param string
+   *          the string
+   * @param start
+   *          the index of the first character of the name
+   * @param end
+   *          the index after the last character of the name
+   * @return the cached name, or a new string that is cached from now on
+   */
+  static String get(String string, int start, int end) {
+    int length = end - start;
+    if (length > MAX_LENGTH) {
+      return string.substring(start, end);
+    }
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + string.charAt(i);
+    }
+    int slot = slotFor(hash);
+    String name = NAMES[slot];
+    if (name != null && name.length() == length && string.regionMatches(start, name, 0, length)) {
+      return name;
+    }
+    name = string.substring(start, end);
+    NAMES[slot] = name;
+    return name;
+  }
+
+  /**
+   * Returns the name stored as UTF-8 in the given range of a buffer, if it only consists of ASCII characters.
+   *
+   * @param buffer
+   *          the buffer, read with absolute indexes
+   * @param start
+   *          the index of the first byte of the name
+   * @param end
+   *          the index after the last byte of the name
+   * @return the cached name, a new string that is cached from now on, or <code>null</code> if the name is too long or
+   *         contains other characters and must be decoded by the caller
+   */
+  static String get(ByteBuffer buffer, int start, int end) {
+    int length = end - start;
+    if (length > MAX_LENGTH) {
+      return null;
+    }
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      byte ch = buffer.get(i);
+      if (ch < 0) {
+        return null;
+      }
+      hash = 31 * hash + ch;
+    }
+    int slot = slotFor(hash);
+    String name = NAMES[slot];
+    if (name != null && name.length() == length) {
+      int i = 0;
+      while (i < length && name.charAt(i) == buffer.get(start + i)) {
+        i++;
+      }
+      if (i == length) {
+        return name;
+      }
+    }
+    char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) buffer.get(start + i);
+    }
+    name = new String(chars);
+    NAMES[slot] = name;
+    return name;
+  }
+
+  private static int slotFor(int hash) {
+    return (hash ^ hash >>> 16) & SIZE - 1;
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.json;
+
+import java.util.function.Consumer;
+
+/**
+ * A {@link JsonHandler} that builds a top-level JSON object, except for one array member whose elements are handed to
+ * a callback as soon as each of them is complete instead of being collected.
+ * <p>
+ * Used to decode large Graph API pages directly from the response stream: only the element that is currently parsed
+ * is held in memory, while the (small) remaining members like {@code paging} or {@code summary} are available from
+ * {@link #getRemainder()} after parsing has finished.
+ *
+ * @since 3.16.0
+ */
+public class StreamingArrayHandler extends Json.DefaultHandler {
+
+  private final String streamedMember;
+
+  private final Consumer<JsonValue> elementConsumer;
+
+  private final JsonArray streamedArray = new JsonArray();
+
+  private JsonObject root;
+
+  private int nesting;
+
+  private boolean streamedMemberPending;
+
+  private int elementCount;
+
+  /**
+   * Creates a handler that streams the elements of the top-level array member {@code streamedMember}.
+   *
+   * @param streamedMember
+   *          name of the top-level member whose array elements should be streamed, e.g. {@code data}
+   * @param elementConsumer
+   *          callback receiving every element of the streamed array in document order
+   */
+  public StreamingArrayHandler(String streamedMember, Consumer<JsonValue> elementConsumer) {
+    this.streamedMember = streamedMember;
+    this.elementConsumer = elementConsumer;
+  }
+
+  @Override
+  public JsonArray startArray() {
+    if (nesting++ == 1 && streamedMemberPending) {
+      return streamedArray;
+    }
+    return super.startArray();
+  }
+
+  @Override
+  public JsonObject startObject() {
+    JsonObject object = super.startObject();
+    if (nesting++ == 0) {
+      root = object;
+    }
+    return object;
+  }
+
+  @Override
+  public void endArray(JsonArray array) {
+    nesting--;
+    super.endArray(array);
+  }
+
+  @Override
+  public void endObject(JsonObject object) {
+    nesting--;
+    super.endObject(object);
+  }
+
+  @Override
+  public void startObjectValue(JsonObject object, String name) {
+    if (object == root) {
+      streamedMemberPending = streamedMember.equals(name);
+    }
+  }
+
+  @Override
+  public void endArrayValue(JsonArray array) {
+    if (array == streamedArray) {
+      elementConsumer.accept(value);
+      elementCount++;
+      value = null;
+    } else {
+      super.endArrayValue(array);
+    }
+  }
+
+  @Override
+  public void endObjectValue(JsonObject object, String name) {
+    if (object == root && value == streamedArray) {
+      streamedMemberPending = false;
+      return;
+    }
+    super.endObjectValue(object, name);
+  }
+
+  /**
+   * Returns the top-level object without the streamed array member.
+   *
+   * @return the top-level object, or {@code null} if the parsed document was not a JSON object
+   */
+  public JsonObject getRemainder() {
+    return root;
+  }
+
+  /**
+   * Returns the number of elements handed to the callback so far.
+   *
+   * @return the number of streamed elements
+   */
+  public int getElementCount() {
+    return elementCount;
+  }
+
+}
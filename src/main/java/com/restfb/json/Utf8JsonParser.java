@@ -0,0 +1,491 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A streaming parser for UTF-8 encoded JSON that reads the bytes directly. The parser reports all events to a given
+ * handler, exactly like {@link JsonParser} does.
+ * <p>
+ * The input is not decoded up front: the JSON structure is read byte by byte and only the names, strings and numbers
+ * handed to the handler are decoded, straight from the input bytes. This saves decoding a response into a
+ * {@link String} and copying it into the {@link JsonParser}'s character buffer.
+ * <p>
+ * Locations reported to the handler and in {@link ParseException}s count bytes instead of characters.
+ *
+ * @since 3.16.0
+ */
+public class Utf8JsonParser {
+
+  private static final int MAX_NESTING_LEVEL = 1000;
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+  private final JsonHandler<Object, Object> handler;
+  private ByteBuffer input;
+  private int start;
+  private int limit;
+  private int index;
+  private int current;
+  private int nestingLevel;
+  private StringBuilder stringBuilder;
+
+  /**
+   * Creates a new Utf8JsonParser with the given handler. The parser will report all parser events to this handler.
+   *
+   * @param handler
+   *          the handler to process parser events
+   */
+  @SuppressWarnings("unchecked")
+  public Utf8JsonParser(JsonHandler<?, ?> handler) {
+    Objects.requireNonNull(handler, "handler is null");
+    this.handler = (JsonHandler<Object, Object>) handler;
+    handler.parserLocation = this::getLocation;
+  }
+
+  /**
+   * Parses the given UTF-8 encoded bytes. The input must contain a valid JSON value, optionally padded with
+   * whitespace.
+   *
+   * @param bytes
+   *          the input bytes, must be valid JSON
+   * @throws ParseException
+   *           if the input is not valid JSON
+   */
+  public void parse(byte[] bytes) {
+    Objects.requireNonNull(bytes, "bytes is null");
+    parse(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Parses the remaining bytes of the given buffer as UTF-8 encoded JSON. The buffer may be a heap or a direct buffer,
+   * its position is not changed. The input must contain a valid JSON value, optionally padded with whitespace.
+   *
+   * @param buffer
+   *          the input buffer, must be valid JSON between its position and its limit
+   * @throws ParseException
+   *           if the input is not valid JSON
+   */
+  public void parse(ByteBuffer buffer) {
+    Objects.requireNonNull(buffer, "buffer is null");
+    input = buffer;
+    start = buffer.position();
+    limit = buffer.limit();
+    index = start - 1;
+    current = 0;
+    nestingLevel = 0;
+    read();
+    skipWhiteSpace();
+    readValue();
+    skipWhiteSpace();
+    if (!isEndOfText()) {
+      throw error("Unexpected character");
+    }
+  }
+
+  /**
+   * Reads the entire input from the given stream and parses it as UTF-8 encoded JSON. The input must contain a valid
+   * JSON value, optionally padded with whitespace.
+   *
+   * @param inputStream
+   *          the stream to read the input from, it is not closed
+   * @throws IOException
+   *           if an I/O error occurs in the stream
+   * @throws ParseException
+   *           if the input is not valid JSON
+   */
+  public void parse(InputStream inputStream) throws IOException {
+    Objects.requireNonNull(inputStream, "inputStream is null");
+    byte[] bytes = new byte[DEFAULT_BUFFER_SIZE];
+    int length = 0;
+    int count;
+    while ((count = inputStream.read(bytes, length, bytes.length - length)) != -1) {
+      length += count;
+      if (length == bytes.length) {
+        bytes = Arrays.copyOf(bytes, bytes.length * 2);
+      }
+    }
+    parse(ByteBuffer.wrap(bytes, 0, length));
+  }
+
+  private void readValue() {
+    switch (current) {
+      case 'n':
+        readNull();
+        break;
+      case 't':
+        readTrue();
+        break;
+      case 'f':
+        readFalse();
+        break;
+      case '"':
+        readString();
+        break;
+      case '[':
+        readArray();
+        break;
+      case '{':
+        readObject();
+        break;
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+        readNumber();
+        break;
+      default:
+        throw expected("value");
+    }
+  }
+
+  private void readArray() {
+    Object array = handler.startArray();
+    read();
+    if (++nestingLevel > MAX_NESTING_LEVEL) {
+      throw error("Nesting too deep");
+    }
+    skipWhiteSpace();
+    if (readChar(']')) {
+      nestingLevel--;
+      handler.endArray(array);
+      return;
+    }
+    do {
+      skipWhiteSpace();
+      handler.startArrayValue(array);
+      readValue();
+      handler.endArrayValue(array);
+      skipWhiteSpace();
+    } while (readChar(','));
+    if (!readChar(']')) {
+      throw expected("',' or ']'");
+    }
+    nestingLevel--;
+    handler.endArray(array);
+  }
+
+  private void readObject() {
+    Object object = handler.startObject();
+    read();
+    if (++nestingLevel > MAX_NESTING_LEVEL) {
+      throw error("Nesting too deep");
+    }
+    skipWhiteSpace();
+    if (readChar('}')) {
+      nestingLevel--;
+      handler.endObject(object);
+      return;
+    }
+    do {
+      skipWhiteSpace();
+      handler.startObjectName(object);
+      String name = readName();
+      handler.endObjectName(object, name);
+      skipWhiteSpace();
+      if (!readChar(':')) {
+        throw expected("':'");
+      }
+      skipWhiteSpace();
+      handler.startObjectValue(object, name);
+      readValue();
+      handler.endObjectValue(object, name);
+      skipWhiteSpace();
+    } while (readChar(','));
+    if (!readChar('}')) {
+      throw expected("',' or '}'");
+    }
+    nestingLevel--;
+    handler.endObject(object);
+  }
+
+  private String readName() {
+    if (current != '"') {
+      throw expected("name");
+    }
+    return readStringInternal(true);
+  }
+
+  private void readNull() {
+    handler.startNull();
+    read();
+    readRequiredChar('u');
+    readRequiredChar('l');
+    readRequiredChar('l');
+    handler.endNull();
+  }
+
+  private void readTrue() {
+    handler.startBoolean();
+    read();
+    readRequiredChar('r');
+    readRequiredChar('u');
+    readRequiredChar('e');
+    handler.endBoolean(true);
+  }
+
+  private void readFalse() {
+    handler.startBoolean();
+    read();
+    readRequiredChar('a');
+    readRequiredChar('l');
+    readRequiredChar('s');
+    readRequiredChar('e');
+    handler.endBoolean(false);
+  }
+
+  private void readRequiredChar(char ch) {
+    if (!readChar(ch)) {
+      throw expected("'" + ch + "'");
+    }
+  }
+
+  private void readString() {
+    handler.startString();
+    handler.endString(readStringInternal(false));
+  }
+
+  private String readStringInternal(boolean name) {
+    read();
+    int segmentStart = index;
+    StringBuilder escaped = null;
+    // the bytes of multi-byte UTF-8 sequences are >= 0x80, so they never look like a quote or a backslash
+    while (current != '"') {
+      if (current == '\\') {
+        if (escaped == null) {
+          escaped = stringBuilder();
+        }
+        escaped.append(decode(segmentStart, index));
+        readEscape(escaped);
+        segmentStart = index;
+      } else if (current < 0x20) {
+        throw expected("valid string character");
+      } else {
+        read();
+      }
+    }
+    String string;
+    if (escaped != null) {
+      string = escaped.append(decode(segmentStart, index)).toString();
+    } else if (name) {
+      // ASCII names are canonicalized straight from the input, others are decoded
+      string = NameCache.get(input, segmentStart, index);
+      if (string == null) {
+        string = decode(segmentStart, index);
+      }
+    } else {
+      string = decode(segmentStart, index);
+    }
+    read();
+    return string;
+  }
+
+  private void readEscape(StringBuilder escaped) {
+    read();
+    switch (current) {
+    case '"':
+    case '/':
+    case '\\':
+      escaped.append((char) current);
+      break;
+    case 'b':
+      escaped.append('\b');
+      break;
+    case 'f':
+      escaped.append('\f');
+      break;
+    case 'n':
+      escaped.append('\n');
+      break;
+    case 'r':
+      escaped.append('\r');
+      break;
+    case 't':
+      escaped.append('\t');
+      break;
+    case 'u':
+      int value = 0;
+      for (int i = 0; i < 4; i++) {
+        read();
+        if (!isHexDigit()) {
+          throw expected("hexadecimal digit");
+        }
+        value = (value << 4) + Character.digit(current, 16);
+      }
+      escaped.append((char) value);
+      break;
+    default:
+      throw expected("valid escape sequence");
+    }
+    read();
+  }
+
+  private void readNumber() {
+    handler.startNumber();
+    int numberStart = index;
+    readChar('-');
+    int firstDigit = current;
+    if (!readDigit()) {
+      throw expected("digit");
+    }
+    if (firstDigit != '0') {
+      while (readDigit()) {
+        // nothing to do here
+      }
+    }
+    readFraction();
+    readExponent();
+    handler.endNumber(decode(numberStart, index));
+  }
+
+  private boolean readFraction() {
+    if (!readChar('.')) {
+      return false;
+    }
+    if (!readDigit()) {
+      throw expected("digit");
+    }
+    while (readDigit()) {
+      // nothing to do here
+    }
+    return true;
+  }
+
+  private boolean readExponent() {
+    if (!readChar('e') && !readChar('E')) {
+      return false;
+    }
+    if (!readChar('+')) {
+      readChar('-');
+    }
+    if (!readDigit()) {
+      throw expected("digit");
+    }
+    while (readDigit()) {
+      // nothing to do here
+    }
+    return true;
+  }
+
+  private boolean readChar(char ch) {
+    if (current != ch) {
+      return false;
+    }
+    read();
+    return true;
+  }
+
+  private boolean readDigit() {
+    if (!isDigit()) {
+      return false;
+    }
+    read();
+    return true;
+  }
+
+  private void skipWhiteSpace() {
+    while (isWhiteSpace()) {
+      read();
+    }
+  }
+
+  private void read() {
+    if (++index < limit) {
+      current = input.get(index) & 0xFF;
+    } else {
+      index = limit;
+      current = -1;
+    }
+  }
+
+  private String decode(int from, int to) {
+    if (input.hasArray()) {
+      return new String(input.array(), input.arrayOffset() + from, to - from, StandardCharsets.UTF_8);
+    }
+    byte[] bytes = new byte[to - from];
+    ByteBuffer source = input.duplicate();
+    source.position(from);
+    source.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private StringBuilder stringBuilder() {
+    if (stringBuilder == null) {
+      stringBuilder = new StringBuilder();
+    }
+    stringBuilder.setLength(0);
+    return stringBuilder;
+  }
+
+  Location getLocation() {
+    // only needed for error reporting, so the lines are counted on demand
+    int line = 1;
+    int lineStart = start;
+    for (int i = start; i < index; i++) {
+      if (input.get(i) == '\n') {
+        line++;
+        lineStart = i + 1;
+      }
+    }
+    return new Location(index - start, line, index - lineStart + 1);
+  }
+
+  private ParseException expected(String expected) {
+    if (isEndOfText()) {
+      return error("Unexpected end of input");
+    }
+    return error("Expected " + expected);
+  }
+
+  private ParseException error(String message) {
+    return new ParseException(message, getLocation());
+  }
+
+  private boolean isWhiteSpace() {
+    return current == ' ' || current == '\t' || current == '\n' || current == '\r';
+  }
+
+  private boolean isDigit() {
+    return current >= '0' && current <= '9';
+  }
+
+  private boolean isHexDigit() {
+    return current >= '0' && current <= '9' || current >= 'a' && current <= 'f' || current >= 'A' && current <= 'F';
+  }
+
+  private boolean isEndOfText() {
+    return current == -1;
+  }
+
+}
@@ -22,12 +22,16 @@
 package com.restfb.util;
 
 import static java.lang.String.format;
-import static java.util.Collections.synchronizedMap;
 import static java.util.Collections.unmodifiableList;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.restfb.annotation.OriginalJson;
 import com.restfb.exception.FacebookJsonMappingException;
@@ -44,14 +48,35 @@ public final class ReflectionUtils {
   /**
    * In-memory shared cache of reflection data for {@link #findFieldsWithAnnotation(Class, Class)}.
    */
-  private static final Map<ClassAnnotationCacheKey, List<?>> FIELDS_WITH_ANNOTATION_CACHE =
-      synchronizedMap(new HashMap<>());
+  private static final ConcurrentMap<ClassAnnotationCacheKey, List<?>> FIELDS_WITH_ANNOTATION_CACHE =
+      new ConcurrentHashMap<>();
 
   /**
    * In-memory shared cache of reflection data for {@link #findMethodsWithAnnotation(Class, Class)}.
    */
-  private static final Map<ClassAnnotationCacheKey, List<Method>> METHODS_WITH_ANNOTATION_CACHE =
-      synchronizedMap(new HashMap<>());
+  private static final ConcurrentMap<ClassAnnotationCacheKey, List<Method>> METHODS_WITH_ANNOTATION_CACHE =
+      new ConcurrentHashMap<>();
+
+  /**
+   * In-memory shared cache of reflection data for {@link #getAccessors(Class)}.
+   */
+  private static final ClassValue<List<Method>> ACCESSORS_CACHE = new ClassValue<List<Method>>() {
+    @Override
+    protected List<Method> computeValue(Class<?> type) {
+      return findAccessors(type);
+    }
+  };
+
+  /**
+   * In-memory shared cache of precompiled accessor handles used by {@link #toString(Object)},
+   * {@link #hashCode(Object)} and {@link #equals(Object, Object)}.
+   */
+  private static final ClassValue<Accessor[]> ACCESSOR_HANDLES_CACHE = new ClassValue<Accessor[]>() {
+    @Override
+    protected Accessor[] computeValue(Class<?> type) {
+      return getAccessors(type).stream().map(Accessor::new).toArray(Accessor[]::new);
+    }
+  };
 
   /**
    * Prevents instantiation.
@@ -140,9 +165,12 @@ public final class ReflectionUtils {
       type = type.getSuperclass();
     }
 
+    // Concurrent first lookups may compute the list more than once, the first one stored wins
     fieldsWithAnnotation = unmodifiableList(fieldsWithAnnotation);
-    FIELDS_WITH_ANNOTATION_CACHE.put(cacheKey, fieldsWithAnnotation);
-    return fieldsWithAnnotation;
+    @SuppressWarnings("unchecked")
+    List<FieldWithAnnotation<T>> previousResults =
+        (List<FieldWithAnnotation<T>>) FIELDS_WITH_ANNOTATION_CACHE.putIfAbsent(cacheKey, fieldsWithAnnotation);
+    return previousResults != null ? previousResults : fieldsWithAnnotation;
   }
 
   /**
@@ -171,7 +199,7 @@ public final class ReflectionUtils {
     List<Method> methodsWithAnnotation = new ArrayList<>();
 
     // Walk all superclasses looking for annotated methods until we hit Object
-    while (!Object.class.equals(type)) {
+    while (!Object.class.equals(type) && type != null) {
       for (Method method : type.getDeclaredMethods()) {
         T annotation = method.getAnnotation(annotationType);
 
@@ -184,8 +212,8 @@ public final class ReflectionUtils {
     }
 
     methodsWithAnnotation = unmodifiableList(methodsWithAnnotation);
-    METHODS_WITH_ANNOTATION_CACHE.put(cacheKey, methodsWithAnnotation);
-    return methodsWithAnnotation;
+    List<Method> previousResults = METHODS_WITH_ANNOTATION_CACHE.putIfAbsent(cacheKey, methodsWithAnnotation);
+    return previousResults != null ? previousResults : methodsWithAnnotation;
   }
 
   /**
@@ -229,6 +257,8 @@ public final class ReflectionUtils {
 
   /**
    * Gets all accessor methods for the given {@code clazz}.
+   * <p>
+   * These results are cached to mitigate performance overhead.
    * 
    * @param clazz
    *          The class for which accessors are extracted.
@@ -236,7 +266,10 @@ public final class ReflectionUtils {
    */
   public static List<Method> getAccessors(Class<?> clazz) {
     ObjectUtil.requireNotNull(clazz, () -> new IllegalArgumentException("The 'clazz' parameter cannot be null."));
+    return ACCESSORS_CACHE.get(clazz);
+  }
 
+  private static List<Method> findAccessors(Class<?> clazz) {
     List<Method> methods = new ArrayList<>();
     for (Method method : clazz.getMethods()) {
       String methodName = method.getName();
@@ -269,30 +302,16 @@ public final class ReflectionUtils {
 
     boolean first = true;
 
-    for (Method method : getAccessors(object.getClass())) {
+    for (Accessor accessor : ACCESSOR_HANDLES_CACHE.get(object.getClass())) {
       if (first) {
         first = false;
       } else {
         buffer.append(" ");
       }
 
-      try {
-        String methodName = method.getName();
-        int offset = methodName.startsWith("is") ? 2 : 3;
-        methodName = methodName.substring(offset, offset + 1).toLowerCase() + methodName.substring(offset + 1);
-
-        buffer.append(methodName);
-        buffer.append("=");
-
-        if (!method.isAccessible()) {
-          method.setAccessible(true);
-        }
-
-        // Accessors are guaranteed to take no parameters and return a value
-        buffer.append(method.invoke(object));
-      } catch (Exception e) {
-        throwStateException(method, object.getClass(), e);
-      }
+      buffer.append(accessor.propertyName);
+      buffer.append("=");
+      buffer.append(accessor.invoke(object, object.getClass()));
     }
 
     buffer.append("]");
@@ -315,18 +334,10 @@ public final class ReflectionUtils {
 
     int hashCode = 17;
 
-    for (Method method : getAccessors(object.getClass())) {
-      try {
-        if (!method.isAccessible()) {
-          method.setAccessible(true);
-        }
-
-        Object result = method.invoke(object);
-        if (result != null) {
-          hashCode = hashCode * 31 + result.hashCode();
-        }
-      } catch (Exception e) {
-        throwStateException(method, object, e);
+    for (Accessor accessor : ACCESSOR_HANDLES_CACHE.get(object.getClass())) {
+      Object result = accessor.invoke(object, object);
+      if (result != null) {
+        hashCode = hashCode * 31 + result.hashCode();
       }
     }
 
@@ -357,6 +368,15 @@ public final class ReflectionUtils {
       return false;
     }
 
+    if (object1.getClass().equals(object2.getClass())) {
+      for (Accessor accessor : ACCESSOR_HANDLES_CACHE.get(object1.getClass())) {
+        if (!Objects.equals(accessor.invoke(object1, null), accessor.invoke(object2, null))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
     // Only compare accessors that are present in both classes
     Set<Method> accessorMethodsIntersection = new HashSet<>(getAccessors(object1.getClass()));
     accessorMethodsIntersection.retainAll(getAccessors(object2.getClass()));
@@ -424,6 +444,51 @@ public final class ReflectionUtils {
       "Unable to reflectively invoke " + method + Optional.ofNullable(obj).map(o -> " on " + o).orElse(""), e);
   }
 
+  /**
+   * An accessor method together with its property name and a {@code (Object)Object} method handle, so the per-call
+   * work is reduced to a single {@code invokeExact}.
+   */
+  private static final class Accessor {
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Method method;
+
+    private final String propertyName;
+
+    private final MethodHandle handle;
+
+    private Accessor(Method method) {
+      this.method = method;
+
+      String methodName = method.getName();
+      int offset = methodName.startsWith("is") ? 2 : 3;
+      this.propertyName = methodName.substring(offset, offset + 1).toLowerCase() + methodName.substring(offset + 1);
+
+      MethodHandle methodHandle;
+      try {
+        if (!method.isAccessible()) {
+          method.setAccessible(true);
+        }
+        methodHandle = MethodHandles.lookup().unreflect(method).asType(ACCESSOR_TYPE);
+      } catch (IllegalAccessException | RuntimeException e) {
+        // fall back to plain reflection for accessors we cannot bind
+        methodHandle = null;
+      }
+      this.handle = methodHandle;
+    }
+
+    private Object invoke(Object target, Object errorContext) {
+      try {
+        return handle != null ? (Object) handle.invokeExact(target) : method.invoke(target);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throwStateException(method, errorContext, t instanceof Exception ? (Exception) t : new Exception(t));
+        return null;
+      }
+    }
+  }
+
   /**
    * A field/annotation pair.
    * 
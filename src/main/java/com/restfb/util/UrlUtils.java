@@ -180,6 +180,8 @@ public final class UrlUtils {
 
   /**
    * Remove the given key from the url query string and return the new URL as String.
+   * <p>
+   * Every occurrence of the key is removed. If no parameter is left, the {@code ?} is removed as well.
    *
    * @param url
    *          The URL from which parameters are extracted.
@@ -188,23 +190,15 @@ public final class UrlUtils {
    * @return the modified URL as String
    */
   public static String removeQueryParameter(String url, String key) {
-    String[] urlParts = url.split("\\?");
-
-    if (urlParts.length == 2) {
-      Map<String, List<String>> paramMap = extractParametersFromQueryString(urlParts[1]);
-      if (paramMap.containsKey(key)) {
-        String queryValue = paramMap.get(key).get(0);
-        String result = url.replace(key + "=" + queryValue, "");
-        // improper separators have to be fixed
-        // @TODO find a better way to solve this
-        result = result.replace("?&", "?").replace("&&", "&");
-        if (result.endsWith("&")) {
-          return result.substring(0, result.length() - 1);
-        } else {
-          return result;
-        }
-      }
+    int queryStart = url.indexOf('?');
+    if (queryStart < 0) {
+      return url;
     }
-    return url;
+
+    // the raw query parts are kept, so encoded values of the other parameters stay untouched
+    String query = Arrays.stream(url.substring(queryStart + 1).split("&"))
+      .filter(part -> !part.isEmpty() && !key.equals(urlDecode(part.split("=", 2)[0])))
+      .collect(Collectors.joining("&"));
+    return query.isEmpty() ? url.substring(0, queryStart) : url.substring(0, queryStart + 1) + query;
   }
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * A writer that encodes characters as UTF-8 into a reusable byte buffer, which is written to an output stream
+ * whenever it is full.
+ * <p>
+ * In form URL encoding mode, the encoded bytes are additionally percent-encoded exactly like
+ * {@link UrlUtils#urlEncode(String)} does, so values can be streamed into an
+ * {@code application/x-www-form-urlencoded} body.
+ * <p>
+ * Like {@code com.restfb.json.WritingBuffer}, this implementation is not thread-safe. {@link #close()} writes
+ * everything still buffered and flushes the stream, but leaves the stream open, because it belongs to the caller.
+ *
+ * @since 3.16.0
+ */
+public class Utf8WritingBuffer extends Writer {
+
+  private static final byte[] HEX_DIGITS =
+      { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
+
+  private final OutputStream outputStream;
+  private final byte[] buffer;
+  private int fill;
+  private boolean formUrlEncoding;
+  private char highSurrogate;
+  private boolean closed;
+
+  /**
+   * Creates a writer with a buffer of 8 KB.
+   *
+   * @param outputStream
+   *          the stream to write the encoded bytes to
+   */
+  public Utf8WritingBuffer(OutputStream outputStream) {
+    this(outputStream, 8192);
+  }
+
+  /**
+   * Creates a writer with a buffer of the given size.
+   *
+   * @param outputStream
+   *          the stream to write the encoded bytes to
+   * @param bufferSize
+   *          the size of the buffer, at least 12 bytes
+   */
+  public Utf8WritingBuffer(OutputStream outputStream, int bufferSize) {
+    ObjectUtil.verifyParameterPresence("outputStream", outputStream);
+    if (bufferSize < 12) {
+      throw new IllegalArgumentException("bufferSize must be at least 12");
+    }
+    this.outputStream = outputStream;
+    buffer = new byte[bufferSize];
+  }
+
+  /**
+   * Switches form URL encoding of the written characters on or off.
+   *
+   * @param formUrlEncoding
+   *          {@code true} to percent-encode all following characters, {@code false} to write them as plain UTF-8
+   */
+  public void setFormUrlEncoding(boolean formUrlEncoding) {
+    this.formUrlEncoding = formUrlEncoding;
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    writeChar((char) c);
+  }
+
+  @Override
+  public void write(char[] cbuf, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      writeChar(cbuf[i]);
+    }
+  }
+
+  @Override
+  public void write(String str, int off, int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      writeChar(str.charAt(i));
+    }
+  }
+
+  private void writeChar(char ch) throws IOException {
+    if (closed) {
+      throw new IOException("Writer is closed");
+    }
+    // the longest sequence is a percent-encoded 3 byte character
+    if (fill > buffer.length - 12) {
+      writeBuffer();
+    }
+    if (highSurrogate != 0) {
+      char high = highSurrogate;
+      highSurrogate = 0;
+      if (Character.isLowSurrogate(ch)) {
+        int codePoint = Character.toCodePoint(high, ch);
+        writeByte(0xf0 | codePoint >> 18);
+        writeByte(0x80 | codePoint >> 12 & 0x3f);
+        writeByte(0x80 | codePoint >> 6 & 0x3f);
+        writeByte(0x80 | codePoint & 0x3f);
+        return;
+      }
+      // an unpaired surrogate is replaced like String.getBytes does
+      writeByte('?');
+    }
+    if (ch < 0x80) {
+      writeAscii(ch);
+    } else if (ch < 0x800) {
+      writeByte(0xc0 | ch >> 6);
+      writeByte(0x80 | ch & 0x3f);
+    } else if (Character.isHighSurrogate(ch)) {
+      highSurrogate = ch;
+    } else if (Character.isLowSurrogate(ch)) {
+      writeByte('?');
+    } else {
+      writeByte(0xe0 | ch >> 12);
+      writeByte(0x80 | ch >> 6 & 0x3f);
+      writeByte(0x80 | ch & 0x3f);
+    }
+  }
+
+  private void writeAscii(char ch) {
+    if (!formUrlEncoding || ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch >= '0' && ch <= '9' || ch == '.'
+        || ch == '-' || ch == '*' || ch == '_') {
+      buffer[fill++] = (byte) ch;
+    } else if (ch == ' ') {
+      buffer[fill++] = '+';
+    } else {
+      writeByte(ch);
+    }
+  }
+
+  private void writeByte(int b) {
+    if (formUrlEncoding) {
+      buffer[fill++] = '%';
+      buffer[fill++] = HEX_DIGITS[b >> 4 & 0xf];
+      buffer[fill++] = HEX_DIGITS[b & 0xf];
+    } else {
+      buffer[fill++] = (byte) b;
+    }
+  }
+
+  private void writeBuffer() throws IOException {
+    outputStream.write(buffer, 0, fill);
+    fill = 0;
+  }
+
+  /**
+   * Writes the buffer to the stream and flushes the stream. A trailing high surrogate stays pending until the next
+   * character is written.
+   */
+  @Override
+  public void flush() throws IOException {
+    writeBuffer();
+    outputStream.flush();
+  }
+
+  /**
+   * Writes the buffer to the stream and flushes the stream, but does not close it. A trailing high surrogate is
+   * written as {@code ?}, like an unpaired surrogate.
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    if (highSurrogate != 0) {
+      highSurrogate = 0;
+      writeByte('?');
+    }
+    closed = true;
+    flush();
+  }
+
+}
@@ -26,7 +26,13 @@ import static java.lang.String.format;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import com.restfb.util.ObjectUtil;
 import com.restfb.util.ReflectionUtils;
@@ -53,6 +59,12 @@ public class BinaryAttachment {
 
   private InputStream dataStream;
 
+  private Path file;
+
+  private long filePosition;
+
+  private long fileCount = -1;
+
   private String contentType;
 
   @Getter
@@ -229,6 +241,60 @@ public class BinaryAttachment {
     this.fieldName = fieldName;
   }
 
+  /**
+   * Creates a new binary attachment backed by a file, which is streamed from disk when the request is sent.
+   *
+   * @param fieldName
+   *          The field name the binary belongs to, may be {@code null}.
+   * @param file
+   *          The file containing the attachment's data.
+   * @param contentType
+   *          The attachment's contentType, may be {@code null} to guess it from the file name.
+   * @throws IllegalArgumentException
+   *           If {@code file} is {@code null} or not a regular file.
+   * @since 3.16.0
+   */
+  protected BinaryAttachment(String fieldName, Path file, String contentType) {
+    ObjectUtil.verifyParameterPresence("file", file);
+    if (!Files.isRegularFile(file)) {
+      throw new IllegalArgumentException("Binary attachment file " + file + " is not a regular file.");
+    }
+
+    this.fieldName = fieldName;
+    this.filename = file.getFileName().toString();
+    this.file = file;
+    this.contentType = contentType;
+  }
+
+  /**
+   * Creates a new binary attachment backed by a region of a file, which is streamed from disk when the request is
+   * sent.
+   *
+   * @param fieldName
+   *          The field name the binary belongs to, may be {@code null}.
+   * @param file
+   *          The file containing the attachment's data.
+   * @param position
+   *          The offset of the region's first byte in the file.
+   * @param count
+   *          The number of bytes in the region.
+   * @param contentType
+   *          The attachment's contentType, may be {@code null} to guess it from the file name.
+   * @throws IllegalArgumentException
+   *           If {@code file} is {@code null} or not a regular file, or the region is negative.
+   * @since 3.16.0
+   */
+  protected BinaryAttachment(String fieldName, Path file, long position, long count, String contentType) {
+    this(fieldName, file, contentType);
+    if (position < 0 || count < 0) {
+      throw new IllegalArgumentException(
+        format("Binary attachment region [position=%d, count=%d] must not be negative.", position, count));
+    }
+
+    this.filePosition = position;
+    this.fileCount = count;
+  }
+
   /**
    * Creates a binary attachment.
    * 
@@ -375,6 +441,87 @@ public class BinaryAttachment {
     return new BinaryAttachment(fieldName, filename, data, contentType);
   }
 
+  /**
+   * Creates a binary attachment backed by a file.
+   * <p>
+   * The file is not loaded into memory, its content is streamed to Facebook when the request is sent.
+   *
+   * @param file
+   *          The file containing the attachment's data, its name is used as filename.
+   * @return A binary attachment.
+   * @throws IllegalArgumentException
+   *           If {@code file} is {@code null} or not a regular file.
+   * @since 3.16.0
+   */
+  public static BinaryAttachment with(Path file) {
+    return new BinaryAttachment(null, file, null);
+  }
+
+  /**
+   * Creates a binary attachment backed by a file.
+   *
+   * @param file
+   *          The file containing the attachment's data, its name is used as filename.
+   * @param contentType
+   *          The attachment's contentType.
+   * @return A binary attachment.
+   * @throws IllegalArgumentException
+   *           If {@code file} is {@code null} or not a regular file, or {@code contentType} is {@code null} or blank.
+   * @since 3.16.0
+   */
+  public static BinaryAttachment with(Path file, String contentType) {
+    ObjectUtil.requireNotEmpty(contentType, "ContentType cannot be null.");
+    return new BinaryAttachment(null, file, contentType);
+  }
+
+  /**
+   * Creates a binary attachment backed by a file.
+   *
+   * @param fieldName
+   *          The field name the binary belongs to
+   * @param file
+   *          The file containing the attachment's data, its name is used as filename.
+   * @param contentType
+   *          The attachment's contentType.
+   * @return A binary attachment.
+   * @throws IllegalArgumentException
+   *           If {@code file} is {@code null} or not a regular file, or {@code fieldName} or {@code contentType} is
+   *           {@code null} or blank.
+   * @since 3.16.0
+   */
+  public static BinaryAttachment with(String fieldName, Path file, String contentType) {
+    ObjectUtil.requireNotEmpty(fieldName, FIELD_NAME_CANNOT_BE_NULL);
+    ObjectUtil.requireNotEmpty(contentType, "ContentType cannot be null.");
+    return new BinaryAttachment(fieldName, file, contentType);
+  }
+
+  /**
+   * Creates a binary attachment backed by a region of a file, e.g. one chunk of a resumable video upload.
+   * <p>
+   * Only the region is sent, the file is neither copied nor loaded into memory.
+   *
+   * @param fieldName
+   *          The field name the binary belongs to
+   * @param file
+   *          The file containing the attachment's data, its name is used as filename.
+   * @param position
+   *          The offset of the region's first byte in the file.
+   * @param count
+   *          The number of bytes in the region.
+   * @param contentType
+   *          The attachment's contentType.
+   * @return A binary attachment.
+   * @throws IllegalArgumentException
+   *           If {@code file} is {@code null} or not a regular file, the region is negative, or {@code fieldName} or
+   *           {@code contentType} is {@code null} or blank.
+   * @since 3.16.0
+   */
+  public static BinaryAttachment with(String fieldName, Path file, long position, long count, String contentType) {
+    ObjectUtil.requireNotEmpty(fieldName, FIELD_NAME_CANNOT_BE_NULL);
+    ObjectUtil.requireNotEmpty(contentType, "ContentType cannot be null.");
+    return new BinaryAttachment(fieldName, file, position, count, contentType);
+  }
+
   @Override
   public int hashCode() {
     return ReflectionUtils.hashCode(this);
@@ -400,6 +547,17 @@ public class BinaryAttachment {
       return new ByteArrayInputStream(data);
     } else if (dataStream != null) {
       return dataStream;
+    } else if (file != null) {
+      try {
+        if (fileCount >= 0) {
+          try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, filePosition, fileCount));
+          }
+        }
+        return Files.newInputStream(file);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Unable to open binary attachment file " + file, e);
+      }
     } else {
       throw new IllegalStateException("Either the byte[] or the stream mustn't be null at this point.");
     }
@@ -423,7 +581,7 @@ public class BinaryAttachment {
       }
     }
 
-    if (data != null) {
+    if (data != null || file != null) {
       contentType = URLConnection.guessContentTypeFromName(filename);
     }
 
@@ -434,4 +592,79 @@ public class BinaryAttachment {
 
     return contentType;
   }
-}
\ No newline at end of file
+
+  /**
+   * The length of the attachment's data, if it is known without reading the data.
+   *
+   * @return the number of bytes, or {@code -1} for stream based attachments
+   */
+  long getContentLength() {
+    if (data != null) {
+      return data.length;
+    }
+    if (file != null && fileCount >= 0) {
+      return fileCount;
+    }
+    if (file != null) {
+      try {
+        return Files.size(file);
+      } catch (IOException e) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * The file backing this attachment.
+   *
+   * @return the file, or {@code null} if the data is held in memory or provided as stream
+   */
+  Path getFile() {
+    return file;
+  }
+
+  /**
+   * The offset of the attachment's data in its backing file.
+   *
+   * @return the offset, {@code 0} unless the attachment covers a region of the file
+   */
+  long getFilePosition() {
+    return filePosition;
+  }
+
+  /**
+   * Reads a memory-mapped file region.
+   */
+  private static class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, buffer.remaining());
+      buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.util.List;
 
 import com.restfb.exception.FacebookJsonMappingException;
+import com.restfb.json.JsonValue;
 
 /**
  * @author <a href="http://restfb.com">Mark Allen</a>
@@ -61,6 +62,28 @@ public abstract class AbstractJsonMapperTests {
           return null;
         }
       }
+
+      @Override
+      public <T> T toJavaObject(JsonValue json, Class<T> type) {
+        try {
+          return super.toJavaObject(json, type);
+        } catch (FacebookJsonMappingException ex) {
+          getLoggerInstance("ErrorSwallowingJsonMapper")
+            .info("Ignored failed mapping to {}. Bad JSON was '{}' and exception was '{}'", type, json, ex.getMessage());
+          return null;
+        }
+      }
+
+      @Override
+      public <T> List<T> toJavaList(JsonValue json, Class<T> type) {
+        try {
+          return super.toJavaList(json, type);
+        } catch (FacebookJsonMappingException ex) {
+          getLoggerInstance("ErrorSwallowingJsonMapper")
+            .info("Ignored failed mapping to {}. Bad JSON was '{}' and exception was '{}'", type, json, ex.getMessage());
+          return null;
+        }
+      }
     };
   }
 
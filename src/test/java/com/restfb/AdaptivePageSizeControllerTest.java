@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.restfb.exception.FacebookOAuthException;
+import com.restfb.json.JsonObject;
+import com.restfb.types.FacebookType;
+import com.restfb.util.UrlUtils;
+
+class AdaptivePageSizeControllerTest {
+
+  private final List<Integer> requestedLimits = new ArrayList<>();
+
+  private int acceptedLimit = Integer.MAX_VALUE;
+
+  private long responseTimeInMs;
+
+  private long responseBodyLength = -1;
+
+  private long clock;
+
+  private final FacebookClient facebookClient = mock(FacebookClient.class, invocation -> {
+    String method = invocation.getMethod().getName();
+    int limit;
+    if ("fetchConnection".equals(method)) {
+      Object[] arguments = invocation.getArguments();
+      limit = Arrays.stream(arguments, 2, arguments.length).map(Parameter.class::cast)
+        .filter(p -> "limit".equals(p.name)).mapToInt(p -> Integer.parseInt(p.value)).findFirst().getAsInt();
+    } else if ("fetchConnectionPage".equals(method)) {
+      limit = Integer.parseInt(
+        UrlUtils.extractParametersFromUrl(invocation.getArgument(0)).get("limit").get(0));
+    } else {
+      return new DefaultJsonMapper();
+    }
+
+    requestedLimits.add(limit);
+    if (limit > acceptedLimit) {
+      throw new FacebookOAuthException("OAuthException",
+        "Please reduce the amount of data you're asking for, then retry your request", 1, null, 500, null, null,
+        null, null);
+    }
+    clock += responseTimeInMs;
+    String next = requestedLimits.size() < 4 ? ",\"paging\":{\"next\":\"https://graph.facebook.com/me/feed?limit="
+        + limit + "&after=" + requestedLimits.size() + "\"}" : "";
+    Connection<JsonObject> page = new Connection<>((FacebookClient) invocation.getMock(),
+      "{\"data\":[{\"id\":\"" + requestedLimits.size() + "\"}]" + next + "}", JsonObject.class);
+    page.setResponseBodyLength(responseBodyLength);
+    return page;
+  });
+
+  private final AdaptivePageSizeController controller =
+      new AdaptivePageSizeController(facebookClient, 20, 1, 100, 1000, 1024 * 1024) {
+        @Override
+        protected long currentTimeMillis() {
+          return clock;
+        }
+      };
+
+  @Test
+  void fastPages_raiseLimit() {
+    responseTimeInMs = 100;
+    Iterator<List<FacebookType>> pages = controller.iterate("me/feed", FacebookType.class, Parameter.with("limit", 5));
+
+    assertThat(pages.next()).extracting(FacebookType::getId).containsExactly("1");
+    pages.next();
+
+    assertThat(requestedLimits).containsExactly(20, 30);
+    assertThat(controller.getCurrentLimit()).isEqualTo(45);
+    assertThat(controller.getPagesFetched()).isEqualTo(2);
+    assertThat(controller.getAverageLimit()).isEqualTo(25.0);
+  }
+
+  @Test
+  void slowPages_reduceLimit() {
+    responseTimeInMs = 5000;
+    Iterator<List<FacebookType>> pages = controller.iterate("me/feed", FacebookType.class);
+
+    pages.next();
+    pages.next();
+
+    assertThat(requestedLimits).containsExactly(20, 10);
+    assertThat(controller.getCurrentLimit()).isEqualTo(5);
+    assertThat(controller.getLimitReductions()).isEqualTo(2);
+  }
+
+  @Test
+  void largeResponseBodies_reduceLimit() {
+    responseTimeInMs = 100;
+    responseBodyLength = 2 * 1024 * 1024;
+    Iterator<List<FacebookType>> pages = controller.iterate("me/feed", FacebookType.class);
+
+    pages.next();
+
+    assertThat(controller.getCurrentLimit()).isEqualTo(10);
+    assertThat(controller.getLimitReductions()).isEqualTo(1);
+  }
+
+  @Test
+  void reduceDataError_retriesPageWithSmallerLimit() {
+    responseTimeInMs = 700;
+    acceptedLimit = 6;
+    Iterator<List<FacebookType>> pages = controller.iterate("me/feed", FacebookType.class);
+
+    pages.next();
+
+    assertThat(requestedLimits).containsExactly(20, 10, 5);
+    assertThat(controller.getRetriedPages()).isEqualTo(2);
+    assertThat(controller.getCurrentLimit()).isEqualTo(5);
+  }
+
+  @Test
+  void reduceDataError_atMinimumLimit() {
+    acceptedLimit = 0;
+    Iterator<List<FacebookType>> pages = controller.iterate("me/feed", FacebookType.class);
+
+    assertThrows(FacebookOAuthException.class, pages::next);
+    assertThat(controller.getCurrentLimit()).isEqualTo(1);
+  }
+
+  @Test
+  void iterate_untilLastPage() {
+    Iterator<List<FacebookType>> pages = controller.iterate("me/feed", FacebookType.class);
+    int count = 0;
+    while (pages.hasNext()) {
+      pages.next();
+      count++;
+    }
+
+    assertThat(count).isEqualTo(4);
+    assertThrows(NoSuchElementException.class, pages::next);
+  }
+}
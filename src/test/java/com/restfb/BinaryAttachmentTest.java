@@ -26,9 +26,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class BinaryAttachmentTest {
 
@@ -53,6 +57,24 @@ class BinaryAttachmentTest {
     assertThat(att.getData()).isInstanceOf(BufferedInputStream.class);
   }
 
+  @Test
+  void checkPath(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("photo.png");
+    Files.write(file, new byte[] { 1, 2, 3 });
+    BinaryAttachment att = BinaryAttachment.with(file);
+    assertThat(att).hasFileName("photo.png");
+    assertThat(att.getContentType()).isEqualTo("image/png");
+    assertThat(att.getContentLength()).isEqualTo(3);
+    try (InputStream data = att.getData()) {
+      assertThat(data.read()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void checkPathNotAFile(@TempDir Path tempDir) {
+    assertThrows(IllegalArgumentException.class, () -> BinaryAttachment.with(tempDir));
+  }
+
   @Test
   void checkInputStreamNull() {
     assertThrows(NullPointerException.class, () -> BinaryAttachment.with("filename", (InputStream) null));
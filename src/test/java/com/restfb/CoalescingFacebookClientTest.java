@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.restfb.WebRequestor.Response;
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.FacebookOAuthException;
+import com.restfb.json.Json;
+import com.restfb.json.JsonArray;
+import com.restfb.json.JsonObject;
+import com.restfb.types.FacebookType;
+import com.restfb.types.User;
+
+class CoalescingFacebookClientTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  private final ExecutorService sender = Executors.newSingleThreadExecutor();
+
+  private final AtomicInteger sentOnExecutor = new AtomicInteger();
+
+  private final Executor executor = command -> {
+    sentOnExecutor.incrementAndGet();
+    sender.execute(command);
+  };
+
+  private final AtomicInteger requestCount = new AtomicInteger();
+
+  @AfterEach
+  void tearDown() {
+    scheduler.shutdownNow();
+    sender.shutdownNow();
+  }
+
+  @Test
+  void flush_completesEveryCall() throws Exception {
+    JsonArray responses = new JsonArray().add(batchResponse(200, "{\"id\":\"1\",\"name\":\"One\"}"))
+      .add(batchResponse(400,
+        "{\"error\":{\"message\":\"Invalid OAuth access token.\",\"type\":\"OAuthException\",\"code\":190}}"));
+    CoalescingFacebookClient client =
+        new CoalescingFacebookClient(createClient(responses.toString()), scheduler, executor,
+          TimeUnit.MINUTES.toMillis(1));
+
+    CompletableFuture<User> first = client.fetchObject("1", User.class);
+    CompletableFuture<User> second = client.fetchObject("2", User.class);
+    client.flush();
+
+    assertThat(requestCount.get()).isEqualTo(1);
+    assertThat(first.get().getName()).isEqualTo("One");
+    ExecutionException exception = assertThrows(ExecutionException.class, second::get);
+    assertThat(exception.getCause()).isInstanceOf(FacebookOAuthException.class);
+  }
+
+  @Test
+  void unprocessedCall_namesTheCall() throws Exception {
+    JsonArray responses = new JsonArray().add(batchResponse(200, "{\"id\":\"1\"}")).add(Json.NULL);
+    CoalescingFacebookClient client =
+        new CoalescingFacebookClient(createClient(responses.toString()), scheduler, executor,
+          TimeUnit.MINUTES.toMillis(1));
+
+    CompletableFuture<User> first = client.fetchObject("1", User.class);
+    CompletableFuture<FacebookType> second = client.publish("me/feed", FacebookType.class);
+    client.flush();
+
+    assertThat(first.get().getId()).isEqualTo("1");
+    ExecutionException exception = assertThrows(ExecutionException.class, second::get);
+    assertThat(exception.getCause()).isInstanceOf(FacebookNetworkException.class);
+    assertThat(exception.getCause().getCause()).hasMessage("Facebook did not process the batched call POST me/feed");
+  }
+
+  @Test
+  void publish_requiresObjectType() {
+    CoalescingFacebookClient client = new CoalescingFacebookClient(createClient("[]"), scheduler, executor, 10);
+
+    assertThrows(NullPointerException.class, () -> client.publish("me/feed", null));
+  }
+
+  @Test
+  void window_sendsCollectedCalls() throws Exception {
+    JsonArray responses = new JsonArray().add(batchResponse(200, "{\"id\":\"1\"}"))
+      .add(batchResponse(200, "{\"data\":[{\"id\":\"2\"}]}"));
+    CoalescingFacebookClient client =
+        new CoalescingFacebookClient(createClient(responses.toString()), scheduler, executor, 10);
+
+    CompletableFuture<User> user = client.fetchObject("1", User.class);
+    CompletableFuture<Connection<User>> friends = client.fetchConnection("1/friends", User.class);
+
+    assertThat(user.get(5, TimeUnit.SECONDS).getId()).isEqualTo("1");
+    assertThat(friends.get(5, TimeUnit.SECONDS).getData()).extracting(User::getId).containsExactly("2");
+    assertThat(requestCount.get()).isEqualTo(1);
+    assertThat(sentOnExecutor.get()).isEqualTo(1);
+  }
+
+  @Test
+  void fullBatch_isSentImmediately() throws Exception {
+    JsonArray responses = new JsonArray();
+    for (int i = 0; i < CoalescingFacebookClient.MAX_BATCH_SIZE; i++) {
+      responses.add(batchResponse(200, "{\"id\":\"" + i + "\"}"));
+    }
+    CoalescingFacebookClient client =
+        new CoalescingFacebookClient(createClient(responses.toString()), scheduler, executor,
+          TimeUnit.MINUTES.toMillis(1));
+
+    List<CompletableFuture<User>> users = new ArrayList<>();
+    for (int i = 0; i < CoalescingFacebookClient.MAX_BATCH_SIZE; i++) {
+      users.add(client.fetchObject(String.valueOf(i), User.class));
+    }
+
+    assertThat(users.get(49).get(5, TimeUnit.SECONDS).getId()).isEqualTo("49");
+    assertThat(requestCount.get()).isEqualTo(1);
+    assertThat(sentOnExecutor.get()).isEqualTo(1);
+  }
+
+  private JsonObject batchResponse(int code, String body) {
+    return new JsonObject().add("code", code).add("headers", new JsonArray()).add("body", body);
+  }
+
+  private FacebookClient createClient(String body) {
+    FakeWebRequestor webRequestor = new FakeWebRequestor(new Response(HTTP_OK, body)) {
+      @Override
+      public Response executePost(String url, String parameters, List<BinaryAttachment> binaryAttachments,
+          String headerAccessToken) {
+        requestCount.incrementAndGet();
+        return super.executePost(url, parameters, binaryAttachments, headerAccessToken);
+      }
+    };
+    return new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.restfb.WebRequestor.Response;
+import com.restfb.types.FacebookType;
+
+class ConnectionCheckpointTest {
+
+  private static final String PAGE_JSON = "{\"data\":[{\"id\":\"1\"}],\"paging\":{\"cursors\":{\"after\":\"QVFI\"},"
+      + "\"next\":\"https://graph.facebook.com/v3.1/me/feed?access_token=secret%7Ctoken&limit=1&after=QVFI&appsecret_proof=abc\"}}";
+
+  private final FakeWebRequestor webRequestor = new FakeWebRequestor(new Response(HTTP_OK, PAGE_JSON));
+
+  private final DefaultFacebookClient facebookClient =
+      new DefaultFacebookClient("resumed", webRequestor, new DefaultJsonMapper(), Version.VERSION_3_1);
+
+  @Test
+  void checkpoint_stripsSecrets() {
+    ConnectionCheckpoint<FacebookType> checkpoint =
+        new Connection<>(facebookClient, PAGE_JSON, FacebookType.class).checkpoint(1);
+
+    assertThat(checkpoint.getNextPageUrl()).isEqualTo("https://graph.facebook.com/v3.1/me/feed?limit=1&after=QVFI");
+    assertThat(checkpoint.getAfterCursor()).isEqualTo("QVFI");
+    assertThat(checkpoint.getPosition()).isEqualTo(1);
+    assertThat(checkpoint.getConnectionType()).isEqualTo(FacebookType.class);
+  }
+
+  @Test
+  void checkpoint_serializable() throws IOException, ClassNotFoundException {
+    ConnectionCheckpoint<FacebookType> checkpoint =
+        new Connection<>(facebookClient, PAGE_JSON, FacebookType.class).checkpoint(1);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(checkpoint);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertThat(in.readObject()).isEqualTo(checkpoint);
+    }
+  }
+
+  @Test
+  void resume_addsAccessToken() {
+    ConnectionCheckpoint<FacebookType> checkpoint =
+        new Connection<>(facebookClient, PAGE_JSON, FacebookType.class).checkpoint(1);
+
+    Connection<FacebookType> page = checkpoint.resume(facebookClient);
+
+    assertThat(page.getData()).extracting(FacebookType::getId).containsExactly("1");
+    assertThat(webRequestor.getSavedUrl())
+      .isEqualTo("https://graph.facebook.com/v3.1/me/feed?limit=1&after=QVFI&access_token=resumed");
+  }
+
+  @Test
+  void resume_headerAccessTokenAndAppSecret() {
+    DefaultFacebookClient headerClient =
+        new DefaultFacebookClient("resumed", "secret", webRequestor, new DefaultJsonMapper(), Version.VERSION_3_1);
+    headerClient.setHeaderAuthorization(true);
+    ConnectionCheckpoint<FacebookType> checkpoint = new Connection<>(headerClient,
+      "{\"data\":[{\"id\":\"1\"}],\"paging\":{\"next\":\"https://graph.facebook.com/v3.1/me/feed?access_token=old&appsecret_proof=abc\"}}",
+      FacebookType.class).checkpoint(1);
+
+    checkpoint.resume(headerClient);
+
+    assertThat(checkpoint.getNextPageUrl()).isEqualTo("https://graph.facebook.com/v3.1/me/feed");
+    assertThat(webRequestor.getSavedUrl()).isEqualTo("https://graph.facebook.com/v3.1/me/feed?appsecret_proof="
+        + headerClient.obtainAppSecretProof("resumed", "secret"));
+    assertThat(webRequestor.getAccessToken()).isEqualTo("resumed");
+  }
+
+  @Test
+  void resume_lastPage() {
+    ConnectionCheckpoint<FacebookType> checkpoint =
+        new Connection<>(facebookClient, "{\"data\":[{\"id\":\"1\"}]}", FacebookType.class).checkpoint(1);
+
+    assertThat(checkpoint.hasNextPage()).isFalse();
+    assertThrows(IllegalStateException.class, () -> checkpoint.resume(facebookClient));
+  }
+}
@@ -21,19 +21,28 @@
  */
 package com.restfb;
 
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.StreamSupport;
 
 import org.junit.jupiter.api.Test;
 
+import com.restfb.WebRequestor.Response;
 import com.restfb.exception.FacebookJsonMappingException;
+import com.restfb.exception.FacebookOAuthException;
 import com.restfb.json.JsonObject;
 import com.restfb.types.FacebookType;
 import com.restfb.types.User;
@@ -151,6 +160,60 @@ class ConnectionTest extends AbstractJsonMapperTests {
     assertThrows(NoSuchElementException.class, it::next);
   }
 
+  @Test
+  void checkPrefetchingIterator_reachAllElements() {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (PrefetchingConnectionIterator<FacebookType> it = create3PageConnection().prefetchingIterator(executor, 2)) {
+      List<Integer> pageSizes = new ArrayList<>();
+      it.forEachRemaining(page -> pageSizes.add(page.size()));
+
+      assertThat(pageSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(18);
+      assertThat(pageSizes).hasSize(3);
+      assertThat(it.snapshot().hasNext()).isFalse();
+      assertThrows(NoSuchElementException.class, it::next);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void checkPrefetchingIterator_close() {
+    PrefetchingConnectionIterator<FacebookType> it = create3PageConnection().prefetchingIterator(Runnable::run, 1);
+    it.next(); // first page, second page is fetched already
+
+    it.close();
+
+    assertThat(it.hasNext()).isFalse();
+    assertThrows(NoSuchElementException.class, it::next);
+  }
+
+  @Test
+  void checkPrefetchingIterator_invalidDepth() {
+    Connection<FacebookType> connection = create3PageConnection();
+    assertThrows(IllegalArgumentException.class, () -> connection.prefetchingIterator(Runnable::run, 0));
+  }
+
+  @Test
+  void checkItemStream_reachAllElements() {
+    assertThat(create3PageConnection().itemStream().count()).isEqualTo(18);
+    assertThat(create3PageConnection().stream().count()).isEqualTo(3);
+  }
+
+  @Test
+  void checkItemStream_limitDoesNotFetchFurtherPages() {
+    FacebookClient facebookClient = mock(FacebookClient.class);
+    when(facebookClient.getJsonMapper()).thenReturn(new DefaultJsonMapper());
+    Connection<FacebookType> connection = new Connection<>(facebookClient,
+      "{\"data\":[{\"id\":\"1\"},{\"id\":\"2\"}],\"paging\":{\"next\":\"https://graph.facebook.com/next\"},"
+          + "\"summary\":{\"total_count\":5}}",
+      FacebookType.class);
+
+    assertThat(connection.itemStream().spliterator().estimateSize()).isEqualTo(5);
+    assertThat(connection.itemStream().limit(2).map(FacebookType::getId)).containsExactly("1", "2");
+    assertThat(connection.itemStream().anyMatch(item -> "1".equals(item.getId()))).isTrue();
+    verify(facebookClient, never()).fetchConnectionPage(anyString(), any());
+  }
+
   @Test
   void checkIterator_withCursor() {
     Connection<FacebookType> connection = createCursorConnection(false);
@@ -205,6 +268,83 @@ class ConnectionTest extends AbstractJsonMapperTests {
     assertThat(it.hasNext()).isFalse();
   }
 
+  @Test
+  void streamConnection() {
+    DefaultFacebookClient facebookClient = new DefaultFacebookClient("token",
+      new FakeWebRequestor(new Response(HTTP_OK, jsonFromClasspath("v2_1/connection-user-friends"))),
+      new DefaultJsonMapper(), Version.LATEST);
+
+    List<User> users = new ArrayList<>();
+    Connection<User> con = facebookClient.streamConnection("/me/friends", User.class, users::add);
+
+    assertThat(users).extracting(User::getName).containsExactly("Tester1", "Tester2", "Tester3", "Tester4",
+      "Tester5", "Tester6");
+    assertThat(con.getData()).isEmpty();
+    assertThat(con.getTotalCount()).isEqualTo(99);
+    assertThat(con.hasNext()).isTrue();
+    assertThat(con.getNextPageUrl()).contains("__after_id=gdehje");
+  }
+
+  @Test
+  void streamConnection_nestedDataIsNotStreamed() {
+    DefaultFacebookClient facebookClient = new DefaultFacebookClient("token",
+      new FakeWebRequestor(new Response(HTTP_OK,
+        "{\"data\":[{\"id\":\"1\",\"likes\":{\"data\":[{\"id\":\"2\"}]}},{\"id\":\"3\"}],\"paging\":{}}")),
+      new DefaultJsonMapper(), Version.LATEST);
+
+    List<JsonObject> items = new ArrayList<>();
+    Connection<JsonObject> con = facebookClient.streamConnection("/me/feed", JsonObject.class, items::add);
+
+    assertThat(items).hasSize(2);
+    assertThat(items.get(0).get("likes").asObject().get("data").asArray().size()).isEqualTo(1);
+    assertThat(items.get(1).getString("id", null)).isEqualTo("3");
+    assertThat(con.hasNext()).isFalse();
+  }
+
+  @Test
+  void streamConnection_notModified() {
+    DefaultFacebookClient facebookClient = new DefaultFacebookClient("token", new FakeWebRequestor() {
+      @Override
+      public Response executeGet(String url, String headerAccessToken, BodyHandler bodyHandler) {
+        // a cached page, the body is not streamed
+        return new Response(HTTP_NOT_MODIFIED, jsonFromClasspath("v2_1/connection-user-friends"));
+      }
+    }, new DefaultJsonMapper(), Version.LATEST);
+
+    List<User> users = new ArrayList<>();
+    Connection<User> con = facebookClient.streamConnection("/me/friends", User.class, users::add);
+
+    assertThat(users).hasSize(6);
+    assertThat(con.getTotalCount()).isEqualTo(99);
+  }
+
+  @Test
+  void streamConnection_error() {
+    DefaultFacebookClient facebookClient = new DefaultFacebookClient("token",
+      new FakeWebRequestor(new Response(HTTP_OK,
+        "{\"error\":{\"message\":\"Invalid OAuth access token.\",\"type\":\"OAuthException\",\"code\":190}}")),
+      new DefaultJsonMapper(), Version.LATEST);
+
+    assertThrows(FacebookOAuthException.class,
+      () -> facebookClient.streamConnection("/me/friends", User.class, user -> {}));
+  }
+
+  @Test
+  void streamConnection_defaultFallsBackToFetchConnection() {
+    FacebookClient facebookClient = mock(FacebookClient.class);
+    when(facebookClient.getJsonMapper()).thenReturn(new DefaultJsonMapper());
+    Connection<User> page =
+        new Connection<>(facebookClient, jsonFromClasspath("v2_1/connection-user-friends"), User.class);
+    when(facebookClient.fetchConnection("/me/friends", User.class)).thenReturn(page);
+    when(facebookClient.streamConnection(eq("/me/friends"), eq(User.class), any())).thenCallRealMethod();
+
+    List<User> users = new ArrayList<>();
+    Connection<User> con = facebookClient.streamConnection("/me/friends", User.class, users::add);
+
+    assertThat(con).isSameAs(page);
+    assertThat(users).containsExactlyElementsOf(page.getData());
+  }
+
   private Connection<FacebookType> createCursorConnection(boolean cursorOnly) {
     String connectionWithCursorTestFile = "connection-with-cursor";
     if (cursorOnly) {
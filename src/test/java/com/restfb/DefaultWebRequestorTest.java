@@ -22,20 +22,26 @@
 package com.restfb;
 
 import static com.restfb.testutils.RestfbAssertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -95,6 +101,67 @@ class DefaultWebRequestorTest {
     verify(requestor).fetchResponse(mockUrlConnection);
   }
 
+  @Test
+  void checkGet_keepsRawBody() throws IOException {
+    byte[] body = " {\"name\":\"J\u00fcrgen\"} ".getBytes(StandardCharsets.UTF_8);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream(body));
+
+    WebRequestor.Response response = requestor.executeGet(exampleUrl);
+
+    assertThat(response.getRawBody()).isEqualTo(body);
+    assertThat(response.getUncompressedLength()).isEqualTo(body.length);
+    assertThat(response.getBody()).isEqualTo("{\"name\":\"J\u00fcrgen\"}");
+  }
+
+  @Test
+  void checkGet_responseCarriesMetadata() throws IOException {
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream())
+      .thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+    when(mockUrlConnection.getHeaderFields())
+      .thenReturn(Collections.singletonMap("x-fb-trace-id", Collections.singletonList("trace")));
+    when(mockUrlConnection.getHeaderField(anyString()))
+      .thenAnswer(invocation -> "x-fb-trace-id".equals(invocation.getArgument(0)) ? "trace" : null);
+
+    WebRequestor.Response response = requestor.executeGet(exampleUrl);
+
+    assertThat(response.getHeaders()).containsKey("x-fb-trace-id");
+    assertThat(response.getDebugHeaderInfo().getTraceId()).isEqualTo("trace");
+  }
+
+  @Test
+  void checkGet_gzipEncoded() throws IOException {
+    String resultString = "{\"data\":[{\"id\":\"1\"},{\"id\":\"1\"},{\"id\":\"1\"},{\"id\":\"1\"}]}";
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(resultString.getBytes(StandardCharsets.UTF_8));
+    }
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getContentEncoding()).thenReturn("gzip");
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream(compressed.toByteArray()));
+
+    WebRequestor.Response response = requestor.executeGet(exampleUrl);
+
+    verify(mockUrlConnection).setRequestProperty("Accept-Encoding", "gzip, deflate");
+    assertThat(response.getBody()).isEqualTo(resultString);
+    assertThat(response.getCompressedLength()).isEqualTo(compressed.size());
+    assertThat(response.getUncompressedLength()).isEqualTo(resultString.length());
+  }
+
+  @Test
+  void checkGet_compressionDisabled() throws IOException {
+    requestor.setCompressionEnabled(false);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+
+    WebRequestor.Response response = requestor.executeGet(exampleUrl);
+
+    verify(mockUrlConnection, never()).setRequestProperty(eq("Accept-Encoding"), anyString());
+    assertThat(response.getCompressedLength()).isEqualTo(2);
+    assertThat(response.getUncompressedLength()).isEqualTo(2);
+  }
+
   @Test
   void checkPost_withAccessToken() throws IOException {
     when(mockUrlConnection.getOutputStream()).thenReturn(mockOutputStream);
@@ -170,4 +237,52 @@ class DefaultWebRequestorTest {
     verify(requestor).closeQuietly(mockOutputStream);
     verify(requestor).closeQuietly(mockBinaryInputStream);
   }
+
+  @Test
+  void checkPost_WithFileBinary_fixedLength(@TempDir Path tempDir) throws IOException {
+    Path file = tempDir.resolve("video.mp4");
+    Files.write(file, "some video content".getBytes(StandardCharsets.UTF_8));
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    when(mockUrlConnection.getOutputStream()).thenReturn(body);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+
+    requestor.executePost(exampleUrl, "", Collections.singletonList(BinaryAttachment.with(file, "video/mp4")), null);
+
+    verify(mockUrlConnection).setFixedLengthStreamingMode((long) body.size());
+    verify(mockUrlConnection, never()).setChunkedStreamingMode(anyInt());
+    assertThat(body.toString("UTF-8")).contains("filename=\"video.mp4\"").contains("Content-Type: video/mp4")
+      .contains("some video content");
+  }
+
+  @Test
+  void checkPost_WithStreamBinary_chunked() throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    when(mockUrlConnection.getOutputStream()).thenReturn(body);
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8)));
+
+    requestor.executePost(exampleUrl, "",
+      Collections.singletonList(BinaryAttachment.with("data.bin",
+        new ByteArrayInputStream("streamed".getBytes(StandardCharsets.UTF_8)), "application/octet-stream")),
+      null);
+
+    verify(mockUrlConnection).setChunkedStreamingMode(8192);
+    verify(mockUrlConnection, never()).setFixedLengthStreamingMode(anyLong());
+    assertThat(body.toString("UTF-8")).contains("streamed");
+  }
+
+  @Test
+  void checkPost_bodyWriterFails_dropsConnection() throws IOException {
+    when(mockUrlConnection.getOutputStream()).thenReturn(mockOutputStream);
+
+    assertThrows(IllegalStateException.class, () -> requestor.executePost(exampleUrl, body -> {
+      body.write('x');
+      throw new IllegalStateException("mapping failed");
+    }, null));
+
+    verify(mockUrlConnection, atLeastOnce()).disconnect();
+    verify(mockOutputStream, never()).close();
+    verify(mockUrlConnection, never()).getResponseCode();
+  }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ETagWebRequestorTest {
+
+  private static final String EXAMPLE_URL = "http://www.example.org";
+
+  private static final String BODY = "{\"data\":[]}";
+
+  private final HttpURLConnection connection = mock(HttpURLConnection.class);
+
+  private final ETagWebRequestor requestor = spy(new ETagWebRequestor());
+
+  @BeforeEach
+  void setup() throws IOException {
+    doReturn(connection).when(requestor).openConnection(any(URL.class));
+    when(connection.getRequestMethod()).thenReturn("GET");
+    when(connection.getURL()).thenReturn(new URL(EXAMPLE_URL));
+    when(connection.getHeaderField("ETag")).thenReturn("\"v1\"");
+    when(connection.getInputStream())
+      .thenAnswer(invocation -> new ByteArrayInputStream(BODY.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void executeGet_withBodyHandler_cachesAndReplaysBody() throws IOException {
+    List<String> handledBodies = new ArrayList<>();
+    WebRequestor.BodyHandler handler =
+        body -> handledBodies.add(new BufferedReader(body).lines().collect(Collectors.joining("\n")));
+
+    when(connection.getResponseCode()).thenReturn(HTTP_OK);
+    WebRequestor.Response first = requestor.executeGet(EXAMPLE_URL, null, handler);
+    when(connection.getResponseCode()).thenReturn(HTTP_NOT_MODIFIED);
+    WebRequestor.Response second = requestor.executeGet(EXAMPLE_URL, null, handler);
+
+    assertThat(requestor.etagCache).containsKey(EXAMPLE_URL);
+    verify(connection).addRequestProperty("If-None-Match", "\"v1\"");
+    assertThat(handledBodies).containsExactly(BODY, BODY);
+    assertThat(first.getStatusCode()).isEqualTo(HTTP_OK);
+    assertThat(second.getStatusCode()).isEqualTo(HTTP_NOT_MODIFIED);
+    assertThat(second.getBody()).isEmpty();
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+
+import com.restfb.WebRequestor.Response;
+import com.restfb.exception.FacebookOAuthException;
+import com.restfb.types.User;
+
+class ExecutorBackedFacebookClientTest {
+
+  @Test
+  void fetchObject() throws InterruptedException, ExecutionException {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      ExecutorBackedFacebookClient client = new ExecutorBackedFacebookClient(createClient("{\"id\":\"123\",\"name\":\"Tester\"}"), executor);
+      User user = client.fetchObject("me", User.class).get();
+      assertThat(user.getId()).isEqualTo("123");
+      assertThat(user.getName()).isEqualTo("Tester");
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void fetchObject_error() {
+    ExecutorBackedFacebookClient client = new ExecutorBackedFacebookClient(
+      createClient("{\"error\":{\"message\":\"Invalid OAuth access token.\",\"type\":\"OAuthException\",\"code\":190}}"),
+      Runnable::run);
+    CompletableFuture<User> future = client.fetchObject("me", User.class);
+
+    ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+    assertThat(exception.getCause()).isInstanceOf(FacebookOAuthException.class);
+  }
+
+  private FacebookClient createClient(String body) {
+    return new DefaultFacebookClient("token", new FakeWebRequestor(new Response(HTTP_OK, body)),
+      new DefaultJsonMapper(), Version.LATEST);
+  }
+}
@@ -21,9 +21,15 @@
  */
 package com.restfb;
 
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
@@ -31,6 +37,7 @@ import org.junit.jupiter.api.Test;
 import com.restfb.batch.BatchHeader;
 import com.restfb.batch.BatchRequest;
 import com.restfb.batch.BatchResponse;
+import com.restfb.util.UrlUtils;
 
 class FacebookClientBatchTest extends AbstractJsonMapperTests {
 
@@ -77,6 +84,46 @@ class FacebookClientBatchTest extends AbstractJsonMapperTests {
     checkResponseItem(responseList, 1, 400);
   }
 
+  @Test
+  void batchBodyIsStreamed() {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    FakeWebRequestor webRequestor = new FakeWebRequestor() {
+      @Override
+      public Response executePost(String url, BodyWriter bodyWriter, String headerAccessToken) throws IOException {
+        bodyWriter.write(body);
+        return new Response(HTTP_OK, "[]");
+      }
+    };
+    DefaultFacebookClient client =
+        new DefaultFacebookClient("token", webRequestor, new DefaultJsonMapper(), Version.LATEST);
+    BatchRequest request = new BatchRequest.BatchRequestBuilder("me")
+      .parameters(Parameter.with("fields", "name"), Parameter.with("q", "Grüße & 😀")).name("first").build();
+
+    client.executeBatch(request);
+
+    String expectedJson = client.getJsonMapper().toJson(singletonList(request), true);
+    assertEquals("batch=" + UrlUtils.urlEncode(expectedJson) + "&access_token=token&format=json",
+      new String(body.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void batchGoesThroughOverriddenMakeRequest() {
+    List<String> endpoints = new ArrayList<>();
+    DefaultFacebookClient client = new DefaultFacebookClient("token",
+      new FakeWebRequestor(new WebRequestor.Response(HTTP_OK, "[]")), new DefaultJsonMapper(), Version.LATEST) {
+      @Override
+      protected String makeRequest(String endpoint, boolean executeAsPost, boolean executeAsDelete,
+          List<BinaryAttachment> binaryAttachments, Parameter... parameters) {
+        endpoints.add(endpoint);
+        return super.makeRequest(endpoint, executeAsPost, executeAsDelete, binaryAttachments, parameters);
+      }
+    };
+
+    client.executeBatch(new BatchRequest.BatchRequestBuilder("me").build());
+
+    assertEquals(singletonList(""), endpoints);
+  }
+
   private List<BatchHeader> checkResponseItem(List<BatchResponse> responseList, int item, int status) {
     assertEquals(status, responseList.get(item).getCode().longValue());
     List<BatchHeader> headerList = responseList.get(item).getHeaders();
@@ -29,6 +29,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -128,6 +129,65 @@ class FacebookClientTest {
     }
   }
 
+  @Test
+  void oauthExceptionInRawBody() {
+    FacebookClient facebookClient = facebookClientWithResponse(Response.fromRawBody(200,
+      "  {\"error\":{\"message\":\"(#210) User not visible\",\"type\":\"OAuthException\",\"code\":210}}"
+        .getBytes(StandardCharsets.UTF_8),
+      null, null, -1));
+
+    FacebookOAuthException e =
+        assertThrows(FacebookOAuthException.class, () -> facebookClient.fetchObject("me", User.class));
+    assertThat(e.getErrorCode()).isEqualTo(210);
+  }
+
+  @Test
+  void rawBodyIsMapped() {
+    FacebookClient facebookClient = facebookClientWithResponse(Response.fromRawBody(200,
+      "{\"id\":\"123\",\"name\":\"J\u00fcrgen\",\"data\":[{\"id\":\"456\"}]}".getBytes(StandardCharsets.UTF_8),
+      null, null, -1));
+
+    User user = facebookClient.fetchObject("me", User.class);
+    Connection<User> connection = facebookClient.fetchConnection("me/friends", User.class);
+
+    assertThat(user.getId()).isEqualTo("123");
+    assertThat(user.getName()).isEqualTo("J\u00fcrgen");
+    assertThat(connection.getData()).extracting(User::getId).containsExactly("456");
+  }
+
+  @Test
+  void overriddenRequestHooksAreUsed() {
+    List<String> endpoints = new ArrayList<>();
+    List<String> processed = new ArrayList<>();
+    DefaultFacebookClient facebookClient = new DefaultFacebookClient(null,
+      new FakeWebRequestor(Response.fromRawBody(200,
+        "{\"id\":\"123\",\"data\":[{\"id\":\"456\"}]}".getBytes(StandardCharsets.UTF_8), null, null, -1)),
+      new DefaultJsonMapper(), Version.LATEST) {
+      @Override
+      protected String makeRequest(String endpoint, boolean executeAsPost, boolean executeAsDelete,
+          List<BinaryAttachment> binaryAttachments, Parameter... parameters) {
+        endpoints.add(endpoint);
+        return super.makeRequest(endpoint, executeAsPost, executeAsDelete, binaryAttachments, parameters);
+      }
+
+      @Override
+      protected String makeRequestAndProcessResponse(Requestor requestor) {
+        String json = super.makeRequestAndProcessResponse(requestor);
+        processed.add(json);
+        return json;
+      }
+    };
+
+    User user = facebookClient.fetchObject("me", User.class);
+    Connection<User> connection = facebookClient.fetchConnection("me/friends", User.class);
+    facebookClient.fetchConnectionPage("https://graph.facebook.com/me/friends?after=1", User.class);
+
+    assertThat(user.getId()).isEqualTo("123");
+    assertThat(connection.getData()).extracting(User::getId).containsExactly("456");
+    assertThat(endpoints).containsExactly("me", "me/friends");
+    assertThat(processed).hasSize(3);
+  }
+
   @Test
   void obtainExtendedAccessTokenV23() {
     FacebookClient fbc = facebookClientWithResponse(
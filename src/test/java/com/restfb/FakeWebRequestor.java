@@ -131,4 +131,13 @@ public class FakeWebRequestor implements WebRequestor {
   public String getParameters() {
     return parameters;
   }
+
+  /**
+   * get the access token sent in the header.
+   * 
+   * @return the header access token
+   */
+  public String getAccessToken() {
+    return accessToken;
+  }
 }
@@ -26,9 +26,11 @@ import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -37,9 +39,13 @@ import org.junit.jupiter.api.Test;
 
 import com.restfb.JsonMapper.JsonMappingCompleted;
 import com.restfb.JsonMapperToJavaTest.Story.StoryTag;
+import com.restfb.annotation.OriginalJson;
 import com.restfb.exception.FacebookJsonMappingException;
+import com.restfb.json.Json;
 import com.restfb.json.JsonObject;
+import com.restfb.json.JsonValue;
 import com.restfb.types.*;
+import com.restfb.util.ReflectionUtils.FieldWithAnnotation;
 
 /**
  * Unit tests that exercise {@link JsonMapper} implementations, specifically the "convert JSON to Java" functionality.
@@ -120,6 +126,26 @@ class JsonMapperToJavaTest extends AbstractJsonMapperTests {
     assertThat(basicUser.name).isEqualTo("Test Person");
   }
 
+  /**
+   * Can we map an already parsed JSON value?
+   */
+  @Test
+  void simpleObjectFromJsonValue() {
+    JsonValue jsonValue = Json.parse(jsonFromClasspath("basic-user"));
+    BasicUser basicUser = createJsonMapper().toJavaObject(jsonValue, BasicUser.class);
+    assertThat(basicUser.uid).isEqualTo(1234L);
+    assertThat(basicUser.name).isEqualTo("Test Person");
+  }
+
+  /**
+   * Can we map an already parsed JSON array?
+   */
+  @Test
+  void simplePrimitiveListFromJsonValue() {
+    List<String> tags = createJsonMapper().toJavaList(Json.parse(jsonFromClasspath("tags")), String.class);
+    assertThat(tags).hasSize(3).containsExactly("Good", "Better", "Best");
+  }
+
   /**
    * Can we handle simple list mapping?
    */
@@ -472,6 +498,104 @@ class JsonMapperToJavaTest extends AbstractJsonMapperTests {
     assertThat(obj.emptyNumberButNull).isInstanceOf(Optional.class).isEmpty();
   }
 
+  @Test
+  void nullForPrimitiveField() {
+    FacebookJsonMappingException exception = assertThrows(FacebookJsonMappingException.class,
+      () -> createJsonMapper().toJavaObject("{\"value\":null}", PrimitiveTestType.class));
+    assertThat(exception.getCause()).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  void overriddenMappingHooksAreUsed() {
+    List<String> completed = new ArrayList<>();
+    DefaultJsonMapper jsonMapper = new DefaultJsonMapper() {
+      @Override
+      protected String getFacebookFieldName(FieldWithAnnotation<Facebook> fieldWithAnnotation) {
+        return "prefixed_" + super.getFacebookFieldName(fieldWithAnnotation);
+      }
+
+      @Override
+      protected Object toJavaType(FieldWithAnnotation<Facebook> fieldWithAnnotation, JsonObject jsonObject,
+          String facebookFieldName) {
+        Object value = super.toJavaType(fieldWithAnnotation, jsonObject, facebookFieldName);
+        return value instanceof String ? ((String) value).toUpperCase() : value;
+      }
+
+      @Override
+      protected void invokeJsonMappingCompletedMethods(Object object)
+          throws IllegalAccessException, InvocationTargetException {
+        completed.add(object.getClass().getSimpleName());
+        super.invokeJsonMappingCompletedMethods(object);
+      }
+    };
+
+    StoryTag tag = jsonMapper.toJavaObject("{\"prefixed_id\":\"abc\",\"name\":\"ignored\"}", StoryTag.class);
+
+    assertThat(tag.id).isEqualTo("ABC");
+    assertThat(tag.name).isNull();
+    assertThat(completed).containsExactly("StoryTag");
+    assertThat(jsonMapper.toJson(tag, true)).isEqualTo("{\"prefixed_id\":\"ABC\"}");
+  }
+
+  /**
+   * Issue #719: list elements that are strings starting with a square bracket
+   */
+  @Test
+  void listOfStringsStartingWithBracket() {
+    assertThat(createJsonMapper().toJavaList("[\"[abc]\",\"foo\"]", String.class)).containsExactly("[abc]", "foo");
+    assertThat(createJsonMapper().toJavaList("[\"[abc]\"]", StoryTag.class)).containsExactly((StoryTag) null);
+  }
+
+  @Test
+  void rawBytes() {
+    JsonMapper jsonMapper = createJsonMapper();
+
+    Story story = jsonMapper.toJavaObject("{\"story\":\"\u00fcber\"}".getBytes(StandardCharsets.UTF_8), Story.class);
+    JsonObject object = jsonMapper.toJavaObject("{\"a\":1}".getBytes(StandardCharsets.UTF_8), JsonObject.class);
+    // built-in types are mapped from the text, which is not always legal JSON
+    Long id = jsonMapper.toJavaObject("1240077".getBytes(StandardCharsets.UTF_8), Long.class);
+
+    assertThat(story.story).isEqualTo("\u00fcber");
+    assertThat(object.getInt("a", 0)).isEqualTo(1);
+    assertThat(id).isEqualTo(1240077L);
+    assertThat(jsonMapper.toJavaObject("[]".getBytes(StandardCharsets.UTF_8), Story.class)).isNotNull();
+    assertThrows(FacebookJsonMappingException.class,
+      () -> jsonMapper.toJavaObject("{\"story\":".getBytes(StandardCharsets.UTF_8), Story.class));
+  }
+
+  @Test
+  void originalJsonIsTheResponseText() {
+    JsonMapper jsonMapper = createJsonMapper();
+    String json = "{\"id\":\"1\",\"name\":\"\\u00e9\",\"nested\":{\"id\":\"2\"}}";
+
+    RawStory fromText = jsonMapper.toJavaObject(json, RawStory.class);
+    RawStory fromBytes = jsonMapper.toJavaObject(json.getBytes(StandardCharsets.UTF_8), RawStory.class);
+
+    assertThat(fromText.json).isEqualTo(json);
+    assertThat(fromBytes.json).isEqualTo(json);
+    assertThat(fromBytes.name).isEqualTo("\u00e9");
+    // nested objects have no text of their own
+    assertThat(fromBytes.nested.json).isEqualTo("{\"id\":\"2\"}");
+  }
+
+  @Test
+  void jsonObjectFieldIsACopy() {
+    JsonObject source = Json.parse("{\"story\":\"s\",\"story_tags\":{\"0\":{\"id\":\"1\"}}}").asObject();
+
+    Story story = createJsonMapper().toJavaObject(source, Story.class);
+    story.storyTags.get("0").asObject().set("id", "changed");
+    JsonObject copy = createJsonMapper().toJavaObject(source, JsonObject.class);
+    copy.set("story", "changed");
+
+    assertThat(source.get("story_tags").asObject().get("0").asObject().getString("id", null)).isEqualTo("1");
+    assertThat(source.getString("story", null)).isEqualTo("s");
+  }
+
+  static class PrimitiveTestType {
+    @Facebook
+    int value;
+  }
+
   static class MapTestType {
     @Facebook("my_map")
     Map<String, Long> myMap;
@@ -482,6 +606,20 @@ class JsonMapperToJavaTest extends AbstractJsonMapperTests {
     Map<Integer, Long> myMap;
   }
 
+  static class RawStory extends AbstractFacebookType {
+    @Facebook
+    String id;
+
+    @Facebook
+    String name;
+
+    @Facebook
+    RawStory nested;
+
+    @OriginalJson
+    String json;
+  }
+
   static class Story {
     @Facebook
     String story;
@@ -22,8 +22,11 @@
 package com.restfb;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.*;
@@ -175,6 +178,44 @@ class JsonMapperToJsonTest extends AbstractJsonMapperTests {
     AssertJson.assertEquals(expectedJson, json);
   }
 
+  @Test
+  void toJsonWriter_matchesToJson() throws IOException {
+    JsonMapper jsonMapper = createJsonMapper();
+    UserWithPhotos userWithPhotos = new UserWithPhotos();
+    userWithPhotos.uid = 12345L;
+    userWithPhotos.photos = new ArrayList<>();
+    userWithPhotos.photos.add(new Photo());
+    Photo photo = new Photo();
+    photo.photoId = 5678L;
+    photo.location = "Z\u00fcrich \"old\" town\n\ud83d\ude00";
+    userWithPhotos.photos.add(photo);
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("user", userWithPhotos);
+    map.put("empty", null);
+    map.put("when", new Date(0));
+    map.put("list", Arrays.asList(1, "two", Optional.empty(), new BigDecimal("1.5")));
+
+    for (Object object : Arrays.asList(userWithPhotos, map, Collections.singletonList(map), "plain string", 42, null)) {
+      for (boolean ignoreNullValuedProperties : new boolean[] { false, true }) {
+        StringWriter writer = new StringWriter();
+
+        jsonMapper.toJson(object, ignoreNullValuedProperties, writer);
+
+        assertThat(writer.toString()).isEqualTo(jsonMapper.toJson(object, ignoreNullValuedProperties));
+      }
+    }
+  }
+
+  @Test
+  void toJsonWriter_mapWithNoStringKey() {
+    Map<Object, Object> map = new HashMap<>();
+    map.put(1, "one");
+
+    assertThatThrownBy(() -> createJsonMapper().toJson(map, false, new StringWriter()))
+      .isInstanceOf(FacebookJsonMappingException.class)
+      .hasMessageStartingWith("Your Map keys must be of type class java.lang.String");
+  }
+
   @Test
   void specialTypes() {
     JsonMapper jsonMapper = createJsonMapper();
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class KeepAliveWebRequestorTest {
+
+  @Mock
+  private HttpURLConnection mockUrlConnection;
+
+  @Test
+  void getKeepsConnectionOpen() throws IOException {
+    KeepAliveWebRequestor requestor = spy(new KeepAliveWebRequestor(500, 2000));
+    doReturn(mockUrlConnection).when(requestor).openConnection(any(URL.class));
+    when(mockUrlConnection.getResponseCode()).thenReturn(200);
+    InputStream stream = spy(new ByteArrayInputStream("{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8)));
+    when(mockUrlConnection.getInputStream()).thenReturn(stream);
+
+    WebRequestor.Response response = requestor.executeGet("http://www.example.org", null);
+
+    assertThat(response.getBody()).isEqualTo("{\"id\":\"1\"}");
+    verify(mockUrlConnection).setConnectTimeout(500);
+    verify(mockUrlConnection).setReadTimeout(2000);
+    verify(stream, atLeastOnce()).close();
+    verify(mockUrlConnection, never()).disconnect();
+  }
+
+  @Test
+  void unreadBodyIsDrained() throws IOException {
+    KeepAliveWebRequestor requestor = spy(new KeepAliveWebRequestor());
+    doReturn(mockUrlConnection).when(requestor).openConnection(any(URL.class));
+    when(mockUrlConnection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_NOT_MODIFIED);
+    InputStream stream = spy(new ByteArrayInputStream("unread".getBytes(StandardCharsets.UTF_8)));
+    when(mockUrlConnection.getInputStream()).thenReturn(stream);
+
+    WebRequestor.Response response = requestor.executeGet("http://www.example.org", null);
+
+    assertThat(response.getStatusCode()).isEqualTo(HttpURLConnection.HTTP_NOT_MODIFIED);
+    assertThat(stream.read()).isEqualTo(-1);
+    verify(stream).close();
+    verify(mockUrlConnection, never()).disconnect();
+  }
+
+  @Test
+  void largeUnreadBodyDisconnects() throws IOException {
+    KeepAliveWebRequestor requestor = spy(new KeepAliveWebRequestor());
+    doReturn(mockUrlConnection).when(requestor).openConnection(any(URL.class));
+    when(mockUrlConnection.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
+    when(mockUrlConnection.getInputStream()).thenReturn(new ByteArrayInputStream(new byte[100 * 1024]));
+
+    assertThrows(IOException.class, () -> requestor.executeGet("http://www.example.org", null, body -> {
+      throw new IOException("aborted");
+    }));
+
+    verify(mockUrlConnection).disconnect();
+  }
+
+  @Test
+  void connectionWithoutResponseDisconnects() throws IOException {
+    KeepAliveWebRequestor requestor = spy(new KeepAliveWebRequestor());
+    doReturn(mockUrlConnection).when(requestor).openConnection(any(URL.class));
+    doThrow(new IOException("refused")).when(mockUrlConnection).connect();
+
+    assertThrows(IOException.class, () -> requestor.executeGet("http://www.example.org", null));
+
+    verify(mockUrlConnection).disconnect();
+  }
+
+  @Test
+  void defaultTimeouts() {
+    KeepAliveWebRequestor requestor = new KeepAliveWebRequestor();
+    assertThat(requestor.getConnectTimeoutInMs()).isEqualTo(10000);
+    assertThat(requestor.getReadTimeoutInMs()).isEqualTo(180000);
+  }
+
+  @Test
+  void negativeTimeout() {
+    assertThrows(IllegalArgumentException.class, () -> new KeepAliveWebRequestor(-1, 0));
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.restfb.types.FacebookType;
+
+class PartitionedConnectionFetcherTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  private final List<String> requestedSlices = Collections.synchronizedList(new ArrayList<>());
+
+  private final FacebookClient facebookClient = mock(FacebookClient.class, invocation -> {
+    if (!"fetchConnection".equals(invocation.getMethod().getName())) {
+      return new DefaultJsonMapper();
+    }
+    Map<String, String> parameters = new HashMap<>();
+    Object[] arguments = invocation.getArguments();
+    for (Object parameter : Arrays.copyOfRange(arguments, 2, arguments.length)) {
+      parameters.put(((Parameter) parameter).name, ((Parameter) parameter).value);
+    }
+    requestedSlices.add(parameters.get("since") + "-" + parameters.get("until"));
+    // every slice returns the items on both of its boundaries, newest first
+    String json = "{\"data\":[{\"id\":\"" + parameters.get("until") + "\"},{\"id\":\"" + parameters.get("since")
+        + "\"}]}";
+    return new Connection<>((FacebookClient) invocation.getMock(), json, FacebookType.class);
+  });
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdown();
+  }
+
+  @Test
+  void fetch_orderedWithoutDuplicates() {
+    PartitionedConnectionFetcher fetcher = new PartitionedConnectionFetcher(facebookClient, executor);
+
+    List<FacebookType> items = fetcher.fetch("me/feed", FacebookType.class, new Date(0), new Date(400_000), 4,
+      Parameter.with("limit", 100), Parameter.with("since", 12));
+
+    assertThat(requestedSlices).containsExactlyInAnyOrder("0-100", "100-200", "200-300", "300-400");
+    assertThat(items).extracting(FacebookType::getId).containsExactly("400", "300", "200", "100", "0");
+  }
+
+  @Test
+  void fetch_consumer() {
+    PartitionedConnectionFetcher fetcher = new PartitionedConnectionFetcher(facebookClient, executor);
+    List<String> ids = new ArrayList<>();
+
+    fetcher.fetch("me/feed", FacebookType.class, new Date(0), new Date(400_000), 4,
+      (FacebookType item) -> ids.add(item.getId()));
+
+    assertThat(ids).containsExactlyInAnyOrder("400", "300", "200", "100", "0");
+  }
+
+  @Test
+  void fetch_invalidRange() {
+    PartitionedConnectionFetcher fetcher = new PartitionedConnectionFetcher(facebookClient, executor);
+    assertThrows(IllegalArgumentException.class,
+      () -> fetcher.fetch("me/feed", FacebookType.class, new Date(400_000), new Date(0), 4));
+  }
+}
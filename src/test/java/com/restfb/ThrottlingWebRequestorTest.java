@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static java.net.HttpURLConnection.HTTP_BAD_REQUEST;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.restfb.WebRequestor.Response;
+
+class ThrottlingWebRequestorTest {
+
+  private static final String URL = "https://graph.facebook.com/v10.0/me";
+
+  @Test
+  void lowUsage_noDelay() throws IOException {
+    TestRequestor requestor = new TestRequestor(
+      response(DebugHeaderInfo.DebugHeaderInfoFactory.create().setAppUsage(usage(10, 5, 20))));
+
+    requestor.executeGet(URL);
+    requestor.executeGet(URL);
+
+    assertThat(requestor.pauses).isEmpty();
+    assertThat(requestor.getBudgets().get(ThrottlingWebRequestor.APP_BUDGET).getUtilization()).isEqualTo(20);
+    assertThat(requestor.getBudgets().get(ThrottlingWebRequestor.APP_BUDGET).getRemaining()).isEqualTo(80);
+  }
+
+  @Test
+  void highUsage_paced() throws IOException {
+    TestRequestor requestor = new TestRequestor(
+      response(DebugHeaderInfo.DebugHeaderInfoFactory.create().setPageUsage(usage(90, 10, 10))));
+
+    requestor.executeGet(URL);
+    requestor.executeGet(URL);
+
+    // 90% is 60% of the way from 75% to 100%, the maximum pace delay is 2 seconds
+    assertThat(requestor.pauses).containsExactly(1200L);
+  }
+
+  @Test
+  void businessUsage_waitsForRegainedAccessOfMatchingBusiness() throws IOException {
+    TestRequestor requestor = new TestRequestor(response(DebugHeaderInfo.DebugHeaderInfoFactory.create()
+      .setBusinessUseCaseUsage("{\"112233\":[{\"type\":\"ads_management\",\"call_count\":100,\"total_cputime\":25,"
+          + "\"total_time\":25,\"estimated_time_to_regain_access\":2}]}")));
+
+    requestor.executeGet("https://graph.facebook.com/v10.0/act_112233/campaigns");
+    requestor.executeGet(URL);
+    requestor.executeGet("https://graph.facebook.com/v10.0/act_112233/adsets");
+
+    assertThat(requestor.pauses).containsExactly(TimeUnit.MINUTES.toMillis(2));
+    assertThat(requestor.getBudgets()).containsKey("business:112233");
+    assertThat(requestor.getBudgets().get("business:112233").isExhausted()).isTrue();
+  }
+
+  @Test
+  void throttlingError_exhaustsBudget() throws IOException {
+    TestRequestor requestor = new TestRequestor(new Response(HTTP_BAD_REQUEST,
+      "{\"error\":{\"message\":\"(#4) Application request limit reached\",\"type\":\"OAuthException\",\"code\":4}}"));
+
+    requestor.executeGet(URL);
+    assertThat(requestor.getDelayInMs(URL)).isEqualTo(TimeUnit.MINUTES.toMillis(1));
+
+    requestor.now += TimeUnit.SECONDS.toMillis(45);
+    assertThat(requestor.getDelayInMs(URL)).isEqualTo(TimeUnit.SECONDS.toMillis(15));
+  }
+
+  @Test
+  void pageUsage_onlyDelaysTheSamePage() throws IOException {
+    TestRequestor requestor = new TestRequestor(
+      response(DebugHeaderInfo.DebugHeaderInfoFactory.create().setPageUsage(usage(100, 10, 10))));
+
+    requestor.executeGet("https://graph.facebook.com/v10.0/12345/feed");
+
+    assertThat(requestor.getBudgets()).containsOnlyKeys("page:12345");
+    assertThat(requestor.getDelayInMs("https://graph.facebook.com/v10.0/12345/posts?limit=10"))
+      .isEqualTo(TimeUnit.MINUTES.toMillis(1));
+    assertThat(requestor.getDelayInMs("https://graph.facebook.com/v10.0/67890/feed")).isZero();
+  }
+
+  @Test
+  void adAccountUsage_onlyDelaysTheSameAdAccount() throws IOException {
+    TestRequestor requestor = new TestRequestor(response(
+      DebugHeaderInfo.DebugHeaderInfoFactory.create().setAdAccountUsage("{\"acc_id_util_pct\":100}")));
+
+    requestor.executeGet("https://graph.facebook.com/v10.0/act_111/campaigns");
+
+    assertThat(requestor.getBudgets()).containsOnlyKeys("ad_account:111");
+    assertThat(requestor.getDelayInMs("https://graph.facebook.com/v10.0/act_111/adsets")).isPositive();
+    assertThat(requestor.getDelayInMs("https://graph.facebook.com/v10.0/act_222/adsets")).isZero();
+  }
+
+  @Test
+  void businessUsage_matchesWholePathSegments() throws IOException {
+    TestRequestor requestor = new TestRequestor(response(DebugHeaderInfo.DebugHeaderInfoFactory.create()
+      .setBusinessUseCaseUsage("{\"112233\":[{\"type\":\"pages\",\"call_count\":100,\"total_cputime\":25,"
+          + "\"total_time\":25,\"estimated_time_to_regain_access\":2}]}")));
+
+    requestor.executeGet("https://graph.facebook.com/v10.0/112233/feed");
+
+    assertThat(requestor.getDelayInMs("https://graph.facebook.com/v10.0/112233/posts")).isPositive();
+    assertThat(requestor.getDelayInMs("https://graph.facebook.com/v10.0/1122334455/feed")).isZero();
+  }
+
+  @Test
+  void throttlingError_bodyWithWhitespaceAndOtherKeyOrder() throws IOException {
+    TestRequestor requestor = new TestRequestor(new Response(HTTP_BAD_REQUEST,
+      " {\"trace\":\"x\", \"error\" : {\"code\":32,\"message\":\"(#32) Page request limit reached\"}}"));
+
+    requestor.executeGet("https://graph.facebook.com/v10.0/12345/feed");
+
+    assertThat(requestor.getBudgets()).containsOnlyKeys("page:12345");
+    assertThat(requestor.getBudgets().get("page:12345").isExhausted()).isTrue();
+  }
+
+  @Test
+  void throttlingError_appLimitOnAdAccountUrl() throws IOException {
+    TestRequestor requestor = new TestRequestor(new Response(HTTP_BAD_REQUEST,
+      "{\"error\":{\"message\":\"(#4) Application request limit reached\",\"code\":4}}"));
+
+    requestor.executeGet("https://graph.facebook.com/v10.0/act_111/campaigns");
+
+    assertThat(requestor.getBudgets()).containsOnlyKeys("app");
+  }
+
+  @Test
+  void throttlingError_userLimitOnAdAccountUrl() throws IOException {
+    TestRequestor requestor = new TestRequestor(new Response(HTTP_BAD_REQUEST,
+      "{\"error\":{\"message\":\"(#17) User request limit reached\",\"code\":17}}"));
+
+    requestor.executeGet("https://graph.facebook.com/v10.0/act_111/campaigns");
+
+    assertThat(requestor.getBudgets()).containsOnlyKeys("ad_account:111");
+  }
+
+  @Test
+  void successfulBody_withErrorKey_isIgnored() throws IOException {
+    TestRequestor requestor = new TestRequestor(new Response(HTTP_OK, "{\"data\":[{\"error\":{\"code\":4}}]}"));
+
+    requestor.executeGet(URL);
+
+    assertThat(requestor.getBudgets()).isEmpty();
+  }
+
+  @Test
+  void staleBudget_dropped() throws IOException {
+    TestRequestor requestor = new TestRequestor(
+      response(DebugHeaderInfo.DebugHeaderInfoFactory.create().setAppUsage(usage(99, 99, 99))));
+
+    requestor.executeGet(URL);
+    requestor.now += TimeUnit.MINUTES.toMillis(11);
+
+    assertThat(requestor.getDelayInMs(URL)).isZero();
+    assertThat(requestor.getBudgets()).isEmpty();
+  }
+
+  private static String usage(int callCount, int totalTime, int totalCputime) {
+    return "{\"call_count\":" + callCount + ",\"total_time\":" + totalTime + ",\"total_cputime\":" + totalCputime
+        + "}";
+  }
+
+  private static Response response(DebugHeaderInfo.DebugHeaderInfoFactory factory) {
+    return new Response(HTTP_OK, "{}", null, factory.build());
+  }
+
+  private static class TestRequestor extends ThrottlingWebRequestor {
+
+    private final List<Long> pauses = new ArrayList<>();
+
+    private long now = 1_000_000L;
+
+    TestRequestor(Response response) {
+      super(new FakeWebRequestor(response));
+    }
+
+    @Override
+    protected long currentTimeMillis() {
+      return now;
+    }
+
+    @Override
+    protected void pause(long delayInMs) {
+      pauses.add(delayInMs);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.restfb.TypeBinding.Conversion;
+import com.restfb.TypeBinding.FieldBinding;
+import com.restfb.types.From;
+import com.restfb.types.User;
+
+class TypeBindingTest {
+
+  @Test
+  void bindingIsCached() {
+    assertThat(TypeBinding.of(User.class)).isSameAs(TypeBinding.of(User.class));
+  }
+
+  @Test
+  void fieldNamesAndConversions() {
+    TypeBinding binding = TypeBinding.of(BindingTestClass.class);
+
+    assertThat(binding.hasFieldBindings()).isTrue();
+    assertThat(binding.getFieldBindings()).extracting(FieldBinding::getFacebookFieldName)
+      .containsExactly("my_name", "count", "items", "values", "count");
+    assertThat(binding.getFieldBindings()).extracting(FieldBinding::getConversion).containsExactly(Conversion.STRING,
+      Conversion.INTEGER, Conversion.LIST, Conversion.MAP, Conversion.STRING);
+    assertThat(binding.getFacebookFieldNamesWithMultipleMappings()).containsExactly("count");
+    assertThat(binding.getFieldBindings().get(2).getFirstTypeArgument()).isEqualTo(Long.class);
+    assertThat(binding.getFieldBindings().get(3).getSecondTypeArgument()).isEqualTo(Integer.class);
+  }
+
+  @Test
+  void noFieldBindings() {
+    assertThat(TypeBinding.of(String.class).hasFieldBindings()).isFalse();
+    assertThat(TypeBinding.of(Integer.TYPE).hasFieldBindings()).isFalse();
+  }
+
+  @Test
+  void originalJsonDetected() {
+    assertThat(TypeBinding.of(From.class).isOriginalJsonPresent()).isTrue();
+    assertThat(TypeBinding.of(User.class).isOriginalJsonPresent()).isFalse();
+  }
+
+  @Test
+  void setAndGet() {
+    FieldBinding nameBinding = TypeBinding.of(BindingTestClass.class).getFieldBindings().get(0);
+    BindingTestClass instance = TypeBinding.of(BindingTestClass.class).newInstance();
+
+    nameBinding.set(instance, "test");
+
+    assertThat(instance.name).isEqualTo("test");
+    assertThat(nameBinding.get(instance)).isEqualTo("test");
+  }
+
+  @Test
+  void fieldBindingByField() {
+    TypeBinding binding = TypeBinding.of(BindingTestClass.class);
+    FieldBinding countBinding = binding.getFieldBindings().get(1);
+
+    assertThat(binding.getFieldBinding(countBinding.getField())).isSameAs(countBinding);
+    assertThat(binding.getFieldsWithAnnotation()).hasSize(5);
+  }
+
+  @Test
+  void nullForPrimitiveField() {
+    FieldBinding countBinding = TypeBinding.of(BindingTestClass.class).getFieldBindings().get(1);
+    BindingTestClass instance = TypeBinding.of(BindingTestClass.class).newInstance();
+
+    assertThrows(IllegalArgumentException.class, () -> countBinding.set(instance, null));
+  }
+
+  static class BindingTestClass {
+    @Facebook("my_name")
+    private String name;
+
+    @Facebook
+    int count;
+
+    @Facebook
+    List<Long> items;
+
+    @Facebook
+    Map<String, Integer> values;
+
+    @Facebook("count")
+    String countAsString;
+
+    private BindingTestClass() {
+      // private constructor has to be usable too
+    }
+  }
+}
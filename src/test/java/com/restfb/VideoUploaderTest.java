@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.restfb.exception.FacebookNetworkException;
+import com.restfb.exception.FacebookOAuthException;
+import com.restfb.types.GraphResponse;
+import com.restfb.types.ResumableUploadStartResponse;
+import com.restfb.types.ResumableUploadTransferResponse;
+
+class VideoUploaderTest {
+
+  private final JsonMapper jsonMapper = new DefaultJsonMapper();
+
+  private final List<String> phases = Collections.synchronizedList(new ArrayList<>());
+
+  private final List<BinaryAttachment> chunks = Collections.synchronizedList(new ArrayList<>());
+
+  private final AtomicInteger failingTransfers = new AtomicInteger();
+
+  private ExecutorService executor;
+
+  private FacebookClient facebookClient;
+
+  @TempDir
+  Path tempDir;
+
+  @BeforeEach
+  void setUp() {
+    executor = Executors.newFixedThreadPool(3);
+    facebookClient = mock(FacebookClient.class, invocation -> {
+      Object[] args = invocation.getArguments();
+      Class<?> type = (Class<?>) args[1];
+      if (type == ResumableUploadStartResponse.class) {
+        phases.add("start");
+        return jsonMapper.toJavaObject(
+          "{\"upload_session_id\":\"42\",\"video_id\":\"4711\",\"start_offset\":\"0\",\"end_offset\":\"4\"}", type);
+      }
+      if (type == ResumableUploadTransferResponse.class) {
+        phases.add("transfer");
+        if (failingTransfers.getAndDecrement() > 0) {
+          throw new FacebookNetworkException(503);
+        }
+        chunks.add(((List<BinaryAttachment>) args[2]).get(0));
+        return jsonMapper.toJavaObject("{\"start_offset\":\"10\",\"end_offset\":\"10\"}", type);
+      }
+      phases.add("finish");
+      return jsonMapper.toJavaObject("{\"success\":true}", GraphResponse.class);
+    });
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void uploadsAllChunks() throws IOException {
+    Path video = createVideo();
+    AtomicLong lastUploaded = new AtomicLong();
+    VideoUploader uploader = new VideoUploader(facebookClient, executor);
+    uploader.setProgressListener((uploaded, total, bytesPerSecond) -> {
+      assertThat(total).isEqualTo(10);
+      lastUploaded.accumulateAndGet(uploaded, Math::max);
+    });
+
+    String videoId = uploader.upload("123", video);
+
+    assertThat(videoId).isEqualTo("4711");
+    assertThat(phases).containsExactly("start", "transfer", "transfer", "transfer", "finish");
+    assertThat(chunks).extracting(BinaryAttachment::getFilePosition).containsExactlyInAnyOrder(0L, 4L, 8L);
+    assertThat(chunks).extracting(BinaryAttachment::getContentLength).containsExactlyInAnyOrder(4L, 4L, 2L);
+    assertThat(lastUploaded.get()).isEqualTo(10);
+  }
+
+  @Test
+  void retriesFailedChunk() throws IOException {
+    failingTransfers.set(1);
+    List<Long> pauses = new ArrayList<>();
+    VideoUploader uploader = new VideoUploader(facebookClient, executor, 3, 100) {
+      @Override
+      protected void pause(long delayInMs) {
+        pauses.add(delayInMs);
+      }
+    };
+
+    uploader.upload("123", createVideo());
+
+    assertThat(chunks).hasSize(3);
+    assertThat(pauses).containsExactly(100L);
+  }
+
+  @Test
+  void failsAfterMaxAttempts() throws IOException {
+    failingTransfers.set(10);
+    Path video = createVideo();
+    Path progress = tempDir.resolve("video.progress");
+    VideoUploader uploader = new VideoUploader(facebookClient, executor, 2, 0);
+
+    assertThrows(FacebookNetworkException.class, () -> uploader.upload("123", video, progress));
+    assertThat(phases).doesNotContain("finish");
+    assertThat(progress).exists();
+  }
+
+  @Test
+  void doesNotRetryPermanentErrors() {
+    VideoUploader uploader = new VideoUploader(facebookClient, executor);
+    assertThat(uploader.isRetryable(new FacebookOAuthException("OAuthException", "invalid token", 190, null, 400,
+      null, null, false, null))).isFalse();
+    assertThat(uploader.isRetryable(new FacebookNetworkException(500))).isTrue();
+  }
+
+  @Test
+  void resumesFromProgressFile() throws IOException {
+    Path video = createVideo();
+    Path progress = tempDir.resolve("video.progress");
+    Files.write(progress, Arrays.asList("upload_session_id=42", "video_id=4711", "file_size=10", "chunk_size=4",
+      "completed_chunks=0,4"));
+
+    String videoId = new VideoUploader(facebookClient, executor).upload("123", video, progress);
+
+    assertThat(videoId).isEqualTo("4711");
+    assertThat(phases).containsExactly("transfer", "finish");
+    assertThat(chunks).extracting(BinaryAttachment::getFilePosition).containsExactly(8L);
+    assertThat(progress).doesNotExist();
+  }
+
+  private Path createVideo() throws IOException {
+    Path video = tempDir.resolve("video.mp4");
+    Files.write(video, "0123456789".getBytes());
+    return video;
+  }
+}
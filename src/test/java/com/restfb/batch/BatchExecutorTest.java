@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.SocketTimeoutException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.restfb.FacebookClient;
+import com.restfb.exception.FacebookNetworkException;
+
+class BatchExecutorTest {
+
+  private final List<List<BatchRequest>> calls = Collections.synchronizedList(new ArrayList<>());
+
+  private final Set<String> failOnce = Collections.synchronizedSet(new HashSet<>());
+
+  private BatchExecutor batchExecutor;
+
+  @BeforeEach
+  void setUp() {
+    FacebookClient facebookClient = mock(FacebookClient.class);
+    when(facebookClient.executeBatch(anyList())).thenAnswer(invocation -> {
+      List<BatchRequest> requests = invocation.getArgument(0);
+      calls.add(requests);
+      return requests.stream()
+        .map(request -> failOnce.remove(request.getRelativeUrl())
+            ? new BatchResponse(500, Collections.emptyList(), "{}")
+            : new BatchResponse(200, Collections.emptyList(), request.getRelativeUrl()))
+        .collect(Collectors.toList());
+    });
+    batchExecutor = new BatchExecutor(facebookClient, Runnable::run, 3, 0);
+  }
+
+  @Test
+  void splitsLargeBatches() {
+    List<BatchRequest> requests = createRequests(120);
+
+    List<BatchResponse> responses = batchExecutor.execute(requests);
+
+    assertThat(calls).extracting(List::size).containsExactlyInAnyOrder(50, 50, 20);
+    assertThat(responses).extracting(BatchResponse::getBody)
+      .containsExactlyElementsOf(requests.stream().map(BatchRequest::getRelativeUrl).collect(Collectors.toList()));
+  }
+
+  @Test
+  void keepsDependentRequestsTogether() {
+    List<BatchRequest> requests = createRequests(49);
+    requests.add(new BatchRequest.BatchRequestBuilder("first").name("first").build());
+    requests.add(new BatchRequest.BatchRequestBuilder("second").dependsOn("first").build());
+    requests.add(new BatchRequest.BatchRequestBuilder("third?ids={result=first:$.id}").build());
+
+    batchExecutor.execute(requests);
+
+    assertThat(calls).hasSize(2);
+    List<BatchRequest> dependentCall =
+        calls.stream().filter(call -> call.contains(requests.get(49))).findFirst().orElseThrow(AssertionError::new);
+    assertThat(dependentCall).contains(requests.get(50), requests.get(51));
+  }
+
+  @Test
+  void sendsLongChainsInOrder() {
+    List<BatchRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 60; i++) {
+      requests.add(new BatchRequest.BatchRequestBuilder("node" + i).name("node" + i)
+        .dependsOn(i == 0 ? null : "node" + (i - 1)).build());
+    }
+
+    List<BatchResponse> responses = batchExecutor.execute(requests);
+
+    assertThat(calls).hasSize(2);
+    assertThat(calls.get(0)).hasSize(50);
+    assertThat(calls.get(1).get(0).getRelativeUrl()).isEqualTo("node50");
+    assertThat(calls.get(1).get(0).getDependsOn()).isNull();
+    assertThat(calls.get(1).get(1).getDependsOn()).isEqualTo("node50");
+    assertThat(responses).extracting(BatchResponse::getCode).containsOnly(200);
+  }
+
+  @Test
+  void sendsLongChainsWithResultReferencesInOrder() {
+    List<BatchRequest> requests = new ArrayList<>();
+    requests.add(new BatchRequest.BatchRequestBuilder("node0").name("node0").build());
+    for (int i = 1; i < 60; i++) {
+      BatchRequest.BatchRequestBuilder builder = new BatchRequest.BatchRequestBuilder(
+        i == 50 ? "node50" : "node" + i + "?ids={result=node" + (i - 1) + ":$.id}").name("node" + i);
+      requests.add(i == 50 ? builder.dependsOn("node49").build() : builder.build());
+    }
+
+    List<BatchResponse> responses = batchExecutor.execute(requests);
+
+    assertThat(calls).hasSize(2);
+    assertThat(calls.get(0)).hasSize(50);
+    assertThat(calls.get(1).get(0).getRelativeUrl()).isEqualTo("node50");
+    assertThat(calls.get(1).get(0).getDependsOn()).isNull();
+    assertThat(responses).extracting(BatchResponse::getCode).containsOnly(200);
+  }
+
+  @Test
+  void rejectsResultReferencesBetweenBatchCalls() {
+    List<BatchRequest> requests = new ArrayList<>();
+    requests.add(new BatchRequest.BatchRequestBuilder("node0").name("node0").build());
+    for (int i = 1; i < 60; i++) {
+      requests.add(new BatchRequest.BatchRequestBuilder("node" + i + "?ids={result=node" + (i - 1) + ":$.id}")
+        .name("node" + i).build());
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> batchExecutor.execute(requests));
+    assertThat(calls).isEmpty();
+  }
+
+  @Test
+  void failsWhenInterruptedBeforeRetry() {
+    FacebookClient facebookClient = mock(FacebookClient.class);
+    when(facebookClient.executeBatch(anyList()))
+      .thenAnswer(invocation -> Collections.singletonList(new BatchResponse(500, Collections.emptyList(), "{}")));
+    BatchExecutor interruptedExecutor = new BatchExecutor(facebookClient, Runnable::run, 3, 0) {
+      @Override
+      protected void pause(long delayInMs) throws InterruptedException {
+        throw new InterruptedException();
+      }
+    };
+
+    try {
+      assertThrows(FacebookNetworkException.class, () -> interruptedExecutor.execute(createRequests(1)));
+      assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  void retriesOnlyTransientFailures() {
+    List<BatchRequest> requests = createRequests(5);
+    failOnce.add("item2");
+
+    List<BatchResponse> responses = batchExecutor.execute(requests);
+
+    assertThat(calls).hasSize(2);
+    assertThat(calls.get(1)).extracting(BatchRequest::getRelativeUrl).containsExactly("item2");
+    assertThat(responses).extracting(BatchResponse::getCode).containsOnly(200);
+  }
+
+  @Test
+  void doesNotRetryFailedPostsByDefault() {
+    List<BatchRequest> requests = createRequests(2);
+    requests.add(new BatchRequest.BatchRequestBuilder("me/feed").method("POST").build());
+    failOnce.add("item1");
+    failOnce.add("me/feed");
+
+    List<BatchResponse> responses = batchExecutor.execute(requests);
+
+    assertThat(calls).hasSize(2);
+    assertThat(calls.get(1)).extracting(BatchRequest::getRelativeUrl).containsExactly("item1");
+    assertThat(responses).extracting(BatchResponse::getCode).containsExactly(200, 200, 500);
+  }
+
+  @Test
+  void retriesFailedPostsWhenEnabled() {
+    List<BatchRequest> requests = new ArrayList<>();
+    requests.add(new BatchRequest.BatchRequestBuilder("me/feed").method("POST").build());
+    failOnce.add("me/feed");
+    FacebookClient facebookClient = mock(FacebookClient.class);
+    when(facebookClient.executeBatch(anyList())).thenAnswer(invocation -> {
+      List<BatchRequest> batch = invocation.getArgument(0);
+      calls.add(batch);
+      return batch.stream()
+        .map(request -> new BatchResponse(failOnce.remove(request.getRelativeUrl()) ? 500 : 200,
+          Collections.emptyList(), "{}"))
+        .collect(Collectors.toList());
+    });
+
+    List<BatchResponse> responses = new BatchExecutor(facebookClient, Runnable::run, 3, 0, true).execute(requests);
+
+    assertThat(calls).hasSize(2);
+    assertThat(responses).extracting(BatchResponse::getCode).containsExactly(200);
+  }
+
+  @Test
+  void doesNotRetryFailedCallsWithPosts() {
+    FacebookClient facebookClient = mock(FacebookClient.class);
+    when(facebookClient.executeBatch(anyList())).thenThrow(new FacebookNetworkException(new SocketTimeoutException()));
+    BatchExecutor executor = new BatchExecutor(facebookClient, Runnable::run, 3, 0);
+
+    assertThrows(FacebookNetworkException.class, () -> executor
+      .execute(Collections.singletonList(new BatchRequest.BatchRequestBuilder("me/feed").method("POST").build())));
+    assertThrows(FacebookNetworkException.class, () -> executor.execute(createRequests(1)));
+
+    verify(facebookClient, times(4)).executeBatch(anyList());
+  }
+
+  @Test
+  void isTransientFailure() {
+    BatchRequest request = new BatchRequest.BatchRequestBuilder("me").build();
+    assertThat(batchExecutor.isTransientFailure(request, null)).isTrue();
+    assertThat(batchExecutor.isTransientFailure(request,
+      new BatchResponse(400, Collections.emptyList(), "{\"error\":{\"code\":2,\"message\":\"Service unavailable\"}}")))
+        .isTrue();
+    assertThat(batchExecutor.isTransientFailure(request,
+      new BatchResponse(400, Collections.emptyList(), "{\"error\":{\"code\":100,\"message\":\"Invalid parameter\"}}")))
+        .isFalse();
+  }
+
+  @Test
+  void rejectsCycles() {
+    List<BatchRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 60; i++) {
+      requests.add(
+        new BatchRequest.BatchRequestBuilder("node" + i).name("node" + i).dependsOn("node" + ((i + 1) % 60)).build());
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> batchExecutor.execute(requests));
+  }
+
+  private List<BatchRequest> createRequests(int count) {
+    List<BatchRequest> requests = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      requests.add(new BatchRequest.BatchRequestBuilder("item" + i).build());
+    }
+    return requests;
+  }
+}
@@ -27,6 +27,7 @@ import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
@@ -877,7 +878,6 @@ class JsonObject_Test {
   @Test
   void indexOf_returnsIndexOfLastMember_forBigObject() {
     object.add("a", true);
-    // for indexes above 255, the hash index table does not return a value
     for (int i = 0; i < 256; i++) {
       object.add("x-" + i, 0);
     }
@@ -886,34 +886,55 @@ class JsonObject_Test {
     assertEquals(257, object.indexOf("a"));
   }
 
+  @Test
+  void indexOf_findsAllMembers_afterRemovingFromBigObject() {
+    for (int i = 0; i < 1000; i++) {
+      object.add("x-" + i, i);
+    }
+    for (int i = 0; i < 1000; i += 3) {
+      object.remove("x-" + i);
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i % 3 == 0 ? -1 : i - i / 3 - 1, object.indexOf("x-" + i), "x-" + i);
+    }
+  }
+
   @Test
   void hashIndexTable_copyConstructor() {
-    HashIndexTable original = new HashIndexTable();
-    original.add("name", 23);
+    List<String> names = names(24);
+    HashIndexTable original = new HashIndexTable(names);
+    original.add("name-23", 23);
 
-    HashIndexTable copy = new HashIndexTable(original);
+    HashIndexTable copy = new HashIndexTable(original, new ArrayList<>(names));
 
-    assertEquals(23, copy.get("name"));
+    assertEquals(23, copy.get("name-23"));
   }
 
   @Test
   void hashIndexTable_add() {
-    HashIndexTable indexTable = new HashIndexTable();
+    HashIndexTable indexTable = new HashIndexTable(names(0x200));
 
     indexTable.add("name-0", 0);
     indexTable.add("name-1", 1);
-    indexTable.add("name-fe", 0xfe);
-    indexTable.add("name-ff", 0xff);
+    indexTable.add("name-254", 0xfe);
+    indexTable.add("name-255", 0xff);
+    indexTable.add("name-300", 300);
 
     assertEquals(0, indexTable.get("name-0"));
     assertEquals(1, indexTable.get("name-1"));
-    assertEquals(0xfe, indexTable.get("name-fe"));
-    assertEquals(-1, indexTable.get("name-ff"));
+    assertEquals(0xfe, indexTable.get("name-254"));
+    assertEquals(0xff, indexTable.get("name-255"));
+    assertEquals(300, indexTable.get("name-300"));
+    assertEquals(-1, indexTable.get("name-2"));
   }
 
   @Test
   void hashIndexTable_add_overwritesPreviousValue() {
-    HashIndexTable indexTable = new HashIndexTable();
+    List<String> names = names(43);
+    names.set(23, "name");
+    names.set(42, "name");
+    HashIndexTable indexTable = new HashIndexTable(names);
 
     indexTable.add("name", 23);
     indexTable.add("name", 42);
@@ -922,45 +943,56 @@ class JsonObject_Test {
   }
 
   @Test
-  void hashIndexTable_add_clearsPreviousValueIfIndexExceeds0xff() {
-    HashIndexTable indexTable = new HashIndexTable();
+  void hashIndexTable_add_growsWithMemberCount() {
+    List<String> names = names(10000);
+    HashIndexTable indexTable = new HashIndexTable(names);
 
-    indexTable.add("name", 23);
-    indexTable.add("name", 300);
+    for (int i = 0; i < names.size(); i++) {
+      indexTable.add(names.get(i), i);
+    }
 
-    assertEquals(-1, indexTable.get("name"));
+    for (int i = 0; i < names.size(); i++) {
+      assertEquals(i, indexTable.get(names.get(i)));
+    }
+    assertEquals(-1, indexTable.get("missing"));
   }
 
   @Test
   void hashIndexTable_remove() {
-    HashIndexTable indexTable = new HashIndexTable();
+    List<String> names = names(24);
+    HashIndexTable indexTable = new HashIndexTable(names);
 
-    indexTable.add("name", 23);
+    indexTable.add("name-23", 23);
     indexTable.remove(23);
+    names.remove(23);
 
-    assertEquals(-1, indexTable.get("name"));
+    assertEquals(-1, indexTable.get("name-23"));
   }
 
   @Test
   void hashIndexTable_remove_updatesSubsequentElements() {
-    HashIndexTable indexTable = new HashIndexTable();
+    List<String> names = names(43);
+    HashIndexTable indexTable = new HashIndexTable(names);
 
-    indexTable.add("foo", 23);
-    indexTable.add("bar", 42);
+    indexTable.add("name-23", 23);
+    indexTable.add("name-42", 42);
     indexTable.remove(23);
+    names.remove(23);
 
-    assertEquals(41, indexTable.get("bar"));
+    assertEquals(41, indexTable.get("name-42"));
   }
 
   @Test
   void hashIndexTable_remove_doesNotChangePrecedingElements() {
-    HashIndexTable indexTable = new HashIndexTable();
+    List<String> names = names(43);
+    HashIndexTable indexTable = new HashIndexTable(names);
 
-    indexTable.add("foo", 23);
-    indexTable.add("bar", 42);
+    indexTable.add("name-23", 23);
+    indexTable.add("name-42", 42);
     indexTable.remove(42);
+    names.remove(42);
 
-    assertEquals(23, indexTable.get("foo"));
+    assertEquals(23, indexTable.get("name-23"));
   }
 
   @Test
@@ -1046,4 +1078,12 @@ class JsonObject_Test {
     return object;
   }
 
+  private static List<String> names(int count) {
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      names.add("name-" + i);
+    }
+    return names;
+  }
+
 }
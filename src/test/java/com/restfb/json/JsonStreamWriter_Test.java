@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+class JsonStreamWriter_Test {
+
+  @Test
+  void writesSameOutputAsTree() throws IOException {
+    JsonObject nested = new JsonObject().add("a", "x\"y").add("b", new JsonArray().add(1).add(true));
+    JsonValue expected = new JsonArray().add(new JsonObject().add("id", 1).add("empty", new JsonObject())
+      .add("items", new JsonArray().add(nested).add(Json.NULL).add(new JsonArray()))).add("last");
+    StringWriter output = new StringWriter();
+
+    new JsonStreamWriter(output).beginArray()
+      .beginObject()
+      .name("id").value(Json.value(1))
+      .name("empty").beginObject().endObject()
+      .name("items").beginArray().value(nested).value(Json.NULL).beginArray().endArray().endArray()
+      .endObject()
+      .value(Json.value("last"))
+      .endArray();
+
+    assertEquals(expected.toString(), output.toString());
+  }
+
+  @Test
+  void writesDeeplyNestedArrays() throws IOException {
+    StringWriter output = new StringWriter();
+    JsonStreamWriter writer = new JsonStreamWriter(output);
+
+    for (int i = 0; i < 40; i++) {
+      writer.beginArray().value(Json.value(i));
+    }
+    for (int i = 0; i < 40; i++) {
+      writer.endArray();
+    }
+
+    assertEquals(Json.parse(output.toString()).toString(), output.toString());
+  }
+
+  @Test
+  void usesWriterConfig() throws IOException {
+    StringWriter unicode = new StringWriter();
+    StringWriter minimal = new StringWriter();
+
+    new JsonStreamWriter(unicode).value(Json.value("ü"));
+    new JsonStreamWriter(minimal, WriterConfig.MINIMAL).value(Json.value("ü"));
+
+    assertEquals("\"\\u00fc\"", unicode.toString());
+    assertEquals("\"ü\"", minimal.toString());
+  }
+
+  @Test
+  void name_rejectsNull() {
+    JsonStreamWriter writer = new JsonStreamWriter(new StringWriter());
+
+    assertThrows(NullPointerException.class, () -> writer.name(null));
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.json;
+
+import static com.restfb.json.TestUtil.serializeAndDeserialize;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class LazyJsonParser_Test {
+
+  private static final String PAGE = "{\"data\": [{\"id\": \"1_2\", \"message\": \"caf\\u00e9 \\\"quoted\\\"\\n\", "
+      + "\"likes\": {\"data\": [], \"summary\": {\"total_count\": 3}}},\n {\"id\": \"1_3\", \"tags\": [[1, -2.5e3], "
+      + "{}, null, true, false]}], \"paging\": {\"cursors\": {\"after\": \"QVFI\"}, \"next\": \"https://x/y?a=b\"}}";
+
+  @Test
+  void parseLazy_isEqualToEagerParse() {
+    JsonValue eager = Json.parse(PAGE);
+
+    JsonValue lazy = Json.parseLazy(PAGE);
+
+    assertEquals(eager, lazy);
+    assertEquals(lazy, eager);
+    assertEquals(eager.hashCode(), lazy.hashCode());
+    assertEquals(eager.toString(), lazy.toString());
+  }
+
+  @Test
+  void parseLazy_nestedValuesAreBuiltOnAccess() {
+    JsonObject page = Json.parseLazy(PAGE).asObject();
+
+    JsonObject paging = page.get("paging").asObject();
+    JsonArray data = page.get("data").asArray();
+
+    assertThat(paging).isSameAs(page.get("paging"));
+    assertEquals("QVFI", paging.get("cursors").asObject().getString("after", null));
+    assertThat(data.values()).allMatch(JsonObject.class::isInstance);
+    assertThat(data).allMatch(JsonObject.class::isInstance);
+    assertEquals("café \"quoted\"\n", data.get(0).asObject().getString("message", null));
+    assertEquals(3, data.get(0).asObject().get("likes").asObject().get("summary").asObject().getInt("total_count", 0));
+    assertEquals(-2500, data.get(1).asObject().get("tags").asArray().get(0).asArray().get(1).asDouble(), 0);
+  }
+
+  @Test
+  void parseLazy_membersAreResolvedByIterationAndUnmodifiableViews() {
+    JsonObject page = JsonObject.unmodifiableObject(Json.parseLazy(PAGE).asObject());
+
+    for (JsonObject.Member member : page) {
+      assertThat(member.getValue()).isInstanceOfAny(JsonObject.class, JsonArray.class);
+    }
+    assertThat(page.get("data").asArray().get(1)).isInstanceOf(JsonObject.class);
+  }
+
+  @Test
+  void parseLazy_scalars() {
+    assertEquals(Json.value(23), Json.parseLazy(" 23 "));
+    assertEquals(Json.value("a\tb"), Json.parseLazy("\"a\\tb\""));
+    assertEquals(Json.NULL, Json.parseLazy("null"));
+    assertEquals(new JsonArray(), Json.parseLazy("[ ]"));
+  }
+
+  @Test
+  void parseLazy_validatesWholeInputLikeEagerParse() {
+    String[] invalid = { "", "{\"data\": [{\"id\": 1}, {\"id\": tru}]}", "{\"data\": [1, 2}", "[\"\\x\"]",
+        "{\"a\": {\"b\": [01]}}", "{\"a\" 1}", "[1] x", "{\"a\": \"\u0001\"}", "[1,\n [2, \"3]]" };
+
+    for (String json : invalid) {
+      ParseException expected = assertThrows(ParseException.class, () -> Json.parse(json));
+      ParseException actual = assertThrows(ParseException.class, () -> Json.parseLazy(json));
+
+      assertEquals(expected.getMessage(), actual.getMessage(), json);
+    }
+  }
+
+  @Test
+  void parseLazy_canBeSerializedBeforeAccess() throws Exception {
+    JsonValue lazy = Json.parseLazy(PAGE);
+
+    JsonValue deserialized = serializeAndDeserialize(lazy);
+
+    assertEquals(Json.parse(PAGE), deserialized);
+    assertThat(deserialized.asObject().get("paging")).isInstanceOf(JsonObject.class);
+  }
+
+  @Test
+  void parseLazy_rejectsNull() {
+    assertThrows(NullPointerException.class, () -> Json.parseLazy(null));
+  }
+
+}
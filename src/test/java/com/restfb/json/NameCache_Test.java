@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class NameCache_Test {
+
+  @Test
+  void get_returnsSameInstanceForAllSources() {
+    String name = NameCache.get("xcreated_timex".toCharArray(), 1, 12);
+
+    assertThat(name).isEqualTo("created_time");
+    assertThat(NameCache.get("{\"created_time\"", 2, 14)).isSameAs(name);
+    assertThat(NameCache.get(ByteBuffer.wrap("created_time".getBytes(UTF_8)), 0, 12)).isSameAs(name);
+  }
+
+  @Test
+  void get_doesNotCacheLongNames() {
+    char[] chars = new char[NameCache.MAX_LENGTH + 1];
+    Arrays.fill(chars, 'a');
+
+    String first = NameCache.get(chars, 0, chars.length);
+
+    assertThat(NameCache.get(chars, 0, chars.length)).isEqualTo(first).isNotSameAs(first);
+    assertThat(NameCache.get(ByteBuffer.wrap(new String(chars).getBytes(UTF_8)), 0, chars.length)).isNull();
+  }
+
+  @Test
+  void get_leavesNonAsciiBytesToCaller() {
+    byte[] bytes = "näme".getBytes(UTF_8);
+
+    assertThat(NameCache.get(ByteBuffer.wrap(bytes), 0, bytes.length)).isNull();
+  }
+
+  @Test
+  void get_replacesNameInSameSlot() {
+    // "Aa" and "BB" have the same hash code
+    String first = NameCache.get("Aa", 0, 2);
+    String second = NameCache.get("BB", 0, 2);
+
+    assertThat(second).isEqualTo("BB");
+    assertThat(NameCache.get("Aa", 0, 2)).isEqualTo(first);
+  }
+
+  @Test
+  void parsers_shareNameInstances() {
+    String json = "{\"paging\": {\"next\": \"x\"}, \"n\\u00e4me\": 1}";
+
+    JsonObject parsed = Json.parse(json).asObject();
+    JsonObject utf8Parsed = Json.parse(json.getBytes(UTF_8)).asObject();
+    JsonObject lazyParsed = Json.parseLazy(json).asObject();
+
+    assertThat(utf8Parsed.names().get(0)).isSameAs(parsed.names().get(0));
+    assertThat(lazyParsed.names().get(0)).isSameAs(parsed.names().get(0));
+    assertThat(lazyParsed.get("paging").asObject().names().get(0))
+      .isSameAs(parsed.get("paging").asObject().names().get(0));
+    assertThat(lazyParsed.names().get(1)).isEqualTo("näme");
+    assertThat(utf8Parsed.names().get(1)).isEqualTo("näme");
+  }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class Utf8JsonParser_Test {
+
+  private JsonParser_Test.TestHandler handler;
+  private Utf8JsonParser parser;
+
+  @BeforeEach
+  void setUp() {
+    handler = new JsonParser_Test.TestHandler();
+    parser = new Utf8JsonParser(handler);
+  }
+
+  @Test
+  void constructor_rejectsNullHandler() {
+    assertThrows(NullPointerException.class, () -> new Utf8JsonParser(null));
+  }
+
+  @Test
+  void parse_producesSameEventsAsStringParser() {
+    String json = "{\"data\": [{\"id\": \"1_2\", \"count\": -12.5e3, \"ok\": true, \"none\": null},\n [] , {}]}";
+    JsonParser_Test.TestHandler stringHandler = new JsonParser_Test.TestHandler();
+    new JsonParser(stringHandler).parse(json);
+
+    parser.parse(json.getBytes(UTF_8));
+
+    assertEquals(stringHandler.getLog(), handler.getLog());
+  }
+
+  @Test
+  void parse_decodesMultiByteCharactersAndEscapes() {
+    JsonValue value = Json.parse("[\"Zürich \\u00e9\\n\", \"😀\", \"日本\"]".getBytes(UTF_8));
+
+    JsonArray array = value.asArray();
+    assertEquals("Zürich é\n", array.get(0).asString());
+    assertEquals("😀", array.get(1).asString());
+    assertEquals("日本", array.get(2).asString());
+  }
+
+  @Test
+  void parse_multiByteNamesInObjects() {
+    JsonObject object = Json.parse("{\"näme\":\"välue\"}".getBytes(UTF_8)).asObject();
+
+    assertEquals("välue", object.getString("näme", null));
+  }
+
+  @Test
+  void parse_directBuffer_keepsPosition() {
+    byte[] bytes = "xx{\"a\":[1,2,\"ü\"]}".getBytes(UTF_8);
+    ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip().position(2);
+
+    JsonValue value = Json.parse(buffer);
+
+    assertEquals("ü", value.asObject().get("a").asArray().get(2).asString());
+    assertEquals(2, buffer.position());
+  }
+
+  @Test
+  void parse_slicedHeapBuffer() {
+    byte[] bytes = "[1][\"two\"]".getBytes(UTF_8);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 3, bytes.length - 3).slice();
+
+    assertEquals("two", Json.parse(buffer).asArray().get(0).asString());
+  }
+
+  @Test
+  void parse_inputStream() throws IOException {
+    StringBuilder json = new StringBuilder("[");
+    for (int i = 0; i < 5000; i++) {
+      json.append(i > 0 ? "," : "").append("\"é").append(i).append('"');
+    }
+    json.append(']');
+
+    JsonArray array = Json.parse(new ByteArrayInputStream(json.toString().getBytes(UTF_8))).asArray();
+
+    assertEquals(5000, array.size());
+    assertEquals("é4999", array.get(4999).asString());
+  }
+
+  @Test
+  void parse_rejectsEmpty() {
+    ParseException exception = assertThrows(ParseException.class, () -> parser.parse(new byte[0]));
+
+    assertEquals(0, exception.getLocation().offset);
+    assertThat(exception.getMessage()).startsWith("Unexpected end of input at");
+  }
+
+  @Test
+  void parse_reportsByteOffsetAndLine() {
+    byte[] bytes = "[\"ä\",\n  x]".getBytes(UTF_8);
+
+    ParseException exception = assertThrows(ParseException.class, () -> parser.parse(bytes));
+
+    assertEquals(9, exception.getLocation().offset);
+    assertEquals(2, exception.getLocation().line);
+    assertEquals(3, exception.getLocation().column);
+    assertThat(exception.getMessage()).startsWith("Expected value at");
+  }
+
+  @Test
+  void parse_rejectsControlCharacterInString() {
+    ParseException exception = assertThrows(ParseException.class, () -> parser.parse("\"a\tb\"".getBytes(UTF_8)));
+
+    assertThat(exception.getMessage()).startsWith("Expected valid string character at");
+  }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.restfb.Facebook;
+import com.restfb.types.User;
+import com.restfb.util.ReflectionUtils.FieldWithAnnotation;
+
+class ReflectionUtilsTest {
+
+  @Test
+  void getAccessors_cached() {
+    List<Method> accessors = ReflectionUtils.getAccessors(User.class);
+    assertThat(accessors).isNotEmpty().isSameAs(ReflectionUtils.getAccessors(User.class));
+    assertThat(accessors).extracting(Method::getName).isSorted().doesNotContain("getClass", "hashCode");
+  }
+
+  @Test
+  void findFieldsWithAnnotation_concurrentLookupsShareResult() throws InterruptedException, ExecutionException {
+    int threadCount = 16;
+    List<Callable<List<FieldWithAnnotation<Facebook>>>> tasks = Collections.nCopies(threadCount,
+      () -> ReflectionUtils.findFieldsWithAnnotation(ReflectionUtilsTest.Annotated.class, Facebook.class));
+
+    ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+    try {
+      List<Future<List<FieldWithAnnotation<Facebook>>>> futures = executorService.invokeAll(tasks);
+      List<FieldWithAnnotation<Facebook>> expected =
+          ReflectionUtils.findFieldsWithAnnotation(ReflectionUtilsTest.Annotated.class, Facebook.class);
+      assertThat(expected).hasSize(2);
+      for (Future<List<FieldWithAnnotation<Facebook>>> future : futures) {
+        assertThat(future.get()).isSameAs(expected);
+      }
+    } finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test
+  void equalsHashCodeToString() {
+    Bean bean1 = new Bean("abc", 1, true);
+    Bean bean2 = new Bean("abc", 1, true);
+    Bean bean3 = new Bean(null, 1, true);
+
+    assertThat(ReflectionUtils.equals(bean1, bean2)).isTrue();
+    assertThat(ReflectionUtils.equals(bean1, bean3)).isFalse();
+    assertThat(ReflectionUtils.equals(bean3, bean3)).isTrue();
+    assertThat(ReflectionUtils.hashCode(bean1)).isEqualTo(ReflectionUtils.hashCode(bean2));
+    assertThat(ReflectionUtils.toString(bean1)).isEqualTo("Bean[count=1 name=abc visible=true]");
+    assertThat(ReflectionUtils.toString(bean3)).isEqualTo("Bean[count=1 name=null visible=true]");
+  }
+
+  public static class Bean {
+    private final String name;
+    private final int count;
+    private final boolean visible;
+
+    Bean(String name, int count, boolean visible) {
+      this.name = name;
+      this.count = count;
+      this.visible = visible;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public boolean isVisible() {
+      return visible;
+    }
+  }
+
+  static class Annotated {
+    @Facebook
+    String first;
+
+    @Facebook
+    String second;
+
+    String ignored;
+  }
+}
@@ -103,6 +103,22 @@ class UrlUtilsTest {
     assertThat(resultURL).isEqualTo(expectedURL);
   }
 
+  @Test
+  void removeParameter_onlyParameter() {
+    String exampleUrl = "http://www.example.com?access_token=123";
+    String resultURL = UrlUtils.removeQueryParameter(exampleUrl, "access_token");
+    String expectedURL = "http://www.example.com";
+    assertThat(resultURL).isEqualTo(expectedURL);
+  }
+
+  @Test
+  void removeParameter_encodedValue() {
+    String exampleUrl = "http://www.example.com?access_token=12%7C3&before=a%2Cb";
+    String resultURL = UrlUtils.removeQueryParameter(exampleUrl, "access_token");
+    String expectedURL = "http://www.example.com?before=a%2Cb";
+    assertThat(resultURL).isEqualTo(expectedURL);
+  }
+
   @Test
   void addParameterNoParameter() {
     String exampleUrl = "http://www.example.com";
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2010-2021 Mark Allen, Norbert Bartels.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.restfb.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+class Utf8WritingBufferTest {
+
+  private static final String TEXT = "Grüße, \"Welt\" & 日本 😀 a+b=c ~*._-\n";
+
+  @Test
+  void write_encodesUtf8() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Utf8WritingBuffer buffer = new Utf8WritingBuffer(out, 12);
+
+    buffer.write(TEXT);
+    buffer.flush();
+
+    assertThat(out.toByteArray()).isEqualTo(TEXT.getBytes(UTF_8));
+  }
+
+  @Test
+  void write_formUrlEncodingMatchesUrlEncode() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Utf8WritingBuffer buffer = new Utf8WritingBuffer(out, 12);
+
+    buffer.write("batch=");
+    buffer.setFormUrlEncoding(true);
+    for (char ch : TEXT.toCharArray()) {
+      buffer.write(ch);
+    }
+    buffer.setFormUrlEncoding(false);
+    buffer.write("&format=json");
+    buffer.flush();
+
+    assertThat(new String(out.toByteArray(), UTF_8))
+      .isEqualTo("batch=" + UrlUtils.urlEncode(TEXT) + "&format=json");
+  }
+
+  @Test
+  void write_replacesUnpairedSurrogates() throws IOException {
+    String text = "a\ud83db\ude00c";
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Utf8WritingBuffer buffer = new Utf8WritingBuffer(out);
+    buffer.setFormUrlEncoding(true);
+
+    buffer.write(text);
+    buffer.flush();
+
+    assertThat(new String(out.toByteArray(), UTF_8)).isEqualTo(UrlUtils.urlEncode(text));
+  }
+
+  @Test
+  void close_writesBufferedBytes() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (Utf8WritingBuffer buffer = new Utf8WritingBuffer(out)) {
+      buffer.write("a\ud83d");
+    }
+
+    assertThat(new String(out.toByteArray(), UTF_8)).isEqualTo("a?");
+  }
+
+  @Test
+  void write_afterCloseFails() throws IOException {
+    Utf8WritingBuffer buffer = new Utf8WritingBuffer(new ByteArrayOutputStream());
+    buffer.close();
+
+    assertThatThrownBy(() -> buffer.write('a')).isInstanceOf(IOException.class);
+  }
+
+  @Test
+  void constructor_rejectsSmallBuffer() {
+    assertThatThrownBy(() -> new Utf8WritingBuffer(new ByteArrayOutputStream(), 4))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+}